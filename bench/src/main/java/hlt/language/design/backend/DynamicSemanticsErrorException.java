@@ -0,0 +1,24 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.backend;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.backend</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class DynamicSemanticsErrorException extends RuntimeException
+{
+  protected String _msg = "";
+
+  public final String getMessage ()
+    {
+      return _msg;
+    }
+
+  public final String msg ()
+    {
+      return _msg;
+    }
+}
@@ -0,0 +1,24 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.backend;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.backend</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class ObjectInstance
+{
+  public final void setIntField (int offset, int value)
+    {
+    }
+
+  public final void setRealField (int offset, double value)
+    {
+    }
+
+  public final void setObjectField (int offset, Object value)
+    {
+    }
+}
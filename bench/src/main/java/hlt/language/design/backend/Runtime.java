@@ -0,0 +1,60 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.backend;
+
+import hlt.language.design.instructions.Instruction;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.backend</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library. Type-checking never executes
+ * code, and so any attempt to run some is an error.
+ */
+public class Runtime
+{
+  public final void saveState ()
+    {
+    }
+
+  public final void restoreState ()
+    {
+    }
+
+  public final void setCode (Instruction[] code)
+    {
+    }
+
+  public final void resetIP ()
+    {
+    }
+
+  public final void run ()
+    {
+      throw new UnsupportedOperationException("no runtime in the benchmarks");
+    }
+
+  public final byte resultSort ()
+    {
+      throw new UnsupportedOperationException("no runtime in the benchmarks");
+    }
+
+  public final void pushObject (Object object)
+    {
+    }
+
+  public final Object popObject ()
+    {
+      throw new UnsupportedOperationException("no runtime in the benchmarks");
+    }
+
+  public final int popInt ()
+    {
+      throw new UnsupportedOperationException("no runtime in the benchmarks");
+    }
+
+  public final double popReal ()
+    {
+      throw new UnsupportedOperationException("no runtime in the benchmarks");
+    }
+}
@@ -0,0 +1,24 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.backend;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.backend</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class RuntimeInt
+{
+  private int _value;
+
+  public RuntimeInt (int value)
+    {
+      _value = value;
+    }
+
+  public final int value ()
+    {
+      return _value;
+    }
+}
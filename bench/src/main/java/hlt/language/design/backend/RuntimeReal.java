@@ -0,0 +1,24 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.backend;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.backend</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class RuntimeReal
+{
+  private double _value;
+
+  public RuntimeReal (double value)
+    {
+      _value = value;
+    }
+
+  public final double value ()
+    {
+      return _value;
+    }
+}
@@ -0,0 +1,18 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.instructions;
+
+import hlt.language.design.types.DefinedEntry;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.instructions</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class GetRealField extends Instruction
+{
+  public GetRealField (DefinedEntry field)
+    {
+    }
+}
@@ -0,0 +1,19 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.instructions;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.instructions</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library. Type-checking never executes
+ * code, and so instructions here are mere tokens.
+ */
+public class Instruction
+{
+  public static final Instruction END      = new Instruction();
+  public static final Instruction STOP     = new Instruction();
+  public static final Instruction RETURN_I = new Instruction();
+  public static final Instruction RETURN_R = new Instruction();
+  public static final Instruction RETURN_O = new Instruction();
+}
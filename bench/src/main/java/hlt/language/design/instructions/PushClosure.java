@@ -0,0 +1,31 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.instructions;
+
+/**
+ * Stand-in for the <tt>hlt.language.design.instructions</tt> class of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public class PushClosure extends Instruction
+{
+  public PushClosure (int intFrameSize, int realFrameSize, int objectFrameSize,
+                      int intArity, int realArity, int objectArity, int voidArity)
+    {
+    }
+
+  public final void setNonExitable ()
+    {
+    }
+
+  public final PushClosure setReferenceCode (Instruction[] code)
+    {
+      return this;
+    }
+
+  public final Instruction apply ()
+    {
+      return END;
+    }
+}
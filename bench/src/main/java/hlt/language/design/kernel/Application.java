@@ -0,0 +1,72 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.design.types.FunctionType;
+import hlt.language.design.types.Type;
+import hlt.language.design.types.TypeChecker;
+import hlt.language.design.types.TypingErrorException;
+
+/**
+ * Minimal stand-in for the kernel class of the same name. An application is
+ * type-checked by type-checking its function and arguments, and then unifying
+ * the function's type with a function type built from its arguments' types and
+ * its own. Unlike the real class, it does no currying.
+ */
+public class Application extends Expression
+{
+  private Expression _function;
+  private Expression[] _arguments;
+
+  public Application (Expression function, Expression[] arguments)
+    {
+      _function = function;
+      _arguments = arguments;
+    }
+
+  public final Expression function ()
+    {
+      return _function;
+    }
+
+  public final Expression[] arguments ()
+    {
+      return _arguments;
+    }
+
+  public final void setFunction (Expression function)
+    {
+      _function = function;
+    }
+
+  public final void setArguments (Expression[] arguments)
+    {
+      _arguments = arguments;
+    }
+
+  public final void typeCheck (TypeChecker typeChecker) throws TypingErrorException
+    {
+      _function.typeCheck(typeChecker);
+
+      Type[] domains = new Type[_arguments.length];
+      for (int i=0; i<_arguments.length; i++)
+        {
+          _arguments[i].typeCheck(typeChecker);
+          domains[i] = _arguments[i].typeRef();
+        }
+
+      typeChecker.unify(_function.typeRef(),new FunctionType(domains,_type),this);
+    }
+
+  public final String toString ()
+    {
+      StringBuilder buf = new StringBuilder(String.valueOf(_function)).append("(");
+
+      for (int i=0; i<_arguments.length; i++)
+        buf.append(i == 0 ? "" : ",").append(_arguments[i]);
+
+      return buf.append(")").toString();
+    }
+}
@@ -0,0 +1,49 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.design.types.Tables;
+import hlt.language.design.types.Type;
+import hlt.language.design.types.TypeChecker;
+
+/**
+ * Minimal stand-in for the kernel class of the same name. A constant has the type
+ * it is constructed with, and so type-checking it amounts to nothing. The wrapping
+ * and unwrapping expressions of the real class are only needed for compiling code,
+ * and are left undefined.
+ */
+public class Constant extends Expression
+{
+  public static Expression WRAP_INT;
+  public static Expression WRAP_REAL;
+  public static Expression UNWRAP_INT;
+  public static Expression UNWRAP_REAL;
+
+  public static final void initialize (Tables tables)
+    {
+    }
+
+  private Object _value;
+
+  public Constant (Object value, Type type)
+    {
+      _value = value;
+      _type = type;
+    }
+
+  public final Object value ()
+    {
+      return _value;
+    }
+
+  public final void typeCheck (TypeChecker typeChecker)
+    {
+    }
+
+  public final String toString ()
+    {
+      return String.valueOf(_value);
+    }
+}
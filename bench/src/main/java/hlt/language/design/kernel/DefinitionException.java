@@ -0,0 +1,18 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.design.types.StaticSemanticsErrorException;
+
+/**
+ * Minimal stand-in for the kernel class of the same name.
+ */
+public class DefinitionException extends StaticSemanticsErrorException
+{
+  public DefinitionException (String msg)
+    {
+      _msg = msg;
+    }
+}
@@ -0,0 +1,69 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.util.Locatable;
+import hlt.language.design.types.Type;
+import hlt.language.design.types.TypeChecker;
+import hlt.language.design.types.TypeParameter;
+import hlt.language.design.types.TypingErrorException;
+
+import java.util.AbstractList;
+
+/**
+ * Minimal stand-in for the kernel class of the same name, which lets the benchmarks
+ * build and run without the full HLT library. An expression has a type, initially
+ * a fresh type parameter, and knows how to type-check itself by proving goals in a
+ * <a href="../types/TypeChecker.html"><tt>TypeChecker</tt></a>; it is never compiled.
+ */
+public abstract class Expression implements Locatable
+{
+  /**
+   * This expression's (undereferenced) type.
+   */
+  protected Type _type = new TypeParameter();
+
+  /**
+   * Returns this expression's (undereferenced) type.
+   */
+  public final Type typeRef ()
+    {
+      return _type;
+    }
+
+  /**
+   * Returns this expression's (dereferenced) type.
+   */
+  public final Type type ()
+    {
+      return _type.value();
+    }
+
+  /**
+   * Returns the types this expression must have besides its own; none here.
+   */
+  public AbstractList otherTypes ()
+    {
+      return null;
+    }
+
+  /**
+   * Returns a standardized copy of this expression's current type.
+   */
+  public final Type checkedType ()
+    {
+      return type().standardize();
+    }
+
+  public final Locatable extent ()
+    {
+      return this;
+    }
+
+  /**
+   * Type-checks this expression in the context of the specified typechecker.
+   */
+  public abstract void typeCheck (TypeChecker typeChecker) throws TypingErrorException;
+}
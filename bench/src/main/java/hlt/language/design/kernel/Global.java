@@ -0,0 +1,103 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.design.types.CodeEntry;
+import hlt.language.design.types.GlobalTypingGoal;
+import hlt.language.design.types.Symbol;
+import hlt.language.design.types.Tables;
+import hlt.language.design.types.Type;
+import hlt.language.design.types.TypeChecker;
+import hlt.language.design.types.TypeParameter;
+import hlt.language.design.types.TypingErrorException;
+
+import java.util.AbstractList;
+
+/**
+ * Minimal stand-in for the kernel class of the same name. A global refers to a
+ * (possibly overloaded) <a href="../types/Symbol.html"><tt>Symbol</tt></a>, and is
+ * type-checked by proving a <a href="../types/GlobalTypingGoal.html"><tt>GlobalTypingGoal</tt></a>,
+ * which tries each of the symbol's viable code entries in turn.
+ */
+public class Global extends Expression
+{
+  private Symbol _symbol;
+  private CodeEntry _codeEntry;
+
+  /**
+   * The type that the types of this global's viable code entries must unify with.
+   */
+  private Type _filter = new TypeParameter();
+
+  public Global (Symbol symbol)
+    {
+      _symbol = symbol;
+    }
+
+  public Global (Tables tables, String name)
+    {
+      this(tables.symbol(name));
+    }
+
+  public final Symbol symbol ()
+    {
+      return _symbol;
+    }
+
+  public final String name ()
+    {
+      return _symbol.name();
+    }
+
+  /**
+   * Returns this global's (undereferenced) filter type.
+   */
+  public final Type filter ()
+    {
+      return _filter;
+    }
+
+  /**
+   * Returns this global's (dereferenced) filter type.
+   */
+  public final Type sieve ()
+    {
+      return _filter.value();
+    }
+
+  /**
+   * Returns the code entries of this global's symbol that may be compatible with its
+   * filter type.
+   */
+  public final AbstractList viableTypes ()
+    {
+      Type filter = sieve();
+
+      if (filter.kind() == Type.PARAMETER)
+        return _symbol.typeTable();
+
+      return _symbol.candidateEntries(filter);
+    }
+
+  public final CodeEntry codeEntry ()
+    {
+      return _codeEntry;
+    }
+
+  public final void setCodeEntry (CodeEntry entry)
+    {
+      _codeEntry = entry;
+    }
+
+  public final void typeCheck (TypeChecker typeChecker) throws TypingErrorException
+    {
+      typeChecker.prove(new GlobalTypingGoal(this));
+    }
+
+  public final String toString ()
+    {
+      return _symbol.name();
+    }
+}
@@ -0,0 +1,17 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+/**
+ * Minimal stand-in for the kernel class of the same name, which the <tt>types</tt>
+ * package only refers to as an exitable scope. The benchmarks use none.
+ */
+public abstract class Scope extends Expression
+{
+  /**
+   * Returns the number of parameters of this scope.
+   */
+  public abstract int arity ();
+}
@@ -0,0 +1,63 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.kernel;
+
+import hlt.language.util.Comparable;
+
+/**
+ * Minimal stand-in for the kernel class of the same name. A tuple field name
+ * records a field's name and its original position; field names are ordered
+ * alphabetically.
+ */
+public class TupleFieldName implements Comparable
+{
+  private String _name;
+  private int _index;
+
+  public TupleFieldName (String name, int index)
+    {
+      _name = name.intern();
+      _index = index;
+    }
+
+  public final String name ()
+    {
+      return _name;
+    }
+
+  public final int index ()
+    {
+      return _index;
+    }
+
+  public final boolean isEqualTo (String name)
+    {
+      return _name.equals(name);
+    }
+
+  /**
+   * Two tuple field names are equal iff they have the same name, regardless of their
+   * original positions.
+   */
+  public final boolean equals (Object other)
+    {
+      return other instanceof TupleFieldName && _name == ((TupleFieldName)other).name();
+    }
+
+  public final int hashCode ()
+    {
+      return _name.hashCode();
+    }
+
+  public final boolean lessThan (Object other)
+    {
+      return _name.compareTo(((TupleFieldName)other).name()) < 0;
+    }
+
+  public final String toString ()
+    {
+      return _name;
+    }
+}
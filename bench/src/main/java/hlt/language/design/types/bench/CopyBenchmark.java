@@ -0,0 +1,57 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures <tt>Type.copy()</tt> and <tt>Type.standardize()</tt> on shapes of
+ * increasing width and depth (see <a href="Shapes.html"><tt>Shapes</tt></a>),
+ * either ground or with type parameters at the leaves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyBenchmark
+{
+  @Param({ "function", "tuple", "namedTuple", "array", "collection", "class" })
+  public String kind;
+
+  @Param({ "1", "8", "64" })
+  public int width;
+
+  @Param({ "1", "8", "64" })
+  public int depth;
+
+  @Param({ "false", "true" })
+  public boolean ground;
+
+  private Type _shape;
+
+  @Setup
+  public void setUp ()
+    {
+      _shape = new Shapes(new Tables()).shape(kind,width,depth,ground);
+    }
+
+  @Benchmark
+  public Type copy ()
+    {
+      return _shape.copy();
+    }
+
+  @Benchmark
+  public Type standardize ()
+    {
+      return _shape.standardize();
+    }
+}
@@ -0,0 +1,84 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the occurs-check by binding a fresh type parameter to shapes
+ * of increasing width and depth (see <a href="Shapes.html"><tt>Shapes</tt></a>) that
+ * do not contain it, which forces a traversal of the whole shape. When the shape does
+ * contain it (<tt>occurs</tt> is <tt>true</tt>), it is the deepest, rightmost leaf,
+ * and the unification fails.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccursCheckBenchmark
+{
+  @Param({ "tuple", "function" })
+  public String kind;
+
+  @Param({ "1", "8", "64" })
+  public int width;
+
+  @Param({ "1", "8", "64", "512" })
+  public int depth;
+
+  @Param({ "false", "true" })
+  public boolean occurs;
+
+  private TypeChecker _typeChecker;
+  private TypeParameter _parameter;
+  private Type _shape;
+
+  @Setup
+  public void setUp ()
+    {
+      _parameter = new TypeParameter();
+      _shape = new Shapes(new Tables()).shape(kind,width,depth,false);
+
+      if (occurs)
+        _deepestTuple(_shape).setTypeRefComponent(width-1,_parameter);
+
+      _typeChecker = new TypeChecker();
+      _typeChecker.pushCutPoint();
+    }
+
+  private static final Type _deepestTuple (Type shape)
+    {
+      while (shape.kind() != Type.TUPLE || shape.typeRefComponent(0).kind() != Type.PARAMETER)
+        shape = shape.kind() == Type.FUNCTION
+              ? ((FunctionType)shape).range()
+              : shape.typeRefComponent(0);
+
+      return shape;
+    }
+
+  @Benchmark
+  public boolean bind ()
+    {
+      boolean succeeded = true;
+
+      try
+        {
+          _typeChecker.unify(_parameter,_shape);
+        }
+      catch (TypingErrorException e)
+        {
+          succeeded = false;
+        }
+
+      _typeChecker.reset();
+      return succeeded;
+    }
+}
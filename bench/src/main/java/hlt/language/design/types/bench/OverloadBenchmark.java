@@ -0,0 +1,82 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Constant;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures overload resolution: the typing of an application <tt>f(c)</tt> where the
+ * symbol <tt>f</tt> has <tt>entries</tt> built-in code entries <tt>f : C<sub>i</sub>
+ * -&gt; C<sub>i</sub></tt>, for distinct class types <tt>C<sub>i</sub></tt>, and the
+ * constant <tt>c</tt> has the type <tt>C<sub>k</sub></tt> of the entry at the
+ * specified <tt>position</tt> (<tt>first</tt>, <tt>middle</tt>, or <tt>last</tt>) in
+ * the type table of <tt>f</tt>. The global <tt>f</tt> is typed before its argument,
+ * and so every entry before the right one is tried and backtracked over. The search
+ * stops as soon as the application is found to be uniquely typed or ambiguous.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverloadBenchmark
+{
+  @Param({ "1", "2", "10", "50", "100", "200" })
+  public int entries;
+
+  @Param({ "first", "middle", "last" })
+  public String position;
+
+  private TypeChecker _typeChecker;
+  private Symbol _symbol;
+  private Type _argumentType;
+  private ArrayList _types = new ArrayList();
+
+  @Setup
+  public void setUp ()
+    {
+      Tables tables = new Tables();
+      _symbol = tables.symbol("f");
+
+      for (int i=0; i<entries; i++)
+        {
+          Type type = new ClassType(tables,"C"+i);
+          tables.defineBuiltIn(_symbol,type,type,Instruction.END);
+        }
+
+      int k = position.equals("first") ? 0
+            : position.equals("middle") ? entries/2
+            : entries-1;
+
+      _argumentType = new ClassType(tables,"C"+k);
+      _typeChecker = new TypeChecker(tables);
+    }
+
+  @Benchmark
+  public int resolve ()
+    {
+      Expression application
+        = new Application(new Global(_symbol),
+                          new Expression[] { new Constant("c",_argumentType) });
+
+      _types.clear();
+      _typeChecker.reset();
+      return _typeChecker.uniqueOrAmbiguous(application,_types);
+    }
+}
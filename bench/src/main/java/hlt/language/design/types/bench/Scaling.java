@@ -0,0 +1,214 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import hlt.language.design.kernel.Expression;
+
+import hlt.language.util.ArrayList;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * This is a command-line driver that records scalability curves of the typechecker
+ * on synthetic workloads (see <a href="Workload.html"><tt>Workload</tt></a>). For each
+ * size (number of global occurrences in an expression), it type-checks a number of
+ * distinct random expressions of that size on a reset typechecker, looking for a
+ * first and then a second type (as <tt>uniqueOrAmbiguous</tt> does). It prints one
+ * CSV line per size with the throughput, the latency percentiles, the bytes allocated,
+ * and the average sizes of the effect and goal trails when the first type is found.
+ * The options (with their defaults) are:
+ * <pre>
+ * --seed=42 --sizes=1,2,3,4,5,6 --symbols=16 --overloads=4 --classes=16
+ * --samples=200 --warmup=100 --metrics=false --profile=0 --trace=0 --persistent=false
+ * </pre>
+ * With <tt>--metrics=true</tt>, the <a href="../TypingMetrics.html"><tt>TypingMetrics</tt></a>
+ * of the measured type checks of each size are also printed on the standard error.
+ * With <tt>--profile=</tt><i>n</i> where <i>n</i> &gt; 0, so are the <i>n</i> hottest
+ * spots of their <a href="../TypingProfiler.html"><tt>TypingProfiler</tt></a> report.
+ * With <tt>--trace=</tt><i>n</i> where <i>n</i> &gt; 0, so are the <i>n</i> latest
+ * events recorded by a <a href="../TraceRecorder.html"><tt>TraceRecorder</tt></a>.
+ * With <tt>--persistent=true</tt>, the typechecker binds type parameters in a persistent
+ * <a href="../Substitution.html"><tt>Substitution</tt></a>.
+ * Since each global tries each of its symbol's entries, and the search for a second
+ * type is exhaustive, the cost may grow exponentially with the size of an expression.
+ * Sizes and overloads should thus be raised with care.
+ * For example:
+ * <pre>
+ * java -cp target/benchmarks.jar hlt.language.design.types.bench.Scaling --sizes=10,20,40
+ * </pre>
+ */
+public class Scaling
+{
+  private static long _seed = 42;
+  private static int[] _sizes = { 1, 2, 3, 4, 5, 6 };
+  private static int _symbols = 16;
+  private static int _overloads = 4;
+  private static int _classes = 16;
+  private static int _samples = 200;
+  private static int _warmup = 100;
+  private static boolean _metrics = false;
+  private static int _profile = 0;
+  private static int _trace = 0;
+  private static boolean _persistent = false;
+
+  public static void main (String[] args)
+    {
+      for (int i=0; i<args.length; i++)
+        _parseOption(args[i]);
+
+      System.out.println("globals,samples,typed,ops_per_s,p50_us,p90_us,p99_us,max_us,"+
+                         "bytes_per_op,trail_cells,goal_trail");
+
+      for (int i=0; i<_sizes.length; i++)
+        _measure(_sizes[i]);
+    }
+
+  private static final void _parseOption (String option)
+    {
+      int equal = option.indexOf('=');
+      if (!option.startsWith("--") || equal < 0)
+        throw new IllegalArgumentException("bad option: "+option);
+
+      String name = option.substring(2,equal);
+      String value = option.substring(equal+1);
+
+      if (name.equals("seed"))           _seed = Long.parseLong(value);
+      else if (name.equals("symbols"))   _symbols = Integer.parseInt(value);
+      else if (name.equals("overloads")) _overloads = Integer.parseInt(value);
+      else if (name.equals("classes"))   _classes = Integer.parseInt(value);
+      else if (name.equals("samples"))   _samples = Integer.parseInt(value);
+      else if (name.equals("warmup"))    _warmup = Integer.parseInt(value);
+      else if (name.equals("metrics"))   _metrics = Boolean.parseBoolean(value);
+      else if (name.equals("profile"))   _profile = Integer.parseInt(value);
+      else if (name.equals("trace"))     _trace = Integer.parseInt(value);
+      else if (name.equals("persistent")) _persistent = Boolean.parseBoolean(value);
+      else if (name.equals("sizes"))
+        {
+          String[] sizes = value.split(",");
+          _sizes = new int[sizes.length];
+          for (int i=0; i<sizes.length; i++)
+            _sizes[i] = Integer.parseInt(sizes[i].trim());
+        }
+      else
+        throw new IllegalArgumentException("unknown option: "+option);
+    }
+
+  /**
+   * Measures and prints the line for the specified size. All the expressions are
+   * generated before any is type-checked, so that only type-checking is measured.
+   */
+  private static final void _measure (int size)
+    {
+      Workload workload = new Workload(_seed+size,_classes);
+      workload.defineSymbols(_symbols,_overloads);
+
+      Expression[] expressions = new Expression[_warmup+_samples];
+      for (int i=0; i<expressions.length; i++)
+        expressions[i] = workload.expression(size);
+
+      TypeChecker typeChecker = new TypeChecker(workload.tables()).setPersistentBindings(_persistent);
+
+      for (int i=0; i<_warmup; i++)
+        _typeCheck(typeChecker,expressions[i]);
+
+      TypingMetrics metrics = _metrics ? new TypingMetrics() : null;
+      typeChecker.setMetrics(metrics);
+      TypingProfiler profiler = _profile > 0 ? new TypingProfiler() : null;
+      typeChecker.setProfiler(profiler);
+      TraceRecorder recorder = _trace > 0 ? new TraceRecorder() : null;
+      typeChecker.setTraceRecorder(recorder);
+
+      long[] latencies = new long[_samples];
+      long trailCells = 0;
+      long goalTrail = 0;
+      int typed = 0;
+
+      long allocated = _allocatedBytes();
+      long start = System.nanoTime();
+
+      for (int i=0; i<_samples; i++)
+        {
+          long time = System.nanoTime();
+          typeChecker.reset();
+          Iterator types = typeChecker.types(expressions[_warmup+i]);
+
+          if (types.hasNext())
+            {
+              typed++;
+              trailCells += typeChecker.trailSize();
+              goalTrail += typeChecker.goalTrailSize();
+              types.next();
+              types.hasNext();
+            }
+
+          latencies[i] = System.nanoTime() - time;
+        }
+
+      long elapsed = System.nanoTime() - start;
+      allocated = _allocatedBytes() - allocated;
+
+      Arrays.sort(latencies);
+
+      System.out.println(size + "," + _samples + "," + typed + "," +
+                         (long)(_samples * 1e9 / elapsed) + "," +
+                         _micros(latencies,0.50) + "," +
+                         _micros(latencies,0.90) + "," +
+                         _micros(latencies,0.99) + "," +
+                         _micros(latencies,1.0) + "," +
+                         (allocated < 0 ? -1 : allocated/_samples) + "," +
+                         (typed == 0 ? 0 : trailCells/typed) + "," +
+                         (typed == 0 ? 0 : goalTrail/typed));
+
+      if (metrics != null)
+        System.err.println("-- globals=" + size + "\n" + metrics.snapshot());
+
+      if (profiler != null)
+        {
+          typeChecker.reset();
+          System.err.println("-- globals=" + size + "\n" + profiler.report(_profile));
+        }
+
+      if (recorder != null)
+        System.err.println("-- globals=" + size + "\n" + recorder.render(_trace));
+    }
+
+  private static final int _typeCheck (TypeChecker typeChecker, Expression expression)
+    {
+      typeChecker.reset();
+      return typeChecker.uniqueOrAmbiguous(expression,new ArrayList());
+    }
+
+  /**
+   * Returns the latency at the specified quantile of the specified sorted array of
+   * nanosecond latencies, in microseconds.
+   */
+  private static final String _micros (long[] latencies, double quantile)
+    {
+      int i = Math.min(latencies.length-1,(int)Math.ceil(quantile*latencies.length)-1);
+      return String.valueOf(latencies[Math.max(0,i)]/1000.0);
+    }
+
+  /**
+   * Returns the number of bytes allocated so far by the current thread, or -1 if
+   * the JVM cannot tell.
+   */
+  private static final long _allocatedBytes ()
+    {
+      try
+        {
+          com.sun.management.ThreadMXBean bean
+            = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+          return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      catch (Throwable e)
+        {
+          return -1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import hlt.language.design.kernel.Expression;
+
+import hlt.language.util.ArrayList;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the typing of synthetic expressions of increasing size (see <a
+ * href="Workload.html"><tt>Workload</tt></a>), and of the unification of random
+ * types of increasing depth and sharing with their generalizations. Run with
+ * <tt>-prof gc</tt> to get allocation rates; see also <a href="Scaling.html">
+ * <tt>Scaling</tt></a> for latency percentiles and trail sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark
+{
+  @State(Scope.Thread)
+  public static class Expressions
+    {
+      @Param({ "1", "2", "4", "6" })
+      public int globals;
+
+      @Param({ "4" })
+      public int overloads;
+
+      private Workload _workload;
+      private TypeChecker _typeChecker = new TypeChecker();
+      private ArrayList _types = new ArrayList();
+      private Expression _expression;
+
+      @Setup(Level.Trial)
+      public void setUp ()
+        {
+          _workload = new Workload(42,16);
+          _workload.defineSymbols(16,overloads);
+        }
+
+      /**
+       * Typing an expression modifies it, and so each invocation gets a new one.
+       */
+      @Setup(Level.Invocation)
+      public void newExpression ()
+        {
+          _expression = _workload.expression(globals);
+        }
+    }
+
+  @Benchmark
+  public int typeCheck (Expressions state)
+    {
+      state._types.clear();
+      state._typeChecker.reset();
+      return state._typeChecker.uniqueOrAmbiguous(state._expression,state._types);
+    }
+
+  @State(Scope.Thread)
+  public static class Types
+    {
+      @Param({ "2", "4", "8" })
+      public int depth;
+
+      @Param({ "0.0", "0.5" })
+      public double sharing;
+
+      private TypeChecker _typeChecker;
+      private Type _type;
+      private Type _pattern;
+
+      @Setup(Level.Trial)
+      public void setUp ()
+        {
+          Workload workload = new Workload(42,32);
+          _type = workload.randomType(depth,sharing);
+          _pattern = workload.generalize(_type,0.25);
+          _typeChecker = new TypeChecker();
+          _typeChecker.pushCutPoint();
+        }
+    }
+
+  @Benchmark
+  public Type unify (Types state)
+    {
+      state._typeChecker.unify(state._pattern,state._type);
+      Type value = state._pattern.value();
+      state._typeChecker.reset();
+      return value;
+    }
+}
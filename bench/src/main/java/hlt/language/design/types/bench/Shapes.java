@@ -0,0 +1,107 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import hlt.language.util.ArrayList;
+
+/**
+ * This builds the types used by the benchmarks. A shape of a given kind, width,
+ * and depth is a "comb": a node of that kind whose first component is a shape of
+ * depth one less, and whose other components are leaves; at depth 0, it is a tuple
+ * of <tt>width</tt> leaves. The size of a shape is thus linear in both its width
+ * and its depth. The leaves are either all the type constant <tt>string</tt> (for
+ * a ground shape), or all distinct fresh type parameters.
+ * <p>
+ * The kinds are:
+ * <ul>
+ * <li> <tt>function</tt>: a function type whose domains are the leaves and
+ *      whose range is the subshape;
+ * <li> <tt>tuple</tt>: a tuple type;
+ * <li> <tt>namedTuple</tt>: a named tuple type with fields <tt>f0, f1, ...</tt>;
+ * <li> <tt>array</tt>: an array type whose base type is the subshape (<i>i.e.</i>,
+ *      of width 1 except at depth 0);
+ * <li> <tt>collection</tt>: a set type whose base type is the subshape (idem);
+ * <li> <tt>class</tt>: an instance of a parameterized class type <tt>C</tt>.
+ * </ul>
+ */
+public class Shapes
+{
+  public static final String[] KINDS
+    = { "function", "tuple", "namedTuple", "array", "collection", "class" };
+
+  private Tables _tables;
+
+  /**
+   * Constructs a shape builder using the specified tables for class types.
+   */
+  public Shapes (Tables tables)
+    {
+      _tables = tables;
+    }
+
+  /**
+   * Returns a new shape of the specified kind, width, and depth, with ground leaves
+   * if <tt>isGround</tt> is <tt>true</tt>, and fresh type parameters otherwise.
+   */
+  public final Type shape (String kind, int width, int depth, boolean isGround)
+    {
+      if (depth == 0)
+        return TupleType.newTupleType(leaves(width,isGround));
+
+      Type subshape = shape(kind,width,depth-1,isGround);
+
+      if (kind.equals("function"))
+        return new FunctionType(leaves(width,isGround),subshape);
+
+      if (kind.equals("array"))
+        return new ArrayType(subshape);
+
+      if (kind.equals("collection"))
+        return new SetType(subshape);
+
+      Type[] components = leaves(width,isGround);
+      components[0] = subshape;
+
+      if (kind.equals("tuple"))
+        return TupleType.newTupleType(components);
+
+      if (kind.equals("namedTuple"))
+        {
+          ArrayList types = new ArrayList(width);
+          ArrayList names = new ArrayList(width);
+          for (int i=0; i<width; i++)
+            {
+              types.add(components[i]);
+              names.add("f"+i);
+            }
+          return new NamedTupleType(types,names);
+        }
+
+      if (kind.equals("class"))
+        {
+          ArrayList arguments = new ArrayList(width);
+          for (int i=0; i<width; i++)
+            arguments.add(components[i]);
+          return new ClassType(_tables,"C",arguments);
+        }
+
+      throw new IllegalArgumentException("unknown shape kind: "+kind);
+    }
+
+  /**
+   * Returns an array of the specified number of leaves.
+   */
+  public static final Type[] leaves (int width, boolean isGround)
+    {
+      Type[] leaves = new Type[width];
+
+      for (int i=width; i-->0;)
+        leaves[i] = isGround ? (Type)Type.STRING : new TypeParameter();
+
+      return leaves;
+    }
+}
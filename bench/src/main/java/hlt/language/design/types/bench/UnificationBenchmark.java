@@ -0,0 +1,87 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the unification of a shape whose leaves are type parameters with the
+ * ground shape of the same kind, width, and depth (see <a href="Shapes.html">
+ * <tt>Shapes</tt></a>), through the <tt>TypeChecker</tt>. A cut point is kept on
+ * the typechecker so that bindings are trailed as they are when searching, and
+ * the typechecker is reset after each unification, which undoes them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnificationBenchmark
+{
+  @Param({ "function", "tuple", "namedTuple", "array", "collection", "class" })
+  public String kind;
+
+  @Param({ "1", "8", "64" })
+  public int width;
+
+  @Param({ "1", "8", "64" })
+  public int depth;
+
+  private TypeChecker _typeChecker;
+  private Type _pattern;
+  private Type _ground;
+
+  @Setup
+  public void setUp ()
+    {
+      Shapes shapes = new Shapes(new Tables());
+      _pattern = shapes.shape(kind,width,depth,false);
+      _ground = shapes.shape(kind,width,depth,true);
+      _typeChecker = new TypeChecker();
+      _typeChecker.pushCutPoint();
+    }
+
+  @Benchmark
+  public Type unify ()
+    {
+      _typeChecker.unify(_pattern,_ground);
+      Type value = _pattern.value();
+      _typeChecker.reset();
+      return value;
+    }
+
+  /**
+   * Measures the unification of two shapes whose leaves are both type parameters,
+   * which binds parameters to parameters.
+   */
+  @Benchmark
+  public Type unifyParameters (ParameterShapes shapes)
+    {
+      _typeChecker.unify(shapes.left,shapes.right);
+      Type value = shapes.left.value();
+      _typeChecker.reset();
+      return value;
+    }
+
+  @State(Scope.Thread)
+  public static class ParameterShapes
+    {
+      Type left;
+      Type right;
+
+      @Setup
+      public void setUp (UnificationBenchmark benchmark)
+        {
+          Shapes shapes = new Shapes(new Tables());
+          left = shapes.shape(benchmark.kind,benchmark.width,benchmark.depth,false);
+          right = shapes.shape(benchmark.kind,benchmark.width,benchmark.depth,false);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types.bench;
+
+import hlt.language.design.types.*;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Constant;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.util.IdentityHashMap;
+import java.util.Random;
+
+/**
+ * A <tt>Workload</tt> is a seeded generator of synthetic typing workloads. Two
+ * workloads constructed with the same seed and parameters, and asked for the same
+ * things in the same order, generate the same types, symbols, and expressions.
+ * It generates:
+ * <ul>
+ * <li> random type terms of controlled depth and sharing, made of function, tuple,
+ *      and class types over a fixed set of class type constants <tt>C0, C1, ...</tt>
+ *      (see <tt>randomType</tt>), and their generalizations (see <tt>generalize</tt>);<p>
+ * <li> <a href="../Tables.html"><tt>Tables</tt></a> populated with overloaded built-in
+ *      symbols <tt>g0, g1, ...</tt> (see <tt>defineSymbols</tt>);<p>
+ * <li> well-typed expression trees with a given number of occurrences of these
+ *      symbols (see <tt>expression</tt>).
+ * </ul>
+ */
+public class Workload
+{
+  /**
+   * The maximum number of components of a generated type, and of domains of
+   * a generated symbol's type.
+   */
+  public static int MAX_ARITY = 3;
+
+  private Random _random;
+  private Tables _tables = new Tables();
+
+  /**
+   * The class type constants at the leaves of all generated types.
+   */
+  private Type[] _classes;
+
+  /**
+   * The types generated so far, by depth, among which shared subterms are picked.
+   */
+  private ArrayList _pool = new ArrayList();
+
+  /**
+   * The signatures of the defined symbols' entries, by index of their range class.
+   */
+  private ArrayList[] _signatures;
+
+  /**
+   * Constructs a workload generator with the specified seed, and the specified
+   * number of class type constants.
+   */
+  public Workload (long seed, int classes)
+    {
+      _random = new Random(seed);
+      _classes = new Type[classes];
+      for (int i=0; i<classes; i++)
+        _classes[i] = new ClassType(_tables,"C"+i);
+    }
+
+  public final Tables tables ()
+    {
+      return _tables;
+    }
+
+  /**
+   * Returns the random generator of this workload.
+   */
+  public final Random random ()
+    {
+      return _random;
+    }
+
+  //\\//\\//\\//\\ Random type terms
+
+  /**
+   * Returns a random type of exactly the specified depth. A type of depth 0 is a
+   * class type constant. Otherwise, it is a function, tuple, or class type of 1 to
+   * <tt>MAX_ARITY</tt> components, the first of which is of depth one less, and
+   * the others of random lesser depths. With probability <tt>sharing</tt>, a type
+   * of positive depth is not created anew but is one of those of the same depth
+   * generated before, which makes the result a DAG rather than a tree.
+   */
+  public final Type randomType (int depth, double sharing)
+    {
+      if (depth == 0)
+        return _classes[_random.nextInt(_classes.length)];
+
+      ArrayList pool = _pool(depth);
+
+      if (!pool.isEmpty() && _random.nextDouble() < sharing)
+        return (Type)pool.get(_random.nextInt(pool.size()));
+
+      Type[] components = new Type[1+_random.nextInt(MAX_ARITY)];
+      components[0] = randomType(depth-1,sharing);
+      for (int i=1; i<components.length; i++)
+        components[i] = randomType(_random.nextInt(depth),sharing);
+
+      Type type;
+
+      switch (_random.nextInt(3))
+        {
+        case 0:
+          type = new FunctionType(components,randomType(_random.nextInt(depth),sharing));
+          break;
+        case 1:
+          type = TupleType.newTupleType(components);
+          break;
+        default:
+          type = new ClassType(_tables,"K"+components.length,_list(components));
+        }
+
+      pool.add(type);
+      return type;
+    }
+
+  /**
+   * Returns the list of the types of the specified depth generated so far.
+   */
+  private final ArrayList _pool (int depth)
+    {
+      while (_pool.size() <= depth)
+        _pool.add(new ArrayList());
+
+      return (ArrayList)_pool.get(depth);
+    }
+
+  private static final ArrayList _list (Type[] types)
+    {
+      ArrayList list = new ArrayList(types.length);
+
+      for (int i=0; i<types.length; i++)
+        list.add(types[i]);
+
+      return list;
+    }
+
+  /**
+   * Returns a copy of the specified type, as generated by <tt>randomType</tt>, where
+   * each subterm is replaced, with probability <tt>ratio</tt>, by a type parameter.
+   * Occurrences of a shared subterm are replaced by the same type, and so the result
+   * always unifies with the original.
+   */
+  public final Type generalize (Type type, double ratio)
+    {
+      return _generalize(type,ratio,new IdentityHashMap());
+    }
+
+  private final Type _generalize (Type type, double ratio, IdentityHashMap copies)
+    {
+      Type copy = (Type)copies.get(type);
+
+      if (copy != null)
+        return copy;
+
+      if (_random.nextDouble() < ratio)
+        copy = new TypeParameter();
+      else
+        switch (type.kind())
+          {
+          case Type.FUNCTION:
+            {
+              FunctionType function = (FunctionType)type;
+              Type[] domains = new Type[function.arity()];
+              for (int i=0; i<domains.length; i++)
+                domains[i] = _generalize(function.domain(i),ratio,copies);
+              copy = new FunctionType(domains,_generalize(function.range(),ratio,copies));
+              break;
+            }
+
+          case Type.TUPLE:
+            {
+              TupleType tuple = (TupleType)type;
+              Type[] components = new Type[tuple.dimension()];
+              for (int i=0; i<components.length; i++)
+                components[i] = _generalize(tuple.component(i),ratio,copies);
+              copy = TupleType.newTupleType(components);
+              break;
+            }
+
+          case Type.CLASS:
+            {
+              ClassType term = (ClassType)type;
+              if (term.arity() == 0)
+                {
+                  copy = term;
+                  break;
+                }
+              Type[] arguments = new Type[term.arity()];
+              for (int i=0; i<arguments.length; i++)
+                arguments[i] = _generalize(term.argument(i),ratio,copies);
+              copy = new ClassType(_tables,term.name(),_list(arguments));
+              break;
+            }
+
+          default:
+            copy = type;
+          }
+
+      copies.put(type,copy);
+      return copy;
+    }
+
+  //\\//\\//\\//\\ Overloaded symbols
+
+  /**
+   * The signature of a generated built-in entry: its symbol and the indices of the
+   * class types of its domains.
+   */
+  private static class Signature
+    {
+      Symbol symbol;
+      int[] domains;
+
+      Signature (Symbol symbol, int[] domains)
+        {
+          this.symbol = symbol;
+          this.domains = domains;
+        }
+    }
+
+  /**
+   * Defines the specified number of symbols <tt>g0, g1, ...</tt>, each with the
+   * specified number of built-in entries, in this workload's tables, and returns
+   * them. The type of each entry is a function type from 1 to <tt>MAX_ARITY</tt>
+   * random class type constants to a class type constant. Ranges are dealt out in
+   * turn so that each class type constant is the range of some entry, which
+   * requires that there be at least as many entries in all as there are classes.
+   * Entries that would duplicate another of the same symbol are skipped.
+   */
+  public final Symbol[] defineSymbols (int symbols, int overloads)
+    {
+      if (symbols*overloads < _classes.length)
+        throw new IllegalArgumentException("too few entries ("+symbols+"*"+overloads+
+                                           ") for "+_classes.length+" classes");
+
+      _signatures = new ArrayList[_classes.length];
+      for (int i=0; i<_classes.length; i++)
+        _signatures[i] = new ArrayList();
+
+      Symbol[] result = new Symbol[symbols];
+
+      for (int j=0; j<symbols; j++)
+        {
+          Symbol symbol = result[j] = _tables.symbol("g"+j);
+
+          for (int k=0; k<overloads; k++)
+            {
+              int range = (j*overloads+k) % _classes.length;
+              int[] domains = new int[1+_random.nextInt(MAX_ARITY)];
+              Type[] domainTypes = new Type[domains.length];
+
+              for (int i=0; i<domains.length; i++)
+                domainTypes[i] = _classes[domains[i] = _random.nextInt(_classes.length)];
+
+              Type type = new FunctionType(domainTypes,_classes[range]);
+
+              if (symbol.isDefined(type))
+                continue;
+
+              _tables.defineBuiltIn(symbol,type,Instruction.END);
+              _signatures[range].add(new Signature(symbol,domains));
+            }
+        }
+
+      return result;
+    }
+
+  //\\//\\//\\//\\ Expressions
+
+  /**
+   * Returns a new expression tree containing the specified number of occurrences of
+   * the symbols defined by <tt>defineSymbols</tt>, which must have been called before.
+   * The expression is built top-down from a random class type constant: a global
+   * occurrence is the function of an application whose arguments are built likewise
+   * for the domains of one of its symbol's entries with the wanted range, and the
+   * remaining occurrences are dealt out at random among them; an expression with no
+   * occurrence is a constant of the wanted class type. The expression thus has at
+   * least one type, that class type, although each global has to try many.
+   */
+  public final Expression expression (int globals)
+    {
+      if (_signatures == null)
+        throw new IllegalStateException("no symbols defined");
+
+      return _expression(_random.nextInt(_classes.length),globals);
+    }
+
+  private final Expression _expression (int range, int globals)
+    {
+      if (globals == 0)
+        return new Constant("c"+range,_classes[range]);
+
+      ArrayList signatures = _signatures[range];
+      Signature signature = (Signature)signatures.get(_random.nextInt(signatures.size()));
+
+      Expression[] arguments = new Expression[signature.domains.length];
+      int remaining = globals-1;
+
+      for (int i=0; i<arguments.length; i++)
+        {
+          int share = i == arguments.length-1 ? remaining : _random.nextInt(remaining+1);
+          arguments[i] = _expression(signature.domains[i],share);
+          remaining -= share;
+        }
+
+      return new Application(new Global(signature.symbol),arguments);
+    }
+}
@@ -0,0 +1,20 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.tools;
+
+/**
+ * Stand-in for the <tt>hlt.language.tools</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library.
+ */
+public class Debug
+{
+  /**
+   * Prints the specified message.
+   */
+  public static final void step (String message)
+    {
+      System.err.println(message);
+    }
+}
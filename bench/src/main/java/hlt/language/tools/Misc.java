@@ -0,0 +1,88 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.tools;
+
+import hlt.language.util.Comparable;
+import hlt.language.util.Locatable;
+import hlt.language.util.Queue;
+import hlt.language.util.ViewableStack;
+
+/**
+ * Stand-in for the <tt>hlt.language.tools</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library. It provides only what the
+ * <tt>hlt.language.design.types</tt> package uses.
+ */
+public class Misc
+{
+  public static final String simpleClassName (Object object)
+    {
+      return object.getClass().getSimpleName();
+    }
+
+  /**
+   * Sorts the specified array of <tt>Comparable</tt>s in place (by insertion, as
+   * the arrays sorted here are small).
+   */
+  public static final void sort (Object[] array)
+    {
+      for (int i=1; i<array.length; i++)
+        {
+          Object element = array[i];
+          int j = i;
+          for (; j>0 && ((Comparable)element).lessThan(array[j-1]); j--)
+            array[j] = array[j-1];
+          array[j] = element;
+        }
+    }
+
+  public static final String arrayToString (Object[] array,
+                                            String opening, String separator, String closing)
+    {
+      StringBuilder buf = new StringBuilder(opening);
+
+      for (int i=0; i<array.length; i++)
+        buf.append(i == 0 ? "" : separator).append(array[i]);
+
+      return buf.append(closing).toString();
+    }
+
+  /**
+   * Returns a string showing the elements of the specified stack from <tt>from</tt>
+   * (inclusive) to <tt>to</tt> (exclusive), one per line, under the specified header.
+   */
+  public static final String view (ViewableStack stack, String header, int from, int to)
+    {
+      StringBuilder buf = new StringBuilder(header).append("\n");
+
+      for (int i=Math.max(0,from); i<Math.min(stack.size(),to); i++)
+        buf.append("\t").append(stack.get(i)).append("\n");
+
+      return buf.toString();
+    }
+
+  public static final String view (Queue queue, String header, int from, int to)
+    {
+      return view((ViewableStack)queue,header,from,to);
+    }
+
+  /**
+   * Returns the specified string truncated to the specified length, followed by an
+   * ellipsis if it was longer.
+   */
+  public static final String etc (int length, String string)
+    {
+      return string.length() <= length ? string : string.substring(0,length) + "...";
+    }
+
+  /**
+   * Returns a string form of the source position of the specified extent. Since the
+   * stand-in <tt>Locatable</tt> carries no position, each extent is told apart by its
+   * identity instead.
+   */
+  public static final String locationString (Locatable extent)
+    {
+      return "@" + Integer.toHexString(System.identityHashCode(extent));
+    }
+}
@@ -0,0 +1,29 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+import java.util.Collection;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library.
+ */
+public class ArrayList extends java.util.ArrayList
+{
+  public ArrayList ()
+    {
+      super();
+    }
+
+  public ArrayList (int capacity)
+    {
+      super(capacity);
+    }
+
+  public ArrayList (Collection collection)
+    {
+      super(collection);
+    }
+}
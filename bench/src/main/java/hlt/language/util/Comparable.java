@@ -0,0 +1,17 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> interface of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public interface Comparable
+{
+  /**
+   * Returns <tt>true</tt> iff this is strictly less than the specified object.
+   */
+  public boolean lessThan (Object object);
+}
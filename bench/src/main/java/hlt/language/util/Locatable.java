@@ -0,0 +1,14 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> interface of the same name, which
+ * lets the benchmarks build without the full HLT library. Source locations play
+ * no part in type-checking, and so this is a mere marker.
+ */
+public interface Locatable
+{
+}
@@ -0,0 +1,103 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library. It maps objects to <tt>int</tt>s,
+ * with 0 standing for the absence of a key.
+ */
+public class ObjectToIntMap
+{
+  private LinkedHashMap _map = new LinkedHashMap();
+
+  /**
+   * A key/value pair as delivered by <tt>iterator()</tt>.
+   */
+  public static class Entry
+    {
+      private Object _key;
+      private int _value;
+
+      Entry (Object key, int value)
+        {
+          _key = key;
+          _value = value;
+        }
+
+      public final Object key ()
+        {
+          return _key;
+        }
+
+      public final int value ()
+        {
+          return _value;
+        }
+    }
+
+  public final int size ()
+    {
+      return _map.size();
+    }
+
+  public final boolean isEmpty ()
+    {
+      return _map.isEmpty();
+    }
+
+  public final boolean containsKey (Object key)
+    {
+      return _map.containsKey(key);
+    }
+
+  public final int get (Object key)
+    {
+      Integer value = (Integer)_map.get(key);
+      return value == null ? 0 : value.intValue();
+    }
+
+  /**
+   * Maps the specified key to the specified value and returns the previous one.
+   */
+  public final int put (Object key, int value)
+    {
+      Integer old = (Integer)_map.put(key,Integer.valueOf(value));
+      return old == null ? 0 : old.intValue();
+    }
+
+  /**
+   * Removes the specified key and returns the value it was mapped to.
+   */
+  public final int remove (Object key)
+    {
+      Integer old = (Integer)_map.remove(key);
+      return old == null ? 0 : old.intValue();
+    }
+
+  public final Iterator keys ()
+    {
+      return new java.util.ArrayList(_map.keySet()).iterator();
+    }
+
+  /**
+   * Returns an iterator over a snapshot of the entries of this map.
+   */
+  public final Iterator iterator ()
+    {
+      java.util.ArrayList entries = new java.util.ArrayList(_map.size());
+
+      for (Iterator i=_map.entrySet().iterator(); i.hasNext();)
+        {
+          java.util.Map.Entry entry = (java.util.Map.Entry)i.next();
+          entries.add(new Entry(entry.getKey(),((Integer)entry.getValue()).intValue()));
+        }
+
+      return entries.iterator();
+    }
+}
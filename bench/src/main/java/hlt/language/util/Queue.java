@@ -0,0 +1,58 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library. Elements are pushed at the
+ * end and popped from the front.
+ */
+public class Queue implements ViewableStack
+{
+  private LinkedList _elements = new LinkedList();
+
+  public final void push (Object element)
+    {
+      _elements.addLast(element);
+    }
+
+  public final Object pop ()
+    {
+      return _elements.removeFirst();
+    }
+
+  public final boolean isEmpty ()
+    {
+      return _elements.isEmpty();
+    }
+
+  public final int size ()
+    {
+      return _elements.size();
+    }
+
+  public final Object get (int n)
+    {
+      return _elements.get(n);
+    }
+
+  public final void clear ()
+    {
+      _elements.clear();
+    }
+
+  public final Iterator iterator ()
+    {
+      return _elements.iterator();
+    }
+
+  public final String toString ()
+    {
+      return _elements.toString();
+    }
+}
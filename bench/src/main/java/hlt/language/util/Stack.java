@@ -0,0 +1,68 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+import java.util.Iterator;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> class of the same name, which lets
+ * the benchmarks build without the full HLT library. It is an array-based stack
+ * whose elements are indexed from the bottom.
+ */
+public class Stack implements ViewableStack
+{
+  private java.util.ArrayList _elements = new java.util.ArrayList();
+
+  public final Object push (Object element)
+    {
+      _elements.add(element);
+      return element;
+    }
+
+  public final Object pop ()
+    {
+      return _elements.remove(_elements.size()-1);
+    }
+
+  public final Object peek ()
+    {
+      return _elements.get(_elements.size()-1);
+    }
+
+  public final boolean isEmpty ()
+    {
+      return _elements.isEmpty();
+    }
+
+  public final int size ()
+    {
+      return _elements.size();
+    }
+
+  public final Object get (int n)
+    {
+      return _elements.get(n);
+    }
+
+  public final Object set (int n, Object element)
+    {
+      return _elements.set(n,element);
+    }
+
+  public final void clear ()
+    {
+      _elements.clear();
+    }
+
+  public final Iterator iterator ()
+    {
+      return _elements.iterator();
+    }
+
+  public final String toString ()
+    {
+      return _elements.toString();
+    }
+}
@@ -0,0 +1,21 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.util;
+
+/**
+ * Stand-in for the <tt>hlt.language.util</tt> interface of the same name, which
+ * lets the benchmarks build without the full HLT library.
+ */
+public interface ViewableStack
+{
+  public boolean isEmpty ();
+
+  public int size ();
+
+  /**
+   * Returns the <tt>n</tt>-th element from the bottom.
+   */
+  public Object get (int n);
+}
@@ -0,0 +1,54 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> that
+ * backjumps to the latest choice point implicated in a failed unification (see <a
+ * href="TypeChecker.html#BACKJUMPING"><tt>TypeChecker.BACKJUMPING</tt></a>) finds all
+ * the types of an expression, in the same order as the chronological search does.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class BackjumpingTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void plainSearchFindsTheKnownTypes ()
+    {
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void backjumpingFindsTheKnownTypes ()
+    {
+      TypeChecker.BACKJUMPING = true;
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void backjumpingFindsThePlainTypes ()
+    {
+      TypeChecker.BACKJUMPING = true;
+      _searches.assertFindsThePlainTypes();
+    }
+}
@@ -0,0 +1,220 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.DefinitionException;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * These tests check that a <a href="DefinitionScheduler.html"><tt>DefinitionScheduler</tt></a>
+ * leaves the same code entries in the tables, and finds the same ill-typed definitions,
+ * as checking its definitions one by one in the order they were added, whatever its
+ * parallelism. The definitions are random chains of applications of an overloaded
+ * function each referring to an earlier definition, so that they have to be ordered,
+ * and some of them are ill-typed.
+ */
+public class DefinitionSchedulerTest
+{
+  /**
+   * The number of definitions of each batch.
+   */
+  private static final int DEFINITIONS = 300;
+
+  /**
+   * A definition whose body is either the global of a referenced symbol, or the
+   * application of the global of a first referenced symbol to that of a second one.
+   */
+  private static final class _Definition implements DefinitionScheduler.Definition
+    {
+      private final Symbol _symbol;
+      private final Symbol[] _references;
+
+      _Definition (Symbol symbol, Symbol[] references)
+        {
+          _symbol = symbol;
+          _references = references;
+        }
+
+      public final Symbol symbol ()
+        {
+          return _symbol;
+        }
+
+      public final AbstractList<Symbol> referencedSymbols ()
+        {
+          return new java.util.ArrayList<Symbol>(Arrays.asList(_references));
+        }
+
+      public final void typeCheck (TypeChecker typeChecker) throws StaticSemanticsErrorException
+        {
+          Expression body = _references.length == 1
+                          ? new Global(_references[0])
+                          : new Application(new Global(_references[0]),
+                                            new Expression[] { new Global(_references[1]) });
+
+          ArrayList types = new ArrayList();
+          typeChecker.allTypes(body,types);
+
+          if (types.isEmpty())
+            throw new DefinitionException("ill-typed definition of "+_symbol);
+
+          for (Iterator i=types.iterator(); i.hasNext();)
+            _symbol.registerCodeEntry(((Type)i.next()).standardize());
+        }
+    }
+
+  /**
+   * Defines a new batch of definitions for the specified seed in new tables, checks
+   * them sequentially if the specified parallelism is 0, or with a scheduler of that
+   * parallelism otherwise, and returns the number of ill-typed definitions followed
+   * by the type tables of the defined symbols. If <tt>snapshot</tt> is <tt>true</tt>,
+   * the tables are reset before the definitions are added, and reset again after they
+   * were checked, which must then undo all of them.
+   */
+  private static final String _check (long seed, int parallelism, boolean snapshot) throws Exception
+    {
+      Tables tables = new Tables();
+      Random random = new Random(seed);
+
+      Type[] classes = new Type[4];
+      for (int i=0; i<classes.length; i++)
+        classes[i] = new ClassType(tables,"K"+i);
+
+      Symbol function = tables.symbol("f");
+      for (int i=0; i<classes.length; i++)
+        tables.defineBuiltIn(function,
+                             new FunctionType(new Type[] { classes[i] },classes[(i+1)%classes.length]),
+                             Instruction.END);
+
+      Symbol constant = tables.symbol("c");
+      for (int i=0; i<2; i++)
+        tables.defineBuiltIn(constant,classes[i],Instruction.END);
+
+      if (snapshot)
+        {
+          tables.reset();
+          function = tables.symbol("f");
+          constant = tables.symbol("c");
+        }
+
+      Symbol[] symbols = new Symbol[DEFINITIONS];
+      _Definition[] definitions = new _Definition[DEFINITIONS];
+
+      for (int i=0; i<DEFINITIONS; i++)
+        {
+          symbols[i] = tables.symbol("d"+i);
+          Symbol argument = i == 0 || random.nextInt(4) == 0 ? constant : symbols[random.nextInt(i)];
+          definitions[i] = new _Definition(symbols[i],
+                                           random.nextBoolean()
+                                           ? new Symbol[] { argument }
+                                           : new Symbol[] { function, argument });
+        }
+
+      int failures = 0;
+
+      if (parallelism == 0)
+        {
+          TypeChecker typeChecker = new TypeChecker(tables);
+          for (int i=0; i<DEFINITIONS; i++)
+            try
+              {
+                typeChecker.reset();
+                definitions[i].typeCheck(typeChecker);
+              }
+            catch (StaticSemanticsErrorException e)
+              {
+                failures++;
+              }
+        }
+      else
+        {
+          DefinitionScheduler scheduler = new DefinitionScheduler(parallelism);
+          for (int i=0; i<DEFINITIONS; i++)
+            scheduler.add(definitions[i]);
+          failures = scheduler.run().size();
+        }
+
+      StringBuilder tablesString = new StringBuilder("failures: "+failures+"\n");
+      Type.resetNames();
+      for (int i=0; i<DEFINITIONS; i++)
+        tablesString.append(symbols[i]).append(": ").append(symbols[i].typeTable()).append('\n');
+
+      if (snapshot)
+        {
+          tables.reset();
+          for (int i=0; i<DEFINITIONS; i++)
+            assertFalse(tables.isDefined("d"+i),"d"+i+" after reset");
+          assertEquals(4,tables.symbol("f").typeTable().size());
+          assertEquals(2,tables.symbol("c").typeTable().size());
+        }
+
+      return tablesString.toString();
+    }
+
+  @Test
+  public void schedulersDefineTheSameEntries () throws Exception
+    {
+      for (long seed=1; seed<=12; seed++)
+        {
+          String sequential = _check(seed,0,false);
+
+          for (int parallelism=1; parallelism<=16; parallelism*=4)
+            assertEquals(sequential,_check(seed,parallelism,false),
+                         "seed "+seed+", parallelism "+parallelism);
+        }
+    }
+
+  @Test
+  public void resetUndoesScheduledDefinitions () throws Exception
+    {
+      for (long seed=1; seed<=12; seed++)
+        {
+          String sequential = _check(seed,0,true);
+
+          for (int parallelism=1; parallelism<=16; parallelism*=4)
+            assertEquals(sequential,_check(seed,parallelism,true),
+                         "seed "+seed+", parallelism "+parallelism);
+        }
+    }
+
+  @Test
+  public void errorsAreForgottenByTheNextRun () throws Exception
+    {
+      Tables tables = new Tables();
+      tables.defineBuiltIn("f",new FunctionType(Type.STRING,Type.INT),Instruction.END);
+      tables.defineBuiltIn("c",Type.INT,Instruction.END);
+
+      _Definition illTyped = new _Definition(tables.symbol("d0"),
+                                             new Symbol[] { tables.symbol("f"), tables.symbol("c") });
+      _Definition wellTyped = new _Definition(tables.symbol("d1"),
+                                              new Symbol[] { tables.symbol("c") });
+
+      DefinitionScheduler scheduler = new DefinitionScheduler(2);
+
+      assertEquals(1,scheduler.add(illTyped).run().size());
+      assertNotNull(scheduler.error(illTyped));
+
+      assertEquals(0,scheduler.add(wellTyped).run().size());
+      assertNull(scheduler.error(illTyped));
+    }
+}
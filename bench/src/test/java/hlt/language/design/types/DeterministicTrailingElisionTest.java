@@ -0,0 +1,49 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> that
+ * does not trail bindings while no choice point or cut point is live (see <a
+ * href="TypeChecker.html#ELIDES_DETERMINISTIC_TRAILING"><tt>TypeChecker.ELIDES_DETERMINISTIC_TRAILING</tt></a>)
+ * still undoes all the bindings it must upon backtracking, and so finds all the types
+ * of an expression in the same order as a search trailing every binding does.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class DeterministicTrailingElisionTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void elidingDeterministicTrailingFindsTheKnownTypes ()
+    {
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = true;
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void elidingDeterministicTrailingFindsThePlainTypes ()
+    {
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = true;
+      _searches.assertFindsThePlainTypes();
+    }
+}
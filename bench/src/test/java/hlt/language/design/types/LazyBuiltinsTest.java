@@ -0,0 +1,145 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * These tests check that built-ins whose code entries are created lazily (see <a
+ * href="Tables.html#defineBuiltIn(java.lang.String,hlt.language.design.types.Type,hlt.language.design.instructions.Instruction)">
+ * <tt>Tables.defineBuiltIn</tt></a>) end up with the same code entries as built-ins
+ * defined on their symbol right away, and type expressions the same way.
+ */
+public class LazyBuiltinsTest
+{
+  /**
+   * Defines overloaded built-ins named <tt>f</tt> and <tt>c</tt> in the specified tables,
+   * by name if <tt>byName</tt> is <tt>true</tt>, or on their symbols otherwise.
+   */
+  private static final void _define (Tables tables, boolean byName) throws Exception
+    {
+      Type k0 = tables.getType("K0");
+      Type k1 = tables.getType("K1");
+      TypeParameter a = new TypeParameter();
+
+      Type[] functionTypes = { new FunctionType(new Type[] { k0 },k1),
+                               new FunctionType(new Type[] { k1 },k0),
+                               new FunctionType(new Type[] { new ListType(a) },a) };
+      Type[] constantTypes = { k0, new ListType(k1) };
+
+      for (int i=0; i<functionTypes.length; i++)
+        if (byName)
+          tables.defineBuiltIn("f",functionTypes[i],Instruction.END);
+        else
+          tables.defineBuiltIn(tables.symbol("f"),functionTypes[i],Instruction.END);
+
+      for (int i=0; i<constantTypes.length; i++)
+        if (byName)
+          tables.defineBuiltIn("c",constantTypes[i],Instruction.STOP);
+        else
+          tables.defineBuiltIn(tables.symbol("c"),constantTypes[i],Instruction.STOP);
+    }
+
+  /**
+   * Returns new tables, reset once, in which <tt>f</tt> and <tt>c</tt> are defined as
+   * specified by <tt>byName</tt> (see <tt>_define</tt>).
+   */
+  private static final Tables _tables (boolean byName) throws Exception
+    {
+      Tables tables = new Tables();
+      tables.reset();
+      _define(tables,byName);
+      return tables;
+    }
+
+  /**
+   * Returns a string form of the code entries of the specified symbol.
+   */
+  private static final String _entries (Symbol symbol)
+    {
+      StringBuilder entries = new StringBuilder();
+      Type.resetNames();
+
+      for (Iterator i=symbol.typeTable().iterator(); i.hasNext();)
+        {
+          BuiltinEntry entry = (BuiltinEntry)i.next();
+          entries.append(entry.type()).append(" @ ").append(entry.builtIn()).append("; ");
+        }
+
+      return entries.toString();
+    }
+
+  /**
+   * Returns the string form of the list of all the types of <tt>f(f(c))</tt> over
+   * the specified tables.
+   */
+  private static final String _types (Tables tables) throws Exception
+    {
+      Expression expression
+        = new Application(new Global(tables,"f"),
+                          new Expression[] { new Application(new Global(tables,"f"),
+                                                             new Expression[] { new Global(tables,"c") }) });
+
+      ArrayList types = new ArrayList();
+      new TypeChecker(tables).allTypes(expression,types);
+      Type.resetNames();
+      return types.toString();
+    }
+
+  @Test
+  public void builtinsDefinedByNameAreDefinedBeforeLookup () throws Exception
+    {
+      Tables tables = _tables(true);
+
+      assertTrue(tables.isDefined("f"));
+      assertTrue(tables.isDefined("c"));
+      assertFalse(tables.isDefined("g"));
+    }
+
+  @Test
+  public void lazyBuiltinsHaveTheSameEntries () throws Exception
+    {
+      Tables lazy = _tables(true);
+      Tables eager = _tables(false);
+
+      assertEquals(_entries(eager.symbol("f")),_entries(lazy.symbol("f")));
+      assertEquals(_entries(eager.symbol("c")),_entries(lazy.symbol("c")));
+      assertEquals(_types(eager),_types(lazy));
+    }
+
+  @Test
+  public void codeEntryTypesAreShared () throws Exception
+    {
+      Tables tables = _tables(true);
+      Tables others = _tables(true);
+
+      tables.defineBuiltIn("n",new ListType(Type.INT),Instruction.END);
+      others.defineBuiltIn("n",new ListType(Type.INT),Instruction.END);
+      Symbol defined = others.symbol("d");
+      defined.registerCodeEntry(new ListType(Type.INT));
+
+      Type type = ((CodeEntry)tables.symbol("n").typeTable().get(0)).type();
+
+      // the types of the code entries of all tables, built-in or defined, are hash-consed
+      // in the same table:
+      assertSame(type,((CodeEntry)others.symbol("n").typeTable().get(0)).type());
+      assertSame(type,((CodeEntry)defined.typeTable().get(0)).type());
+    }
+}
@@ -0,0 +1,49 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> that
+ * prunes the overload alternatives whose types tentatively fail to unify before trying
+ * them (see <a href="TypeChecker.html#LOOKS_AHEAD"><tt>TypeChecker.LOOKS_AHEAD</tt></a>)
+ * prunes no alternative that leads to a type, and so finds all the types of an expression
+ * in the same order as a search trying every alternative does.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class LookAheadTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void lookingAheadFindsTheKnownTypes ()
+    {
+      TypeChecker.LOOKS_AHEAD = true;
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void lookingAheadFindsThePlainTypes ()
+    {
+      TypeChecker.LOOKS_AHEAD = true;
+      _searches.assertFindsThePlainTypes();
+    }
+}
@@ -0,0 +1,121 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> splitting
+ * the search for all the types of an expression among workers searching copies of it
+ * (see <a href="TypeChecker.html#allTypes(hlt.language.design.kernel.Expression[],hlt.language.util.ArrayList)">
+ * <tt>TypeChecker.allTypes(Expression[],ArrayList)</tt></a>) finds each type once, in the
+ * same order as the sequential search does, with or without the other optimizations.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class ParallelSearchTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void workersFindTheKnownTypes ()
+    {
+      for (int workers=1; workers<=8; workers*=2)
+        Searches.assertFindsTheKnownTypes(() -> new TypeChecker().setPersistentBindings(true),workers);
+    }
+
+  @Test
+  public void workersFindThePlainTypes ()
+    {
+      for (long seed=1; seed<=Searches.SEEDS; seed++)
+        {
+          String plain = _searches.plain(seed);
+
+          for (int workers=1; workers<=8; workers*=2)
+            assertEquals(plain,Searches.allTypes(new TypeChecker().setPersistentBindings(true),seed,workers),
+                         "seed "+seed+", "+workers+" worker(s)");
+        }
+
+      _searches.assertNotVacuous();
+    }
+
+  @Test
+  public void sharingRequiresPersistentBindings ()
+    {
+      assertEquals(_searches.plain(1),Searches.allTypes(new TypeChecker(),1,1));
+      assertThrows(UnsupportedOperationException.class,() -> Searches.allTypes(new TypeChecker(),1,2));
+    }
+
+  @Test
+  public void workersRecordUnsharedTypesOnce ()
+    {
+      Tables tables = new Tables();
+      tables.defineBuiltIn("c",Type.INT,Instruction.END);
+
+      Expression[] copies = new Expression[4];
+      for (int i=0; i<copies.length; i++)
+        copies[i] = new Global(tables,"c");
+
+      ArrayList types = new ArrayList();
+      new TypeChecker(tables).setPersistentBindings(true).allTypes(copies,types);
+      assertEquals(1,types.size());
+    }
+
+  @Test
+  public void allOptimizationsTogetherFindTheKnownTypes ()
+    {
+      TypeChecker.BACKJUMPING = true;
+      TypeChecker.SELECTIVE_REPLAY = true;
+      TypeChecker.LOOKS_AHEAD = true;
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = true;
+
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+      Searches.assertFindsTheKnownTypes(() -> new TypeChecker().setPersistentBindings(true),4);
+    }
+
+  @Test
+  public void allOptimizationsTogetherFindThePlainTypes ()
+    {
+      TypeChecker.BACKJUMPING = true;
+      TypeChecker.SELECTIVE_REPLAY = true;
+      TypeChecker.LOOKS_AHEAD = true;
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = true;
+
+      for (long seed=1; seed<=Searches.SEEDS; seed++)
+        {
+          String plain = _searches.plain(seed);
+
+          assertEquals(plain,Searches.allTypes(new TypeChecker(),seed),"seed "+seed);
+          assertEquals(plain,Searches.allTypes(new TypeChecker().setPersistentBindings(true),seed,4),
+                       "seed "+seed+", 4 workers");
+        }
+
+      _searches.assertNotVacuous();
+    }
+}
@@ -0,0 +1,95 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> binding
+ * type parameters in the persistent substitution of its typing context (see <a
+ * href="TypeChecker.html#setPersistentBindings(boolean)"><tt>TypeChecker.setPersistentBindings(boolean)</tt></a>)
+ * finds all the types of an expression in the same order as one setting their fields,
+ * and that these bindings stay private to its context and to the contexts of its forks.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class PersistentBindingsTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void persistentBindingsFindTheKnownTypes ()
+    {
+      Searches.assertFindsTheKnownTypes(() -> new TypeChecker().setPersistentBindings(true));
+    }
+
+  @Test
+  public void persistentBindingsFindThePlainTypes ()
+    {
+      _searches.assertFindsThePlainTypes(() -> new TypeChecker().setPersistentBindings(true));
+    }
+
+  @Test
+  public void forkedTypecheckersBindIndependently ()
+    {
+      TypeChecker typeChecker = new TypeChecker().setPersistentBindings(true);
+      TypeParameter x = new TypeParameter();
+      TypeParameter y = new TypeParameter();
+
+      typeChecker.unify(x,Type.INT);
+      TypeChecker fork = typeChecker.fork();
+
+      fork.unify(y,Type.STRING);
+      typeChecker.unify(y,Type.BOOLEAN);
+
+      assertSame(Type.INT,fork.snapshot().get(x));
+      assertSame(Type.STRING,fork.snapshot().get(y));
+      assertSame(Type.INT,typeChecker.snapshot().get(x));
+      assertSame(Type.BOOLEAN,typeChecker.snapshot().get(y));
+    }
+
+  @Test
+  public void persistentBindingsAreOnlyVisibleInTheirContext ()
+    {
+      TypeChecker typeChecker = new TypeChecker().setPersistentBindings(true);
+      TypeParameter x = new TypeParameter();
+
+      typeChecker.unify(x,Type.INT);
+      assertSame(x,x.value());
+
+      TypingContext previous = typeChecker.context().enter();
+      try
+        {
+          assertSame(Type.INT,x.value());
+        }
+      finally
+        {
+          typeChecker.context().leave(previous);
+        }
+    }
+
+  @Test
+  public void forkingRequiresPersistentBindings ()
+    {
+      assertThrows(UnsupportedOperationException.class,new TypeChecker()::fork);
+    }
+}
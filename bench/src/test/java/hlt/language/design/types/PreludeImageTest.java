@@ -0,0 +1,228 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * These tests check that the tables mapped from a prelude image (see <a
+ * href="PreludeImage.html"><tt>PreludeImage</tt></a>) define the same symbols, with
+ * the same types and built-in instructions, and the same types, as the tables the
+ * image was written from, and type the same expressions the same way.
+ */
+public class PreludeImageTest
+{
+  /**
+   * The built-in instructions the images refer to.
+   */
+  private static final Instruction[] INSTRUCTIONS
+    = { Instruction.END, Instruction.STOP, Instruction.RETURN_I, Instruction.RETURN_R, Instruction.RETURN_O };
+
+  /**
+   * The names of the symbols whose definitions are compared.
+   */
+  private static final String[] SYMBOLS = { "f", "g", "h", "nc", "c", "p", "r", "mk", "zz" };
+
+  @TempDir
+  File directory;
+
+  private static final ArrayList _list (Object[] elements)
+    {
+      return new ArrayList(Arrays.asList(elements));
+    }
+
+  /**
+   * Defines in the specified tables built-ins of most kinds of types, some of them
+   * polymorphic, some overloaded, and some uncurried, as well as a type alias and
+   * a new type.
+   */
+  private static final void _define (Tables tables) throws Exception
+    {
+      TypeParameter a = new TypeParameter();
+      TypeParameter b = new TypeParameter();
+      Type k = tables.getType("K");
+      Type pair = tables.getType("Pair",_list(new Type[] { Type.INT, a }));
+
+      tables.defineBuiltIn("f",new FunctionType(new Type[] { a, new ListType(a) },new ListType(a)),
+                           Instruction.END);
+      tables.defineBuiltIn("f",new FunctionType(new Type[] { Type.INT(), Type.BOXED_REAL() },Type.REAL),
+                           Instruction.STOP);
+      tables.defineBuiltIn("g",new FunctionType(new Type[] { k },
+                                                TupleType.newTupleType(new Type[] { k, Type.STRING,
+                                                                                    new SetType(Type.CHAR) })),
+                           Instruction.RETURN_I);
+      tables.defineBuiltIn("g",new FunctionType(new Type[] { new ArrayType(Type.INT), new BagType(b) },b),
+                           Instruction.RETURN_O);
+      tables.defineBuiltIn("h",new NamedTupleType(_list(new Type[] { Type.INT, Type.STRING }),
+                                                  _list(new String[] { "zed", "alpha" })),
+                           Instruction.RETURN_R);
+      tables.symbol("nc",true);
+      tables.defineBuiltIn("nc",new FunctionType(new Type[] { Type.INT, Type.INT },Type.INT),Instruction.END);
+      tables.defineBuiltIn("c",k,Instruction.END);
+      tables.defineBuiltIn("nil",new ListType(new TypeParameter()),Instruction.END);
+      tables.defineBuiltIn("p",pair,Instruction.END);
+      tables.defineBuiltIn("r",Type.INT_RANGE,Instruction.END);
+
+      TypeParameter x = new TypeParameter();
+      tables.defineBuiltinTypeAlias("Al",new FunctionType(x,new ListType(x)),_list(new Object[] { x }));
+      tables.defineBuiltinNewType("Nu",TupleType.newTupleType(new Type[] { Type.INT, k }));
+      tables.defineBuiltIn("mk",new FunctionType(Type.INT,tables.getType("Nu")),Instruction.END);
+    }
+
+  /**
+   * Returns a string form of the definitions of the compared symbols and types of
+   * the specified tables.
+   */
+  private static final String _definitions (Tables tables) throws Exception
+    {
+      StringBuilder definitions = new StringBuilder();
+      Type.resetNames();
+
+      for (int i=0; i<SYMBOLS.length; i++)
+        {
+          definitions.append(SYMBOLS[i]).append(": ").append(tables.isDefined(SYMBOLS[i]));
+
+          if (tables.isDefined(SYMBOLS[i]))
+            {
+              Symbol symbol = tables.symbol(SYMBOLS[i]);
+              definitions.append(" uncurried: ").append(symbol.noCurrying());
+
+              for (Iterator j=symbol.typeTable().iterator(); j.hasNext();)
+                {
+                  BuiltinEntry entry = (BuiltinEntry)j.next();
+                  definitions.append("; ").append(entry.type())
+                             .append(" uncurried: ").append(entry.type() instanceof FunctionType
+                                                            && ((FunctionType)entry.type()).noCurrying())
+                             .append(" instruction: ").append(Arrays.asList(INSTRUCTIONS).indexOf(entry.builtIn()));
+                }
+            }
+
+          definitions.append('\n');
+        }
+
+      definitions.append("Al: ").append(tables.getDefinedType("Al"))
+                 .append(" Nu: ").append(tables.getDefinedType("Nu"))
+                 .append(" Al(int): ").append(tables.getType("Al",_list(new Type[] { Type.INT })))
+                 .append('\n');
+
+      return definitions.toString();
+    }
+
+  /**
+   * Returns the string forms of the lists of all the types of a few expressions
+   * over the specified tables.
+   */
+  private static final String _types (Tables tables) throws Exception
+    {
+      Expression[] expressions
+        = { new Application(new Global(tables,"f"),
+                            new Expression[] { new Global(tables,"c"),
+                                               new Application(new Global(tables,"f"),
+                                                               new Expression[] { new Global(tables,"c"),
+                                                                                  new Global(tables,"nil") }) }),
+            new Application(new Global(tables,"g"),new Expression[] { new Global(tables,"c") }),
+            new Application(new Global(tables,"nc"),new Expression[] { new Global(tables,"r"),
+                                                                       new Global(tables,"r") }) };
+
+      StringBuilder types = new StringBuilder();
+
+      for (int i=0; i<expressions.length; i++)
+        {
+          ArrayList expressionTypes = new ArrayList();
+          try
+            {
+              new TypeChecker(tables).allTypes(expressions[i],expressionTypes);
+            }
+          catch (StaticSemanticsErrorException e)
+            {
+              types.append("error: ").append(e.getMessage()).append(' ');
+            }
+          Type.resetNames();
+          types.append(expressionTypes).append('\n');
+        }
+
+      return types.toString();
+    }
+
+  @Test
+  public void mappedImageDefinesTheSameBuiltins () throws Exception
+    {
+      Tables original = new Tables();
+      _define(original);
+      String definitions = _definitions(original);
+      String types = _types(original);
+
+      File image = new File(directory,"prelude.img");
+      original.writeImage(image,INSTRUCTIONS);
+
+      Tables mapped = new Tables();
+      mapped.mapImage(image,INSTRUCTIONS);
+
+      // the symbols are known to be defined before any is looked up:
+      assertTrue(mapped.isDefined("g"));
+      assertFalse(mapped.isDefined("zz"));
+
+      assertEquals(definitions,_definitions(mapped));
+      assertEquals(types,_types(mapped));
+    }
+
+  @Test
+  public void resetMappedTablesRestoreTheImage () throws Exception
+    {
+      Tables original = new Tables();
+      _define(original);
+      String definitions = _definitions(original);
+
+      File image = new File(directory,"prelude.img");
+      original.writeImage(image,INSTRUCTIONS);
+
+      Tables mapped = new Tables();
+      mapped.mapImage(image,INSTRUCTIONS);
+
+      for (int round=0; round<2; round++)
+        {
+          mapped.symbol("user").getCodeEntry(Type.INT);
+          mapped.reset();
+          assertFalse(mapped.isDefined("user"),"round "+round);
+          assertEquals(definitions,_definitions(mapped),"round "+round);
+        }
+
+      File copy = new File(directory,"copy.img");
+      mapped.writeImage(copy,INSTRUCTIONS);
+
+      Tables remapped = new Tables();
+      remapped.mapImage(copy,INSTRUCTIONS);
+      assertEquals(definitions,_definitions(remapped));
+      assertEquals(image.length(),copy.length());
+    }
+
+  @Test
+  public void imagesRejectNonStandardTypeConstants () throws Exception
+    {
+      Tables tables = new Tables();
+      tables.defineBuiltIn("u",new FunctionType(Type.INT,new TypeConstant("unit")),Instruction.END);
+
+      assertThrows(IOException.class,() -> tables.writeImage(new File(directory,"prelude.img"),INSTRUCTIONS));
+    }
+}
@@ -0,0 +1,325 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.types.bench.Workload;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Expression;
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The expressions and oracles shared by the tests of the search optimizations of a <a
+ * href="TypeChecker.html"><tt>TypeChecker</tt></a>. Each test checks its optimization
+ * in two ways:
+ * <ul>
+ * <li> against a fixed set of small overloaded expressions whose types are known
+ *      beforehand (see <a href="#FIXTURES"><tt>FIXTURES</tt></a>);
+ * <li> against the <i>plain</i> sequential search (namely, the search done with all
+ *      the optimizations that may be switched off switched off, by a typechecker without
+ *      persistent bindings) on random overloaded applications of synthetic workloads (see
+ *      <a href="bench/Workload.html"><tt>Workload</tt></a>), a fair share of which are
+ *      ambiguous, or ill-typed, so as to exercise backtracking.
+ * </ul>
+ * Since the switches of the optimizations are global, a <tt>Searches</tt> object saves
+ * their settings and switches them all off when it is created, and puts them back when
+ * it is restored; and the test classes using it hold the <a href="#SWITCHES"><tt>SWITCHES</tt></a>
+ * resource lock, so that none of them runs concurrently with another.
+ */
+final class Searches
+{
+  /**
+   * The name of the resource lock held by the tests flipping the switches.
+   */
+  static final String SWITCHES = "hlt.language.design.types.TypeChecker switches";
+
+  /**
+   * The number of seeded expressions compared with the plain search.
+   */
+  static final int SEEDS = 60;
+
+  private final boolean _backjumping;
+  private final boolean _selectiveReplay;
+  private final boolean _looksAhead;
+  private final boolean _elidesDeterministicTrailing;
+
+  /**
+   * The number of expressions found well-typed by the plain search.
+   */
+  private int _typed;
+
+  /**
+   * Saves the current settings of the switches, and switches them all off.
+   */
+  Searches ()
+    {
+      _backjumping = TypeChecker.BACKJUMPING;
+      _selectiveReplay = TypeChecker.SELECTIVE_REPLAY;
+      _looksAhead = TypeChecker.LOOKS_AHEAD;
+      _elidesDeterministicTrailing = TypeChecker.ELIDES_DETERMINISTIC_TRAILING;
+
+      _setPlain();
+    }
+
+  /**
+   * Puts the switches back as they were when this was created.
+   */
+  final void restore ()
+    {
+      TypeChecker.BACKJUMPING = _backjumping;
+      TypeChecker.SELECTIVE_REPLAY = _selectiveReplay;
+      TypeChecker.LOOKS_AHEAD = _looksAhead;
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = _elidesDeterministicTrailing;
+    }
+
+  private static final void _setPlain ()
+    {
+      TypeChecker.BACKJUMPING = false;
+      TypeChecker.SELECTIVE_REPLAY = false;
+      TypeChecker.LOOKS_AHEAD = false;
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = false;
+    }
+
+  //\\//\\//\\//\\ Expressions with known types
+
+  /**
+   * Pairs of expressions, written with the symbols of <a href="#fixtureTables()">
+   * <tt>fixtureTables()</tt></a>, and of the string forms of the lists of all their
+   * types in the order the search must find them.
+   */
+  static final String[][] FIXTURES =
+    {
+      { "f(c)"           , "[int, boolean]"             },
+      { "g(f(c))"        , "[string]"                   },
+      { "g(c)"           , "[]"                         },
+      { "id(f(c))"       , "[int, boolean]"             },
+      { "cons(c,nil)"    , "[list{int}, list{string}]"  },
+      { "p(c,c)"         , "[int, string]"              },
+      { "f(f(c))"        , "[int]"                      },
+      { "p(f(c),c)"      , "[int]"                      },
+      { "p(c,g(f(c)))"   , "[int]"                      },
+      { "f(id(g(f(c))))" , "[boolean]"                  },
+    };
+
+  /**
+   * Returns new tables defining the overloaded symbols of the fixtures:
+   * <pre>
+   * f    : int -> int, string -> boolean
+   * c    : int, string
+   * g    : boolean -> string
+   * id   : a -> a
+   * nil  : list(a)
+   * cons : (a,list(a)) -> list(a)
+   * p    : (int,string) -> int, (string,int) -> string
+   * </pre>
+   */
+  static final Tables fixtureTables ()
+    {
+      Tables tables = new Tables();
+
+      tables.defineBuiltIn("f",new FunctionType(Type.INT,Type.INT),Instruction.END);
+      tables.defineBuiltIn("f",new FunctionType(Type.STRING,Type.BOOLEAN),Instruction.END);
+      tables.defineBuiltIn("c",Type.INT,Instruction.END);
+      tables.defineBuiltIn("c",Type.STRING,Instruction.END);
+      tables.defineBuiltIn("g",new FunctionType(Type.BOOLEAN,Type.STRING),Instruction.END);
+
+      TypeParameter a = new TypeParameter();
+      tables.defineBuiltIn("id",new FunctionType(a,a),Instruction.END);
+
+      tables.defineBuiltIn("nil",new ListType(new TypeParameter()),Instruction.END);
+
+      TypeParameter e = new TypeParameter();
+      tables.defineBuiltIn("cons",
+                           new FunctionType(new Type[] { e, new ListType(e) },new ListType(e)),
+                           Instruction.END);
+
+      tables.defineBuiltIn("p",
+                           new FunctionType(new Type[] { Type.INT, Type.STRING },Type.INT),
+                           Instruction.END);
+      tables.defineBuiltIn("p",
+                           new FunctionType(new Type[] { Type.STRING, Type.INT },Type.STRING),
+                           Instruction.END);
+
+      return tables;
+    }
+
+  /**
+   * Returns a new expression for the specified source in the specified tables; the
+   * source is a symbol optionally followed by a parenthesized, comma-separated list of
+   * argument sources.
+   */
+  static final Expression fixture (Tables tables, String source)
+    {
+      int[] position = new int[1];
+      Expression expression = _parse(tables,source,position);
+
+      if (position[0] != source.length())
+        throw new IllegalArgumentException("unexpected '"+source.charAt(position[0])+"' in "+source);
+
+      return expression;
+    }
+
+  private static final Expression _parse (Tables tables, String source, int[] position)
+    {
+      int start = position[0];
+      while (position[0] < source.length() && Character.isLetter(source.charAt(position[0])))
+        position[0]++;
+
+      Global function = new Global(tables,source.substring(start,position[0]));
+
+      if (position[0] == source.length() || source.charAt(position[0]) != '(')
+        return function;
+
+      java.util.ArrayList<Expression> arguments = new java.util.ArrayList<Expression>();
+      do
+        {
+          position[0]++;
+          arguments.add(_parse(tables,source,position));
+        }
+      while (source.charAt(position[0]) == ',');
+
+      position[0]++;
+      return new Application(function,arguments.toArray(new Expression[arguments.size()]));
+    }
+
+  /**
+   * Checks that typecheckers provided by the specified supplier find the known types
+   * of each fixture, searched by the specified number of workers.
+   */
+  static final void assertFindsTheKnownTypes (Supplier<TypeChecker> typeCheckers, int workers)
+    {
+      for (int i=0; i<FIXTURES.length; i++)
+        {
+          Tables tables = fixtureTables();
+          Expression[] copies = new Expression[workers];
+          for (int j=0; j<workers; j++)
+            copies[j] = fixture(tables,FIXTURES[i][0]);
+
+          ArrayList types = new ArrayList();
+          if (workers == 1)
+            typeCheckers.get().allTypes(copies[0],types);
+          else
+            typeCheckers.get().allTypes(copies,types);
+          Type.resetNames();
+
+          assertEquals(FIXTURES[i][1],types.toString(),FIXTURES[i][0]+", "+workers+" worker(s)");
+        }
+    }
+
+  /**
+   * Checks that typecheckers provided by the specified supplier find the known types
+   * of each fixture.
+   */
+  static final void assertFindsTheKnownTypes (Supplier<TypeChecker> typeCheckers)
+    {
+      assertFindsTheKnownTypes(typeCheckers,1);
+    }
+
+  //\\//\\//\\//\\ Random expressions
+
+  /**
+   * Returns the expression of the specified seed, built anew (with new tables) each
+   * time it is asked for, so that no two searches share any part of it.
+   */
+  static final Expression expression (long seed)
+    {
+      Workload workload = new Workload(seed,16);
+      workload.defineSymbols(16,4);
+      return workload.expression(3+(int)(seed%3));
+    }
+
+  /**
+   * Returns the string form of the list of all the types found by the specified
+   * typechecker for a new expression of the specified seed.
+   */
+  static final String allTypes (TypeChecker typeChecker, long seed)
+    {
+      ArrayList types = new ArrayList();
+      typeChecker.allTypes(expression(seed),types);
+      Type.resetNames();
+      return types.toString();
+    }
+
+  /**
+   * Returns the string form of the list of all the types found by the specified
+   * typechecker for the specified number of new copies of the expression of the
+   * specified seed, searched by as many workers.
+   */
+  static final String allTypes (TypeChecker typeChecker, long seed, int workers)
+    {
+      Expression[] copies = new Expression[workers];
+      for (int i=0; i<workers; i++)
+        copies[i] = expression(seed);
+
+      ArrayList types = new ArrayList();
+      typeChecker.allTypes(copies,types);
+      Type.resetNames();
+      return types.toString();
+    }
+
+  /**
+   * Returns the string form of the list of the types found by the plain search for
+   * the expression of the specified seed, and restores the current settings of the
+   * switches.
+   */
+  final String plain (long seed)
+    {
+      boolean backjumping = TypeChecker.BACKJUMPING;
+      boolean selectiveReplay = TypeChecker.SELECTIVE_REPLAY;
+      boolean looksAhead = TypeChecker.LOOKS_AHEAD;
+      boolean elidesDeterministicTrailing = TypeChecker.ELIDES_DETERMINISTIC_TRAILING;
+
+      _setPlain();
+      String types = allTypes(new TypeChecker(),seed);
+      if (!types.equals("[]")) _typed++;
+
+      TypeChecker.BACKJUMPING = backjumping;
+      TypeChecker.SELECTIVE_REPLAY = selectiveReplay;
+      TypeChecker.LOOKS_AHEAD = looksAhead;
+      TypeChecker.ELIDES_DETERMINISTIC_TRAILING = elidesDeterministicTrailing;
+
+      return types;
+    }
+
+  /**
+   * Checks that typecheckers provided by the specified supplier find the same types
+   * as the plain search for each seeded expression, and that some of these were
+   * well-typed.
+   */
+  final void assertFindsThePlainTypes (Supplier<TypeChecker> typeCheckers)
+    {
+      for (long seed=1; seed<=SEEDS; seed++)
+        assertEquals(plain(seed),allTypes(typeCheckers.get(),seed),"seed "+seed);
+
+      assertNotVacuous();
+    }
+
+  /**
+   * Checks that new typecheckers with the current settings of the switches find the
+   * same types as the plain search for each seeded expression, and that some of these
+   * were well-typed.
+   */
+  final void assertFindsThePlainTypes ()
+    {
+      assertFindsThePlainTypes(TypeChecker::new);
+    }
+
+  /**
+   * Checks that some of the expressions compared with the plain search were well-typed.
+   */
+  final void assertNotVacuous ()
+    {
+      assertTrue(_typed > 0,"no expression was well-typed");
+    }
+}
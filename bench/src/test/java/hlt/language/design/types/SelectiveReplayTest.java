@@ -0,0 +1,65 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
+
+/**
+ * These tests check that a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> that
+ * keeps the unification goals independent of the choice point it backtracks to, rather
+ * than replaying them (see <a href="TypeChecker.html#SELECTIVE_REPLAY"><tt>TypeChecker.SELECTIVE_REPLAY</tt></a>),
+ * finds all the types of an expression in the same order as a search replaying every goal
+ * does, whether it backjumps or not.
+ */
+@ResourceLock(Searches.SWITCHES)
+public class SelectiveReplayTest
+{
+  private Searches _searches;
+
+  @BeforeEach
+  public void switchOptimizationsOff ()
+    {
+      _searches = new Searches();
+    }
+
+  @AfterEach
+  public void restoreSwitches ()
+    {
+      _searches.restore();
+    }
+
+  @Test
+  public void selectiveReplayFindsTheKnownTypes ()
+    {
+      TypeChecker.SELECTIVE_REPLAY = true;
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void selectiveReplayFindsThePlainTypes ()
+    {
+      TypeChecker.SELECTIVE_REPLAY = true;
+      _searches.assertFindsThePlainTypes();
+    }
+
+  @Test
+  public void selectiveReplayWithBackjumpingFindsTheKnownTypes ()
+    {
+      TypeChecker.SELECTIVE_REPLAY = true;
+      TypeChecker.BACKJUMPING = true;
+      Searches.assertFindsTheKnownTypes(TypeChecker::new);
+    }
+
+  @Test
+  public void selectiveReplayWithBackjumpingFindsThePlainTypes ()
+    {
+      TypeChecker.SELECTIVE_REPLAY = true;
+      TypeChecker.BACKJUMPING = true;
+      _searches.assertFindsThePlainTypes();
+    }
+}
@@ -0,0 +1,160 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.instructions.Instruction;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * These tests check that resetting some <a href="Tables.html"><tt>Tables</tt></a> after
+ * they were changed restores them as they were after their first reset, whether it does
+ * so by restoring its snapshot, or by redefining all the built-ins anew.
+ */
+public class TablesSnapshotTest
+{
+  /**
+   * The names of the symbols whose definitions are compared.
+   */
+  private static final String[] SYMBOLS = { "f", "c", "g", "h", "==", "eq" };
+
+  /**
+   * The names of the types whose definitions are compared.
+   */
+  private static final String[] TYPES = { "Al", "Nu", "Zz" };
+
+  /**
+   * Returns new tables defining a few built-in symbols and types.
+   */
+  private static final Tables _tables () throws Exception
+    {
+      Tables tables = new Tables();
+
+      Type k0 = new ClassType(tables,"K0");
+      Type k1 = new ClassType(tables,"K1");
+
+      tables.defineBuiltIn("f",new FunctionType(new Type[] { k0 },k1),Instruction.END);
+      tables.defineBuiltIn("c",k0,Instruction.END);
+      tables.defineBuiltinTypeAlias("Al",k0);
+      tables.defineBuiltinNewType("Nu",k1);
+      tables.defineEqualitySymbol("==");
+
+      tables.reset();
+      return tables;
+    }
+
+  /**
+   * Returns a string form of the definitions of the compared symbols and types of
+   * the specified tables.
+   */
+  private static final String _definitions (Tables tables) throws Exception
+    {
+      StringBuilder definitions = new StringBuilder();
+      Type.resetNames();
+
+      for (int i=0; i<SYMBOLS.length; i++)
+        {
+          definitions.append(SYMBOLS[i]).append(": ").append(tables.isDefined(SYMBOLS[i]));
+          if (tables.isDefined(SYMBOLS[i]))
+            definitions.append(' ').append(tables.symbol(SYMBOLS[i]).typeTable());
+          definitions.append('\n');
+        }
+
+      for (int i=0; i<TYPES.length; i++)
+        definitions.append(TYPES[i]).append(": ").append(tables.getDefinedType(TYPES[i])).append('\n');
+
+      definitions.append("eq is equality: ").append(tables.isEquality("eq")).append('\n');
+
+      return definitions.toString();
+    }
+
+  /**
+   * Changes the specified tables in as many ways as it can without declaring a built-in.
+   */
+  private static final void _change (Tables tables) throws Exception
+    {
+      Type k1 = tables.getDefinedType("Nu");
+
+      tables.symbol("g").getCodeEntry(k1);
+      tables.symbol("f").getCodeEntry(k1);
+      tables.symbol("c",true);
+      tables.defineTypeAlias("Zz",k1,null);
+      tables.getType("Unknown");
+      tables.defineEqualitySymbol("eq");
+    }
+
+  @Test
+  public void resetRestoresTheSnapshot () throws Exception
+    {
+      Tables tables = _tables();
+      String initial = _definitions(tables);
+
+      for (int round=0; round<3; round++)
+        {
+          _change(tables);
+          assertNotEquals(initial,_definitions(tables),"round "+round);
+
+          tables.reset();
+          assertEquals(initial,_definitions(tables),"round "+round);
+          assertFalse(tables.isDefined("h"),"round "+round);
+        }
+    }
+
+  @Test
+  public void resetRedefinesRemovedBuiltins () throws Exception
+    {
+      Tables tables = _tables();
+      String initial = _definitions(tables);
+
+      Symbol f = tables.symbol("f");
+      f.removeLatestEntry();
+      assertNotEquals(initial,_definitions(tables));
+
+      tables.reset();
+      assertEquals(initial,_definitions(tables));
+      assertNotSame(f,tables.symbol("f"));
+    }
+
+  @Test
+  public void resetRedefinesBuiltinsReplacedByOtherEntries () throws Exception
+    {
+      Tables tables = _tables();
+      String initial = _definitions(tables);
+
+      Symbol f = tables.symbol("f");
+      f.removeLatestEntry();
+      f.getCodeEntry(tables.getDefinedType("Nu"));
+      assertEquals(1,f.typeTable().size());
+      assertNotEquals(initial,_definitions(tables));
+
+      tables.reset();
+      assertEquals(initial,_definitions(tables));
+      assertNotSame(f,tables.symbol("f"));
+    }
+
+  @Test
+  public void symbolsWhoseSavedEntriesWereReplacedAreNotRestored () throws Exception
+    {
+      Tables tables = new Tables();
+      Type k0 = new ClassType(tables,"K0");
+      Type k1 = new ClassType(tables,"K1");
+
+      Symbol symbol = tables.symbol("s");
+      symbol.getCodeEntry(k0);
+      symbol.save();
+
+      symbol.removeLatestEntry();
+      symbol.getCodeEntry(k1);
+
+      // the size is back to the saved one, but the saved entry is lost:
+      assertEquals(1,symbol.typeTable().size());
+      assertFalse(symbol.restore());
+    }
+}
@@ -0,0 +1,68 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Global;
+
+import hlt.language.design.instructions.Instruction;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * These tests check that a <a href="TraceRecorder.html"><tt>TraceRecorder</tt></a> keeps
+ * rendering the right symbol names for its latest events, while its string table stays
+ * bounded however many symbols it meets.
+ */
+public class TraceRecorderTest
+{
+  @Test
+  public void stringTableStaysBounded () throws Exception
+    {
+      Tables tables = new Tables();
+      TraceRecorder recorder = new TraceRecorder(4);
+
+      for (int i=0; i<1000; i++)
+        {
+          tables.defineBuiltIn("s"+i,Type.INT,Instruction.END);
+          Goal goal = new GlobalTypingGoal(new Global(tables,"s"+i));
+          recorder.record(TraceRecorder.GOAL_PUSHED,goal,i,0);
+          recorder.record(TraceRecorder.GOAL_POPPED,goal,i,0);
+        }
+
+      String trace = recorder.render(4);
+      assertTrue(trace.contains(": s998)"),trace);
+      assertTrue(trace.contains(": s999)"),trace);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      recorder.dump(out);
+
+      // the string table follows the magic number, version, event size, and count:
+      int strings = ByteBuffer.wrap(out.toByteArray()).getInt(20);
+      assertTrue(strings <= 1 + 2*recorder.capacity(),"strings: "+strings);
+    }
+
+  @Test
+  public void clearForgetsTheSymbolNames () throws Exception
+    {
+      Tables tables = new Tables();
+      TraceRecorder recorder = new TraceRecorder(4);
+
+      tables.defineBuiltIn("s",Type.INT,Instruction.END);
+      recorder.record(TraceRecorder.GOAL_PUSHED,new GlobalTypingGoal(new Global(tables,"s")),1,0);
+      recorder.clear();
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      recorder.dump(out);
+
+      // only the goal class name is left:
+      assertEquals(1,ByteBuffer.wrap(out.toByteArray()).getInt(20));
+    }
+}
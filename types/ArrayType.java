@@ -252,8 +252,16 @@ public class ArrayType extends ConstructedType
       return null;
     }
 
+  final boolean computeSharability ()
+    {
+      return hasSharableComponents();
+    }
+
   public final Type flatten ()
     {
+      if (isSharable())
+        return this;
+
       _baseType = baseType().flatten();
       _indexSetType = indexSetType().flatten();
       return this;
@@ -261,11 +269,17 @@ public class ArrayType extends ConstructedType
 
   public final Type copy (HashMap parameters)
     {
+      if (isSharable())
+        return this;
+
       return new ArrayType(baseType().copy(parameters),indexSetType().copy(parameters));
     }
 
   public Type instantiate (HashMap substitution)
     {
+      if (isSharable())
+        return this;
+
       return new ArrayType(baseType().instantiate(substitution),indexSetType().instantiate(substitution));
     }
 
@@ -278,7 +292,7 @@ public class ArrayType extends ConstructedType
    */
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -297,7 +311,7 @@ public class ArrayType extends ConstructedType
           return;
 
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
@@ -334,6 +348,9 @@ public class ArrayType extends ConstructedType
 
   public final int eqCode ()
     {
+      if (isHashConsed())
+        return consCode();
+
       return kind() + baseType().eqCode() + indexSetType().eqCode();
     }
 
@@ -345,7 +362,8 @@ public class ArrayType extends ConstructedType
   public final boolean isEqualTo (Type type)
     {
       return this == type
-          || type.kind() == ARRAY
+          || !isConsedWith(type)
+             && type.kind() == ARRAY
              && baseType().isEqualTo(((ArrayType)type).baseType())
              && indexSetType().isEqualTo(((ArrayType)type).indexSetType());
     }
@@ -358,7 +376,8 @@ public class ArrayType extends ConstructedType
   public final boolean isEqualTo (Type type, HashMap parameters)
     {
       return this == type
-          || type.kind() == ARRAY
+          || !isConsedWith(type)
+             && type.kind() == ARRAY
              && baseType().isEqualTo(((ArrayType)type).baseType(),parameters)
              && indexSetType().isEqualTo(((ArrayType)type).indexSetType(),parameters);
     }
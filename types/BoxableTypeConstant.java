@@ -84,7 +84,7 @@ public class BoxableTypeConstant extends ConstructedType
 
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -99,7 +99,7 @@ public class BoxableTypeConstant extends ConstructedType
           type.unify(this,typeChecker);
           return;
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
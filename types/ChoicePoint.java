@@ -38,6 +38,15 @@ public class ChoicePoint extends TypingState
       _entries.push(entry);
     }
 
+  /**
+   * Discards all the remaining entries of this choice point.
+   */
+  final void clear ()
+    {
+      while (!_entries.isEmpty())
+        _entries.pop();
+    }
+
   final Queue entries ()
     {
       return _entries;
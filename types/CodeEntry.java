@@ -29,7 +29,7 @@ public abstract class CodeEntry
   protected Symbol _symbol;      // symbol for this entry - or null if anonymous
   protected Type _type;          // this entry's type
 
-  private final static HashMap _codeIds = new HashMap();
+  private int _tableIndex = -1;  // this entry's position in its symbol's type table
 
   public static class CodeId
     {
@@ -49,12 +49,7 @@ public abstract class CodeEntry
 
   public final static CodeId getId (Instruction[] code)
     {
-      CodeId id = (CodeId)_codeIds.get(code);
-
-      if (id == null)
-        _codeIds.put(code,id = new CodeId(_codeIds.size()));
-
-      return id;
+      return TypingContext.current().codeId(code);
     }
 
   public final static void showCode (Instruction[] code)
@@ -99,6 +94,20 @@ public abstract class CodeEntry
       return _type;
     }
 
+  /**
+   * Returns this entry's position in its symbol's type table, or -1 if it is not
+   * registered in any.
+   */
+  final int tableIndex ()
+    {
+      return _tableIndex;
+    }
+
+  final void setTableIndex (int index)
+    {
+      _tableIndex = index;
+    }
+
   public final boolean isBuiltIn ()
     {
       return (this instanceof BuiltinEntry);
@@ -80,19 +80,33 @@ public abstract class CollectionType extends ConstructedType implements Collecti
       return baseType().isPolymorphic();
     }
 
+  final boolean computeSharability ()
+    {
+      return hasSharableComponents();
+    }
+
   public final Type flatten ()
     {
+      if (isSharable())
+        return this;
+
       _baseType = baseType().flatten();
       return this;
     } 
 
   public final Type copy (HashMap parameters)
     {
+      if (isSharable())
+        return this;
+
       return newCollectionType(baseType().copy(parameters));
     }
 
   public final Type instantiate (HashMap substitution)
     {
+      if (isSharable())
+        return this;
+
       return newCollectionType(baseType().instantiate(substitution));
     }
 
@@ -101,7 +115,7 @@ public abstract class CollectionType extends ConstructedType implements Collecti
    */
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       if (type.kind() == PARAMETER)
@@ -118,7 +132,7 @@ public abstract class CollectionType extends ConstructedType implements Collecti
           return;
         }
 
-      typeChecker.error(new TypeClashException(this,type));
+      typeChecker.clash(this,type);
     }
 
   public final boolean unify (Type type)
@@ -151,6 +165,9 @@ public abstract class CollectionType extends ConstructedType implements Collecti
 
   public final int eqCode ()
     {
+      if (isHashConsed())
+        return consCode();
+
       return kind() + baseType().eqCode();
     }
 
@@ -162,7 +179,8 @@ public abstract class CollectionType extends ConstructedType implements Collecti
   public final boolean isEqualTo (Type type)
     {
       return this == type
-          || kind() == type.kind()
+          || !isConsedWith(type)
+             && kind() == type.kind()
              && baseType().isEqualTo(((CollectionType)type).baseType());
     }
 
@@ -174,7 +192,8 @@ public abstract class CollectionType extends ConstructedType implements Collecti
   public final boolean isEqualTo (Type type, HashMap parameters)
     {
       return this == type
-          || kind() == type.kind()
+          || !isConsedWith(type)
+             && kind() == type.kind()
              && baseType().isEqualTo(((CollectionType)type).baseType(),parameters);
     }
 
@@ -68,7 +68,7 @@ public class CollectionTypeConstant extends TypeConstant implements Collection
 
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -83,7 +83,7 @@ public class CollectionTypeConstant extends TypeConstant implements Collection
               return;
             }
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
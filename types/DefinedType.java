@@ -116,6 +116,14 @@ public class DefinedType extends TypeTerm
       return definition().isPolymorphic();
     }
 
+  /**
+   * A defined type is never sharable since its definition is set upon copying.
+   */
+  final boolean computeSharability ()
+    {
+      return false;
+    }
+
   public final byte sort ()
     {
       return definition().sort();
@@ -139,7 +147,7 @@ public class DefinedType extends TypeTerm
    */
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -150,7 +158,7 @@ public class DefinedType extends TypeTerm
 
         case DEFINED:
           if (type.kind() != DEFINED || _name != ((DefinedType)type).name())
-            typeChecker.error(new TypeClashException(this,type));
+            typeChecker.clash(this,type);
 
           definition().unify(((DefinedType)type).definition(),typeChecker);
           return;
@@ -168,7 +176,7 @@ public class DefinedType extends TypeTerm
             }
 
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
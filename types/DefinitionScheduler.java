@@ -0,0 +1,451 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.util.Stack;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A <tt>DefinitionScheduler</tt> type-checks a batch of top-level definitions
+ * concurrently on a pool of typecheckers, as far as their dependencies allow.
+ * <p>
+ * A definition depends on all the definitions of the symbols its body refers to,
+ * and on the previous definition of its own symbol (so that the code entries of
+ * each symbol are registered in the order in which its definitions were added).
+ * The strongly connected components of this dependency graph are computed, and
+ * each component is type-checked as a whole by one typechecker, in the order in
+ * which its definitions were added, once all the components it depends on have
+ * been. Independent components are type-checked concurrently as fork-join tasks.
+ * Since each definition publishes its type by registering it as a code entry of
+ * its symbol, the types inferred for a component are thus published to the
+ * components depending on it in topological order.
+ * <p>
+ * <b>NB:</b> unlike when checking the definitions one by one in the order they
+ * are added, a definition sees all the definitions of the symbols it refers to
+ * outside its component, including those added after it. Also, type checking a
+ * definition must not affect the tables other than by registering its code entry,
+ * since other definitions are checked at the same time.
+ */
+public class DefinitionScheduler
+{
+  /**
+   * A <tt>Definition</tt> is what a <tt>DefinitionScheduler</tt> needs to know about
+   * a top-level definition.
+   */
+  public static interface Definition
+    {
+      /**
+       * Returns the symbol this definition defines.
+       */
+      public Symbol symbol ();
+
+      /**
+       * Returns the list of the symbols that this definition's body refers to.
+       */
+      public AbstractList<Symbol> referencedSymbols ();
+
+      /**
+       * Type-checks this definition using the specified typechecker (which has been
+       * reset), and registers its type as a code entry of its symbol (see <a
+       * href="Symbol.html#registerCodeEntry(hlt.language.design.types.Type)">
+       * <tt>Symbol.registerCodeEntry(Type)</tt></a>).
+       */
+      public void typeCheck (TypeChecker typeChecker) throws StaticSemanticsErrorException;
+    }
+
+  /**
+   * The maximum number of definitions type-checked at the same time.
+   */
+  private final int _parallelism;
+
+  /**
+   * The definitions to type-check, in the order they were added.
+   */
+  private final ArrayList<Definition> _definitions = new ArrayList<Definition>();
+
+  /**
+   * The errors signalled by type-checking definitions, indexed by definition.
+   */
+  private final HashMap<Definition,StaticSemanticsErrorException> _errors
+    = new HashMap<Definition,StaticSemanticsErrorException>();
+
+  /**
+   * The first unexpected exception thrown while type-checking a definition, if any;
+   * it is rethrown by <tt>run</tt> once all the tasks are done.
+   */
+  private volatile RuntimeException _crash;
+
+  /**
+   * The typecheckers that are currently idle.
+   */
+  private final Stack _checkers = new Stack();
+
+  /**
+   * Constructs a scheduler type-checking as many definitions at the same time as
+   * there are available processors.
+   */
+  public DefinitionScheduler ()
+    {
+      this(Runtime.getRuntime().availableProcessors());
+    }
+
+  /**
+   * Constructs a scheduler type-checking at most the specified number of definitions
+   * at the same time.
+   */
+  public DefinitionScheduler (int parallelism)
+    {
+      _parallelism = Math.max(1,parallelism);
+    }
+
+  /**
+   * Adds the specified definition to those to type-check, and returns this scheduler.
+   */
+  public final DefinitionScheduler add (Definition definition)
+    {
+      _definitions.add(definition);
+      return this;
+    }
+
+  /**
+   * Returns the error signalled by type-checking the specified definition during the
+   * latest <tt>run</tt>, or <tt>null</tt> if there was none.
+   */
+  public final StaticSemanticsErrorException error (Definition definition)
+    {
+      synchronized (_errors)
+        {
+          return _errors.get(definition);
+        }
+    }
+
+  /**
+   * Type-checks all the definitions added so far, and returns the list, in the order
+   * they were added, of those whose type-checking signalled an error (see <tt>error</tt>).
+   * The definitions are then removed from this scheduler, and the errors of those of
+   * the previous run are forgotten. If type-checking a definition throws an unexpected
+   * runtime exception, the first one thrown is rethrown once all the components have
+   * been processed, and no error is kept.
+   */
+  public final ArrayList<Definition> run () throws InterruptedException
+    {
+      _clearErrors();
+
+      _Component[] components = _components(_dependencies());
+
+      CountDownLatch done = new CountDownLatch(components.length);
+      ForkJoinPool pool = new ForkJoinPool(_parallelism);
+
+      try
+        {
+          // the ready components are all found before any is run, since running one
+          // may make others ready, which are then run by it:
+          ArrayList<_Component> ready = new ArrayList<_Component>();
+          for (int i=0; i<components.length; i++)
+            if (components[i].pending.get() == 0)
+              ready.add(components[i]);
+
+          for (int i=0; i<ready.size(); i++)
+            pool.execute(new _Task(ready.get(i),pool,done));
+
+          done.await();
+        }
+      finally
+        {
+          pool.shutdown();
+        }
+
+      if (_crash != null)
+        {
+          RuntimeException crash = _crash;
+          _crash = null;
+          _definitions.clear();
+          _clearErrors();
+          throw crash;
+        }
+
+      ArrayList<Definition> failures = new ArrayList<Definition>();
+
+      for (int i=0; i<_definitions.size(); i++)
+        if (error(_definitions.get(i)) != null)
+          failures.add(_definitions.get(i));
+
+      _definitions.clear();
+
+      return failures;
+    }
+
+  private final void _clearErrors ()
+    {
+      synchronized (_errors)
+        {
+          _errors.clear();
+        }
+    }
+
+  //\\//\\//\\//\\ Dependency graph
+
+  /**
+   * Returns, for each definition (by index), the array of the indices of the
+   * definitions it depends on.
+   */
+  private final int[][] _dependencies ()
+    {
+      HashMap<Symbol,ArrayList<Integer>> definers = new HashMap<Symbol,ArrayList<Integer>>();
+
+      for (int i=0; i<_definitions.size(); i++)
+        {
+          Symbol symbol = _definitions.get(i).symbol();
+          ArrayList<Integer> indices = definers.get(symbol);
+          if (indices == null) definers.put(symbol,indices = new ArrayList<Integer>());
+          indices.add(Integer.valueOf(i));
+        }
+
+      int[][] dependencies = new int[_definitions.size()][];
+
+      for (int i=0; i<dependencies.length; i++)
+        {
+          Definition definition = _definitions.get(i);
+          HashSet<Integer> dependees = new HashSet<Integer>();
+
+          ArrayList<Integer> own = definers.get(definition.symbol());
+          int rank = own.indexOf(Integer.valueOf(i));
+          if (rank > 0) dependees.add(own.get(rank-1));
+
+          for (Iterator<Symbol> j=definition.referencedSymbols().iterator(); j.hasNext();)
+            {
+              ArrayList<Integer> indices = definers.get(j.next());
+              if (indices != null) dependees.addAll(indices);
+            }
+
+          dependees.remove(Integer.valueOf(i));
+
+          dependencies[i] = new int[dependees.size()];
+          int k = 0;
+          for (Iterator<Integer> j=dependees.iterator(); j.hasNext();)
+            dependencies[i][k++] = j.next().intValue();
+        }
+
+      return dependencies;
+    }
+
+  /**
+   * Returns the strongly connected components of the specified dependency graph,
+   * linked to the components depending on them. These are computed by Tarjan's
+   * algorithm, done iteratively since the graph may be deep.
+   */
+  private final _Component[] _components (int[][] dependencies)
+    {
+      int size = dependencies.length;
+      int[] index = new int[size];
+      int[] lowLink = new int[size];
+      int[] next = new int[size];
+      int[] component = new int[size];
+      boolean[] isStacked = new boolean[size];
+      int[] stack = new int[size];
+      int[] path = new int[size];
+      int top = 0;
+      int counter = 0;
+      ArrayList<_Component> components = new ArrayList<_Component>();
+
+      for (int i=0; i<size; i++) index[i] = -1;
+
+      for (int root=0; root<size; root++)
+        {
+          if (index[root] >= 0) continue;
+
+          int depth = 0;
+          path[depth++] = root;
+          index[root] = lowLink[root] = counter++;
+          stack[top++] = root;
+          isStacked[root] = true;
+
+          while (depth > 0)
+            {
+              int v = path[depth-1];
+
+              if (next[v] < dependencies[v].length)
+                {
+                  int w = dependencies[v][next[v]++];
+
+                  if (index[w] < 0)
+                    {
+                      index[w] = lowLink[w] = counter++;
+                      stack[top++] = w;
+                      isStacked[w] = true;
+                      path[depth++] = w;
+                    }
+                  else
+                    if (isStacked[w])
+                      lowLink[v] = Math.min(lowLink[v],index[w]);
+
+                  continue;
+                }
+
+              depth--;
+              if (depth > 0)
+                lowLink[path[depth-1]] = Math.min(lowLink[path[depth-1]],lowLink[v]);
+
+              if (lowLink[v] == index[v])
+                {
+                  int first = top;
+                  do
+                    {
+                      isStacked[stack[--first]] = false;
+                      component[stack[first]] = components.size();
+                    }
+                  while (stack[first] != v);
+
+                  int[] members = new int[top-first];
+                  System.arraycopy(stack,first,members,0,members.length);
+                  top = first;
+
+                  components.add(new _Component(members));
+                }
+            }
+        }
+
+      _Component[] result = new _Component[components.size()];
+      components.toArray(result);
+
+      for (int v=0; v<size; v++)
+        for (int i=0; i<dependencies[v].length; i++)
+          result[component[dependencies[v][i]]].addDependent(result[component[v]]);
+
+      return result;
+    }
+
+  /**
+   * A <tt>_Component</tt> is a strongly connected component of the dependency graph.
+   */
+  private final class _Component
+    {
+      /**
+       * The definitions of this component, in the order they were added.
+       */
+      final Definition[] definitions;
+
+      /**
+       * The number of components this one depends on that remain to be checked.
+       */
+      final AtomicInteger pending = new AtomicInteger();
+
+      /**
+       * The components depending on this one.
+       */
+      final ArrayList<_Component> dependents = new ArrayList<_Component>();
+
+      _Component (int[] members)
+        {
+          Arrays.sort(members);
+          definitions = new Definition[members.length];
+
+          for (int i=0; i<members.length; i++)
+            definitions[i] = _definitions.get(members[i]);
+        }
+
+      final void addDependent (_Component component)
+        {
+          if (component == this || dependents.contains(component))
+            return;
+
+          dependents.add(component);
+          component.pending.incrementAndGet();
+        }
+    }
+
+  //\\//\\//\\//\\ Type checking
+
+  /**
+   * A <tt>_Task</tt> type-checks a component, and then schedules the components
+   * depending on it that have become ready.
+   */
+  private final class _Task implements Runnable
+    {
+      private final _Component _component;
+      private final ForkJoinPool _pool;
+      private final CountDownLatch _done;
+
+      _Task (_Component component, ForkJoinPool pool, CountDownLatch done)
+        {
+          _component = component;
+          _pool = pool;
+          _done = done;
+        }
+
+      public final void run ()
+        {
+          TypeChecker typeChecker = _takeChecker();
+
+          try
+            {
+              for (int i=0; i<_component.definitions.length; i++)
+                try
+                  {
+                    typeChecker.reset();
+                    _component.definitions[i].typeCheck(typeChecker);
+                  }
+                catch (StaticSemanticsErrorException error)
+                  {
+                    synchronized (_errors)
+                      {
+                        _errors.put(_component.definitions[i],error);
+                      }
+                  }
+            }
+          catch (RuntimeException crash)
+            {
+              if (_crash == null) _crash = crash;
+            }
+          finally
+            {
+              _giveChecker(typeChecker);
+
+              for (int i=0; i<_component.dependents.size(); i++)
+                {
+                  _Component dependent = _component.dependents.get(i);
+                  if (dependent.pending.decrementAndGet() == 0)
+                    _pool.execute(new _Task(dependent,_pool,_done));
+                }
+
+              _done.countDown();
+            }
+        }
+    }
+
+  /**
+   * Returns an idle typechecker, working in its own typing context.
+   */
+  private final TypeChecker _takeChecker ()
+    {
+      synchronized (_checkers)
+        {
+          if (!_checkers.isEmpty())
+            return (TypeChecker)_checkers.pop();
+        }
+
+      return new TypeChecker(new TypingContext());
+    }
+
+  /**
+   * Makes the specified typechecker idle.
+   */
+  private final void _giveChecker (TypeChecker typeChecker)
+    {
+      synchronized (_checkers)
+        {
+          _checkers.push(typeChecker);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * An <tt>EntryIndex</tt> indexes the <a href="CodeEntry.html"><tt>CodeEntry</tt></a>
+ * objects of a <a href="Symbol.html"><tt>Symbol</tt></a> in two ways:
+ *
+ * <ul>
+ * <li> as a <i>registry</i> associating to each entry type's <i>variant code</i>
+ *      (a hash code that is invariant under renaming of type parameters) the
+ *      entries with this code, so that finding the entry whose type is equal to
+ *      a given type up to a renaming of its type parameters (<i>i.e.</i>, an
+ *      <i>alpha-variant</i>) takes expected constant time;<p>
+ * <li> as a two-level discrimination index for finding the entries whose types
+ *      may unify with a given type.
+ * </ul>
+ *
+ * The first level of the discrimination index discriminates on
+ * the <i>head</i> of an entry's type (<i>i.e.</i>, its kind, and, when
+ * relevant, its name or constant); the second level, which exists only for
+ * function and tuple types, discriminates on the head of the first domain
+ * type of a function type, and on the dimension of a tuple type. Entries
+ * whose type (resp., first domain type) is a type parameter are kept apart
+ * as wildcards matching anything at their level.
+ *
+ * <p>
+ *
+ * The index is conservative: it only discards entries whose type can not
+ * possibly unify with a given type. Note that currying a function type
+ * never changes its first domain, and so discriminating on it is sound.
+ * When <tt>TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES</tt> is set, defined
+ * types and tuple types may unify with each other and no discrimination is
+ * made between them.
+ *
+ * <p>
+ *
+ * All lists returned by the index preserve the order of entries in the
+ * symbol's type table.
+ */
+final class EntryIndex
+{
+  /**
+   * The entries in the order they were added.
+   */
+  private ArrayList<CodeEntry> _entries = new ArrayList<CodeEntry>();
+
+  /**
+   * The head and second-level keys of the entries, as computed when they were added.
+   */
+  private ArrayList<Key> _headKeys = new ArrayList<Key>();
+  private ArrayList<Object> _subKeys = new ArrayList<Object>();
+
+  /**
+   * The variant codes of the entries' types, as computed when they were added.
+   */
+  private ArrayList<Integer> _codes = new ArrayList<Integer>();
+
+  /**
+   * This table associates a variant code to the list of entries whose types have
+   * this code.
+   */
+  private HashMap<Integer,ArrayList<CodeEntry>> _registry = new HashMap<Integer,ArrayList<CodeEntry>>();
+
+  /**
+   * The entries whose type is a type parameter (or of a kind that is not indexed).
+   */
+  private ArrayList<CodeEntry> _wildcards = new ArrayList<CodeEntry>();
+
+  /**
+   * This table associates a head key to the <tt>Family</tt> of entries with this head.
+   */
+  private HashMap<Key,Family> _families = new HashMap<Key,Family>();
+
+  /**
+   * Adds the specified entry to this index. It is assumed to be the latest entry
+   * of its symbol's type table.
+   */
+  final void add (CodeEntry entry)
+    {
+      entry.setTableIndex(_entries.size());
+      _entries.add(entry);
+
+      Integer code = Integer.valueOf(variantCode(entry.type()));
+      ArrayList<CodeEntry> variants = _registry.get(code);
+      if (variants == null)
+        _registry.put(code,variants = new ArrayList<CodeEntry>());
+      variants.add(entry);
+      _codes.add(code);
+
+      Type type = entry.type().value();
+      Key key = headKey(type);
+      Object subKey = key == null ? null : subKey(type);
+
+      _headKeys.add(key);
+      _subKeys.add(subKey);
+
+      if (key == null)
+        {
+          _wildcards.add(entry);
+          return;
+        }
+
+      Family family = _families.get(key);
+      if (family == null)
+        _families.put(key,family = new Family());
+
+      family.add(entry,subKey);
+    }
+
+  /**
+   * Removes the latest entry added to this index.
+   */
+  final void removeLatest ()
+    {
+      int last = _entries.size()-1;
+
+      _entries.remove(last);
+
+      Integer code = _codes.remove(last);
+      ArrayList<CodeEntry> variants = _registry.get(code);
+      variants.remove(variants.size()-1);
+      if (variants.isEmpty())
+        _registry.remove(code);
+
+      Key key = _headKeys.remove(last);
+      Object subKey = _subKeys.remove(last);
+
+      if (key == null)
+        {
+          _wildcards.remove(_wildcards.size()-1);
+          return;
+        }
+
+      Family family = _families.get(key);
+      family.removeLatest(subKey);
+      if (family.entries.isEmpty())
+        _families.remove(key);
+    }
+
+  /**
+   * Empties this index.
+   */
+  final void clear ()
+    {
+      _entries.clear();
+      _headKeys.clear();
+      _subKeys.clear();
+      _codes.clear();
+      _registry.clear();
+      _wildcards.clear();
+      _families.clear();
+    }
+
+  /**
+   * Returns the latest indexed entry whose type is an alpha-variant of the specified
+   * type, or <tt>null</tt> if there is none.
+   */
+  final CodeEntry find (Type type)
+    {
+      ArrayList<CodeEntry> variants = _registry.get(Integer.valueOf(variantCode(type)));
+
+      if (variants != null)
+        for (int i=variants.size(); i-->0;)
+          {
+            CodeEntry entry = variants.get(i);
+            if (isVariant(type,entry.type()))
+              return entry;
+          }
+
+      return null;
+    }
+
+  //\\//\\//\\//\\ Variant codes
+
+  /**
+   * Returns <tt>true</tt> iff the two specified types are equal up to a consistent
+   * renaming of their type parameters.
+   */
+  static final boolean isVariant (Type t1, Type t2)
+    {
+      return t1.isEqualTo(t2,new HashMap<Type,Type>()) && t2.isEqualTo(t1,new HashMap<Type,Type>());
+    }
+
+  /**
+   * Returns a hash code for the specified type that is invariant under renaming
+   * of type parameters and compatible with <tt>isVariant</tt>. Note that this is
+   * not the same as <tt>Type.eqCode()</tt>, which is not compatible with type
+   * equality for boxable type constants and defined types.
+   */
+  static final int variantCode (Type type)
+    {
+      type = type.value();
+
+      switch (type.kind())
+        {
+        case Type.BOXABLE:
+          return Type.BOXABLE + 31*variantCode(((BoxableTypeConstant)type).type());
+
+        case Type.CONSTANT:
+        case Type.COLLECTION:
+          return type.kind() + 31*((NamedType)type).name().hashCode();
+
+        case Type.FUNCTION:
+          {
+            FunctionType functionType = (FunctionType)type;
+            int code = Type.FUNCTION + 31*functionType.arity();
+            for (int i=0; i<functionType.arity(); i++)
+              code = 31*code + variantCode(functionType.domain(i));
+            return 31*code + variantCode(functionType.range());
+          }
+
+        case Type.TUPLE:
+        case Type.NAMED_TUPLE:
+          {
+            TupleType tupleType = (TupleType)type;
+            int code = Type.TUPLE + 31*tupleType.dimension();
+            for (int i=0; i<tupleType.dimension(); i++)
+              code = 31*code + variantCode(tupleType.component(i));
+            return code;
+          }
+
+        case Type.ARRAY:
+          return Type.ARRAY + 31*(31*variantCode(((ArrayType)type).baseType())
+                                  + variantCode(((ArrayType)type).indexSetType()));
+
+        case Type.SET:
+        case Type.BAG:
+        case Type.LIST:
+          return type.kind() + 31*variantCode(((CollectionType)type).baseType());
+
+        case Type.CLASS:
+        case Type.DEFINED:
+          {
+            TypeTerm typeTerm = (TypeTerm)type;
+            int code = type.kind() + 31*typeTerm.name().hashCode();
+            for (int i=0; i<typeTerm.arity(); i++)
+              code = 31*code + variantCode(typeTerm.argument(i));
+            return code;
+          }
+        }
+
+      return type.kind();
+    }
+
+  //\\//\\//\\//\\ Discrimination
+
+  /**
+   * Returns the list, in table order, of all the indexed entries whose type may
+   * unify with the specified type. <b>NB:</b> the list returned may be shared
+   * by this index and must not be modified.
+   */
+  final ArrayList<CodeEntry> candidates (Type type)
+    {
+      type = type.value();
+
+      Key key = headKey(type);
+
+      if (key == null || _isOpaqueTuple(key))
+        return _entries;
+
+      Family family = _families.get(key);
+
+      if (family == null)
+        return _wildcards;
+
+      return merge(family.candidates(subKey(type)),_wildcards);
+    }
+
+
+  /**
+   * Returns <tt>true</tt> iff the specified types have heads that may unify (as far as
+   * this index is concerned).
+   */
+  static final boolean mayUnify (Type t1, Type t2)
+    {
+      t1 = t1.value();
+      t2 = t2.value();
+
+      Key k1 = headKey(t1);
+      Key k2 = headKey(t2);
+
+      if (k1 == null || k2 == null || _isOpaqueTuple(k1) || _isOpaqueTuple(k2))
+        return true;
+
+      if (!k1.equals(k2))
+        return false;
+
+      Object s1 = subKey(t1);
+      Object s2 = subKey(t2);
+
+      return s1 == null || s2 == null || s1.equals(s2);
+    }
+
+  /**
+   * Returns <tt>true</tt> iff the specified key is that of a tuple or defined type
+   * while these may unify with one another.
+   */
+  private static final boolean _isOpaqueTuple (Key key)
+    {
+      return TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES
+          && (key.kind == Type.TUPLE || key.kind == Type.DEFINED);
+    }
+
+  /**
+   * Returns the head key of the specified (dereferenced) type, or <tt>null</tt> if
+   * the type is a type parameter or of a kind that is not indexed.
+   */
+  static final Key headKey (Type type)
+    {
+      switch (type.kind())
+        {
+        case Type.BOXABLE:
+          return headKey(((BoxableTypeConstant)type).type().value());
+
+        case Type.CONSTANT:
+          return new Key(Type.CONSTANT,type);
+
+        case Type.COLLECTION:
+        case Type.CLASS:
+        case Type.DEFINED:
+          return new Key(type.kind(),((NamedType)type).name());
+
+        case Type.TUPLE:
+        case Type.NAMED_TUPLE:
+          return new Key(Type.TUPLE,null);
+
+        case Type.FUNCTION:
+        case Type.ARRAY:
+        case Type.SET:
+        case Type.BAG:
+        case Type.LIST:
+          return new Key(type.kind(),null);
+        }
+
+      return null;
+    }
+
+  /**
+   * Returns the second-level key of the specified (dereferenced) type, or <tt>null</tt>
+   * if there is none.
+   */
+  static final Object subKey (Type type)
+    {
+      switch (type.kind())
+        {
+        case Type.FUNCTION:
+          if (((FunctionType)type).arity() == 0)
+            return null;
+          Key key = headKey(((FunctionType)type).domain(0));
+          return key == null || _isOpaqueTuple(key) ? null : key;
+
+        case Type.TUPLE:
+        case Type.NAMED_TUPLE:
+          return Integer.valueOf(((TupleType)type).dimension());
+        }
+
+      return null;
+    }
+
+  /**
+   * Returns the list of entries in either of the two specified lists, in table order.
+   */
+  static final ArrayList<CodeEntry> merge (ArrayList<CodeEntry> l1, ArrayList<CodeEntry> l2)
+    {
+      if (l2.isEmpty()) return l1;
+      if (l1.isEmpty()) return l2;
+
+      ArrayList<CodeEntry> merge = new ArrayList<CodeEntry>();
+
+      int i = 0, j = 0;
+      while (i < l1.size() && j < l2.size())
+        {
+          CodeEntry e1 = l1.get(i);
+          CodeEntry e2 = l2.get(j);
+
+          if (e1.tableIndex() < e2.tableIndex())
+            { merge.add(e1); i++; }
+          else
+            { merge.add(e2); j++; }
+        }
+
+      while (i < l1.size()) merge.add(l1.get(i++));
+      while (j < l2.size()) merge.add(l2.get(j++));
+
+      return merge;
+    }
+
+  /**
+   * A head key consists of a type kind and an optional discriminating tag (a name
+   * or a type constant).
+   */
+  static final class Key
+    {
+      final byte kind;
+      final Object tag;
+
+      Key (byte kind, Object tag)
+        {
+          this.kind = kind;
+          this.tag = tag;
+        }
+
+      public final boolean equals (Object object)
+        {
+          if (this == object)
+            return true;
+
+          if (!(object instanceof Key))
+            return false;
+
+          Key other = (Key)object;
+          return kind == other.kind
+              && (tag == other.tag || tag instanceof String && tag.equals(other.tag));
+        }
+
+      public final int hashCode ()
+        {
+          if (tag == null)
+            return kind;
+
+          return kind + 31*(tag instanceof String ? tag.hashCode() : System.identityHashCode(tag));
+        }
+    }
+
+  /**
+   * A <tt>Family</tt> gathers the entries sharing a given head key, possibly further
+   * discriminated on their second-level key.
+   */
+  private static final class Family
+    {
+      ArrayList<CodeEntry> entries = new ArrayList<CodeEntry>();
+      HashMap<Object,ArrayList<CodeEntry>> subFamilies;
+      ArrayList<CodeEntry> subWildcards;
+
+      final void add (CodeEntry entry, Object subKey)
+        {
+          entries.add(entry);
+
+          if (subKey == null)
+            {
+              if (subWildcards == null) subWildcards = new ArrayList<CodeEntry>();
+              subWildcards.add(entry);
+              return;
+            }
+
+          if (subFamilies == null) subFamilies = new HashMap<Object,ArrayList<CodeEntry>>();
+
+          ArrayList<CodeEntry> subFamily = subFamilies.get(subKey);
+          if (subFamily == null)
+            subFamilies.put(subKey,subFamily = new ArrayList<CodeEntry>());
+
+          subFamily.add(entry);
+        }
+
+      final void removeLatest (Object subKey)
+        {
+          entries.remove(entries.size()-1);
+
+          if (subKey == null)
+            {
+              subWildcards.remove(subWildcards.size()-1);
+              return;
+            }
+
+          ArrayList<CodeEntry> subFamily = subFamilies.get(subKey);
+          subFamily.remove(subFamily.size()-1);
+          if (subFamily.isEmpty())
+            subFamilies.remove(subKey);
+        }
+
+      final ArrayList<CodeEntry> candidates (Object subKey)
+        {
+          if (subKey == null || subFamilies == null)
+            return entries;
+
+          ArrayList<CodeEntry> subFamily = subFamilies.get(subKey);
+
+          if (subFamily == null)
+            return subWildcards == null ? _EMPTY : subWildcards;
+
+          return subWildcards == null ? subFamily : merge(subFamily,subWildcards);
+        }
+    }
+
+  private static final ArrayList<CodeEntry> _EMPTY = new ArrayList<CodeEntry>();
+}
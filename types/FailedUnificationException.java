@@ -17,4 +17,14 @@ public abstract class FailedUnificationException extends TypingErrorException
       //      super("failed unification: ");
       super("");
     }
+
+  /**
+   * Failed unifications are the normal way a typechecker finds out that an alternative
+   * does not work, and are reported to users with the extent of the culprit rather than
+   * a Java stack trace. So, they do not fill in the stack trace, which is costly.
+   */
+  public final Throwable fillInStackTrace ()
+    {
+      return this;
+    }
 }
@@ -599,7 +599,7 @@ public class FunctionType extends ConstructedType
    */
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -614,7 +614,7 @@ public class FunctionType extends ConstructedType
           if (noCurrying() || other.noCurrying())
             {
               if (arity() != other.arity())
-                typeChecker.error(new TypeClashException("wrong number of arguments"));
+                typeChecker.clash("wrong number of arguments");
             }
           else
             {
@@ -638,7 +638,7 @@ public class FunctionType extends ConstructedType
           return;
 
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
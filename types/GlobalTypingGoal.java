@@ -10,6 +10,9 @@ package hlt.language.design.types;
  * @copyright   &copy; <a href="http://www.hassan-ait-kaci.net/">by the author</a>
  */
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import hlt.language.util.Locatable;
 import hlt.language.design.kernel.Global;
@@ -63,6 +66,14 @@ public class GlobalTypingGoal extends Goal
       return _global;
     }
 
+  /**
+   * Returns the <a href="../kernel/Global.html"><tt>Global</tt></a> being type-checked.
+   */
+  final Global global ()
+    {
+      return _global;
+    }
+
   /**
    * Returns this goal choice point. A single reusable structure is used.
    */
@@ -74,33 +85,48 @@ public class GlobalTypingGoal extends Goal
 
   /**
    * Initializes this global typing goal by computing the global's viable types (as per
-   * the global's current filter type). If no viable type is found, a typing error is
-   * signalled. If there are viable types, the first one is used to set the current
-   * goal to an appropriate <a href="TypingGoal.html"><tt>TypingGoal</tt></a> with
-   * the global as expression and the first viable type as type. If there are more
-   * than one viable types, a choice point is created containing the second to last
-   * such types, and it is pushed on the typechecker's choice point stack. In all
-   * cases, this global typing goal is marked as initialized. This mark is to be reset
-   * to false upon backtracking prior to this goal in order to recreate the full choice
-   * point as necessary. This is done by the <tt>undo</tt> method which is called on
-   * by the typechecker on all trailed goals as it pops them while unwinding its goal
-   * trail.
+   * the global's current filter type), discarding those whose outer shape is incompatible
+   * with the global's current type (and, in a search shared among several workers, those
+   * not in the typechecker's share - see <tt>TypeChecker.share</tt>). If no viable type
+   * is found, a typing error is signalled. If there are viable types, the first one
+   * is used to set the current goal to an appropriate <a href="TypingGoal.html">
+   * <tt>TypingGoal</tt></a> with the global as expression and the first viable type
+   * as type. If there are more than one viable types, a choice point is created
+   * containing the second to last such types, and it is pushed on the typechecker's
+   * choice point stack. In all cases, this global typing goal is marked as initialized.
+   * This mark is to be reset to false upon backtracking prior to this goal in order to
+   * recreate the full choice point as necessary. This is done by the <tt>undo</tt>
+   * method which is called on by the typechecker on all trailed goals as it pops them
+   * while unwinding its goal trail.
    */
   private final void _initialize (TypeChecker typeChecker) throws FailedUnificationException
     {
-      Iterator i = _global.viableTypes().iterator();
+      Iterator i = typeChecker.share(_viableEntries(typeChecker));
 
       if (!i.hasNext())
-        {
-          Type.resetNames();
-          typeChecker.error(new TypeClashException("no type allowed for '"+_global+"' fits "+
-                                                   _global.sieve().toQuantifiedString()),
-                            _global);
-        }
+        typeChecker.clash(new Object()
+                            {
+                              public String toString ()
+                                {
+                                  return "no type allowed for '"+_global+"' fits "+
+                                         _global.sieve().toQuantifiedString();
+                                }
+                            },
+                          _global);
+
+      CodeEntry first = (CodeEntry)i.next();
+      _setCurrentGoal(first);
+
+      if (typeChecker.profiler() != null)
+        typeChecker.profiler().resolved(this,_global,first,i.hasNext());
 
-      _setCurrentGoal((CodeEntry)i.next());
       if (i.hasNext())
         {
+          // in deterministic mode, this goal was not trailed by the prove method;
+          // it must be now, before the choice point records the goal trail point,
+          // so that backtracking to this choice point finds the goal trail as it
+          // would be in non-deterministic mode:
+          if (typeChecker.isDeterministic()) forceTrail(typeChecker);
           _choicePoint().setTimeStamp(this);
           while (i.hasNext())
             _choicePoint.push((CodeEntry)i.next());
@@ -110,6 +136,65 @@ public class GlobalTypingGoal extends Goal
       _initialized = true;
     }
   
+  /**
+   * Returns an iterator over the global's viable code entries (as per its current filter
+   * type) whose types may unify with the global's current type. The entries whose outer
+   * shapes are compatible with the global's type are obtained from the index of its
+   * symbol (see <tt>Symbol.candidateEntries</tt>) without going over the others. If
+   * <tt>TypeChecker.LOOKS_AHEAD</tt> is <tt>true</tt>, these are further tested by a
+   * tentative unification. The entries discarded this way could only lead to a failed
+   * retry.
+   */
+  private final Iterator _viableEntries (TypeChecker typeChecker)
+    {
+      Type type = _global.type();
+
+      if (type == null || type.value().kind() == Type.PARAMETER)
+        return _global.viableTypes().iterator();
+
+      Symbol symbol = _global.symbol();
+      AbstractList viable = _global.viableTypes();
+      AbstractList candidates = symbol.candidateEntries(type);
+
+      if (viable != symbol.typeTable())
+        candidates = _intersection(candidates,viable);
+
+      if (!TypeChecker.LOOKS_AHEAD)
+        return candidates.iterator();
+
+      ArrayList<CodeEntry> entries = new ArrayList<CodeEntry>();
+
+      for (Iterator i=candidates.iterator(); i.hasNext();)
+        {
+          CodeEntry entry = (CodeEntry)i.next();
+          if (typeChecker.mayUnify(entry.type(),type))
+            entries.add(entry);
+        }
+
+      return entries.iterator();
+    }
+
+  /**
+   * Returns the list of the entries of the first specified list that are also in the
+   * second one, in the order of the first one.
+   */
+  private static final AbstractList _intersection (AbstractList entries, AbstractList others)
+    {
+      IdentityHashMap<Object,Object> set = new IdentityHashMap<Object,Object>();
+      for (Iterator i=others.iterator(); i.hasNext();)
+        set.put(i.next(),i);
+
+      ArrayList<Object> intersection = new ArrayList<Object>();
+      for (Iterator i=entries.iterator(); i.hasNext();)
+        {
+          Object entry = i.next();
+          if (set.containsKey(entry))
+            intersection.add(entry);
+        }
+
+      return intersection;
+    }
+
   /**
    * Sets the current goal to a new <a href="TypingGoal.html"><tt>TypingGoal</tt></a>
    * constructed from the specified <a href="CodeEntry.html"><tt>CodeEntry</tt></a>
@@ -138,7 +223,11 @@ public class GlobalTypingGoal extends Goal
    */
   private final void _backtrack (TypeChecker typeChecker)
     {
-      _setCurrentGoal(_choicePoint.pop());
+      CodeEntry next = _choicePoint.pop();
+      _setCurrentGoal(next);
+
+      if (typeChecker.profiler() != null)
+        typeChecker.profiler().retried(this,_global,next);
 
       if (_choicePoint.isEmpty())
         typeChecker.popChoicePoint();
@@ -157,17 +246,33 @@ public class GlobalTypingGoal extends Goal
    */
   final void prove (TypeChecker typeChecker) throws FailedUnificationException
     {
-      trail(typeChecker);
+      TypingEvents.GlobalGoal event = TypingEvents.GLOBAL_GOAL.isEnabled() ? new TypingEvents.GlobalGoal() : null;
+      if (event != null)
+        {
+          event.begin();
+          event.isRetry = _initialized;
+        }
+
+      try
+        {
+          trail(typeChecker);
 
-      if (!_initialized)
-        _initialize(typeChecker);
-      else
-        _backtrack(typeChecker);
+          if (!_initialized)
+            _initialize(typeChecker);
+          else
+            _backtrack(typeChecker);
 
-      if (typeChecker.isTracing())
-	typeChecker.showGoal(_currentGoal);
+          if (typeChecker.isTracing())
+            typeChecker.showGoal(_currentGoal);
 
-      _currentGoal.prove(typeChecker);
+          _currentGoal.prove(typeChecker);
+          if (event != null) event.succeeded = true;
+        }
+      finally
+        {
+          if (event != null && event.shouldCommit())
+            event.record(typeChecker,this);
+        }
     }
 
   /**
@@ -176,6 +281,9 @@ public class GlobalTypingGoal extends Goal
    */
   final void undo (TypeChecker typeChecker)
     {
+      if (_initialized && typeChecker.profiler() != null)
+        typeChecker.profiler().undone(this);
+
       _initialized = false;
       typeChecker.pushGoal(this);
     }
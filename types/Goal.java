@@ -39,6 +39,23 @@ abstract public class Goal extends TimeStamp
 {
   private boolean _isTrailable = true;
 
+  /**
+   * The effect trail point of the typechecker when this goal was last pushed on
+   * its goal stack. The choice points pushed before that point have no bearing
+   * on the existence of this goal.
+   */
+  private int _activationPoint;
+
+  final int activationPoint ()
+    {
+      return _activationPoint;
+    }
+
+  final void setActivationPoint (int point)
+    {
+      _activationPoint = point;
+    }
+
   final void setIsTrailable (boolean isTrailable)
     {
       _isTrailable = isTrailable;
@@ -50,6 +67,16 @@ abstract public class Goal extends TimeStamp
         typeChecker.trail(this);
     }
 
+  /**
+   * Records this goal on the goal trail of the specified typechecker if it is
+   * trailable, even in deterministic mode.
+   */
+  final void forceTrail (TypeChecker typeChecker)
+    {
+      if (_isTrailable)
+        typeChecker.forceTrail(this);
+    }
+
   /**
    * This method is called by the type checker to try and establish this goal.
    */       
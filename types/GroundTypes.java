@@ -0,0 +1,128 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A <tt>GroundTypes</tt> object is a <i>hash-consing</i> table of ground types:
+ * it maps each structure of ground type it has been given to a single canonical
+ * instance, whose <tt>eqCode</tt> is memoized. Two canonical types of the same
+ * class from the same table are thus equal iff they are identical, and this is
+ * used as a shortcut by their <tt>isEqualTo</tt> methods.
+ * <p>
+ * Since a canonical instance is shared, it must never change. Hence, only the
+ * types that nothing may modify are hash-consed; namely, tuple types, array
+ * types, and collection types, all of whose components are either type constants
+ * or themselves hash-consed. In particular, the following are never hash-consed,
+ * nor is any type containing them:
+ *
+ * <ul>
+ * <li> type parameters, which may be bound;
+ * <li> boxable type constants, whose boxing may be set;
+ * <li> function types, which may be curried and whose boxing mask may be set;
+ * <li> defined types, whose definition is computed lazily;
+ * <li> class types, which refer to the class information of a specific set of
+ *      <a href="Tables.html"><tt>Tables</tt></a>.
+ * </ul>
+ *
+ * The components of such types may still be replaced by their canonical instances.
+ * <p>
+ * The types of the code entries of all symbols, built-in or defined, are hash-consed
+ * in a single table (see <tt>SHARED</tt>) as the entries are created: these types are
+ * kept as long as their symbols, and are otherwise often duplicated (<i>e.g.</i>, as
+ * the standardized copies of the types inferred for definitions). The types merely
+ * copied while type-checking are not: the copies of ground types are already shared
+ * with their originals (see <tt>Type.isSharable</tt>).
+ */
+final class GroundTypes
+{
+  /**
+   * This is the table in which the types of code entries are hash-consed. Since code
+   * entries may be created by typecheckers running concurrently, it must only be used
+   * under its own lock (see <tt>Type.hashCons</tt>).
+   */
+  static final GroundTypes SHARED = new GroundTypes();
+
+  /**
+   * This table associates an <tt>eqCode</tt> to the list of canonical types
+   * having this code.
+   */
+  private HashMap<Integer,ArrayList<Type>> _table = new HashMap<Integer,ArrayList<Type>>();
+
+  /**
+   * Returns the canonical instance of the specified type if it may be hash-consed;
+   * otherwise, replaces its components by their canonical instances as possible, and
+   * returns it.
+   */
+  final Type intern (Type type)
+    {
+      if (type == null || type.isHashConsed() || type instanceof ProtoType)
+        return type;
+
+      switch (type.kind())
+        {
+        case Type.CONSTANT:
+        case Type.COLLECTION:
+        case Type.PARAMETER:
+          return type;
+        }
+
+      boolean isConsable = type instanceof TupleType
+                        || type instanceof ArrayType
+                        || type instanceof CollectionType;
+
+      for (int i=type.numberOfTypeComponents(); i-->0;)
+        {
+          Type component = type.typeRefComponent(i);
+          Type canonical = intern(component);
+
+          if (canonical != component)
+            type.setTypeRefComponent(i,canonical);
+
+          isConsable &= _isCanonical(canonical);
+        }
+
+      if (!isConsable)
+        return type;
+
+      Integer code = Integer.valueOf(type.eqCode());
+      ArrayList<Type> bucket = _table.get(code);
+
+      if (bucket == null)
+        _table.put(code,bucket = new ArrayList<Type>());
+      else
+        for (int i=bucket.size(); i-->0;)
+          {
+            Type canonical = bucket.get(i);
+            if (canonical.getClass() == type.getClass() && canonical.isEqualTo(type))
+              return canonical;
+          }
+
+      type.setHashConsed(this,code.intValue());
+      bucket.add(type);
+      return type;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff the specified type may be a component of a hash-consed
+   * type.
+   */
+  private final boolean _isCanonical (Type type)
+    {
+      if (type.isHashConsed())
+        return true;
+
+      switch (type.kind())
+        {
+        case Type.CONSTANT:
+        case Type.COLLECTION:
+          return true;
+        }
+
+      return false;
+    }
+}
@@ -139,7 +139,7 @@ public class NamedTupleType extends TupleType
 
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       if (TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES && type.kind() == DEFINED)
@@ -160,12 +160,12 @@ public class NamedTupleType extends TupleType
             NamedTupleType other = (NamedTupleType)type;
 
             if (other.dimension() != dimension())
-              typeChecker.error(new TypeClashException(this,other));
+              typeChecker.clash(this,other);
 
             for (int i=dimension(); i-->0;)
               {
                 if (!_fields[i].equals(other.fields()[i]))
-                  typeChecker.error(new TypeClashException(this,other));
+                  typeChecker.clash(this,other);
 
                 component(i).unify(other.components()[i],typeChecker);
               }
@@ -178,7 +178,7 @@ public class NamedTupleType extends TupleType
               TupleType other = (TupleType)type;
 
               if (other.dimension() != dimension())
-                typeChecker.error(new TypeClashException(this,other));
+                typeChecker.clash(this,other);
 
               for (int i=dimension(); i-->0;)
                 component(_fields[i].index()).unify(other.components()[i],typeChecker);
@@ -186,7 +186,7 @@ public class NamedTupleType extends TupleType
             }
 
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
@@ -225,7 +225,7 @@ public class NamedTupleType extends TupleType
 
   public final Type copy (HashMap parameters)
     {
-      if (dimension() == 0)
+      if (dimension() == 0 || isSharable())
         return this;
 
       Type[] newComponents = new Type[dimension()];
@@ -241,6 +241,9 @@ public class NamedTupleType extends TupleType
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof NamedTupleType))
         return false;
 
@@ -262,6 +265,9 @@ public class NamedTupleType extends TupleType
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof NamedTupleType))
         return false;
 
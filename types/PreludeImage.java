@@ -0,0 +1,658 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.TupleFieldName;
+import hlt.language.design.instructions.Instruction;
+
+import hlt.language.util.ArrayList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * A <tt>PreludeImage</tt> is a compact binary image of the built-in definitions of a
+ * <a href="Tables.html"><tt>Tables</tt></a>; namely, the built-in code entries of its
+ * symbols, and its built-in type aliases and opaque types (see <tt>Tables.writeImage</tt>
+ * and <tt>Tables.mapImage</tt>). An image is written once, and mapped back in memory at
+ * startup in lieu of running all the <tt>defineBuiltIn</tt> calls that populated the
+ * tables it was written from. Nothing but names is read upon mapping: the code entries
+ * of a symbol are installed when it is first looked up, a type definition when its name
+ * is first looked up, and each type record is decoded when first needed.
+ * <p>
+ * An image is laid out as follows (all numbers are big-endian):
+ * <pre>
+ *  0  int  magic number
+ *  4  int  version
+ *  8  int  number of strings
+ * 12  int  number of types
+ * 16  int  number of symbols
+ * 20  int  number of type definitions
+ * 24       the strings, each as a <tt>short</tt> length followed by as many UTF-8 bytes
+ *          the offsets of the type records, as as many <tt>int</tt>s
+ *          the type records
+ *          the symbol records
+ *          the type definition records
+ * </pre>
+ * Strings, types, and instructions are referred to by their index as an <tt>int</tt>,
+ * where an instruction's index is its position in the array of instructions given to
+ * write or map an image. A type record consists of a <tt>byte</tt> kind followed by the
+ * information proper to that kind, and then the number and indices of the components of
+ * the type (or -1 for a missing component). Types are written once however many times
+ * they occur, and so they keep their sharing, in particular of type parameters. A symbol
+ * record consists of the symbol's name, its currying flag as a <tt>byte</tt>, and the
+ * number and (type, instruction) index pairs of its built-in code entries. A type
+ * definition record consists of the defined name, its defining type, and the number
+ * and indices of its type parameters.
+ * <p>
+ * Type constants are identified by name: only the standard ones (<i>e.g.</i>, <tt>Type.INT</tt>)
+ * may occur in an image, and they are mapped back to themselves; since type constants
+ * are compared by identity, a built-in mentioning any other one could not be mapped
+ * back to a type of the host, and so an image of it cannot be written. Class types
+ * are mapped back to the class of their name in the tables the image is mapped in.
+ */
+final class PreludeImage
+{
+  static final int MAGIC = 0x484C5450;
+  static final int VERSION = 1;
+
+  private static final int _HEADER_SIZE = 24;
+
+  /**
+   * The type constants that are mapped back to themselves.
+   */
+  private static final TypeConstant[] _STANDARD_CONSTANTS =
+    {
+      Type.VOID, Type.INT, Type.REAL, Type.CHAR, Type.BOOLEAN,
+      Type.STRING, Type.INT_RANGE, Type.REAL_RANGE
+    };
+
+  /**
+   * Returns <tt>true</tt> iff the specified type constant is a standard one.
+   */
+  private static final boolean _isStandard (TypeConstant constant)
+    {
+      for (int i=0; i<_STANDARD_CONSTANTS.length; i++)
+        if (_STANDARD_CONSTANTS[i] == constant)
+          return true;
+
+      return false;
+    }
+
+  private final Tables _tables;
+  private final ByteBuffer _buffer;
+  private final Instruction[] _instructions;
+
+  private final String[] _strings;
+  private final int _typeOffsets;
+  private final Type[] _types;
+
+  /**
+   * These associate a name to the offset of the symbol, or type definition, record
+   * for this name.
+   */
+  private final HashMap<String,Integer> _symbols = new HashMap<String,Integer>();
+  private final HashMap<String,Integer> _definitions = new HashMap<String,Integer>();
+
+  /**
+   * Maps the image in the specified file for the specified tables, reading only its
+   * strings and the names of its symbols and type definitions.
+   */
+  PreludeImage (Tables tables, File file, Instruction[] instructions) throws IOException
+    {
+      _tables = tables;
+      _instructions = instructions;
+
+      RandomAccessFile raf = new RandomAccessFile(file,"r");
+      try
+        {
+          FileChannel channel = raf.getChannel();
+          _buffer = channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size());
+        }
+      finally
+        {
+          raf.close();
+        }
+
+      if (_buffer.limit() < _HEADER_SIZE || _buffer.getInt(0) != MAGIC)
+        throw new IOException(file+" is not a prelude image");
+
+      if (_buffer.getInt(4) != VERSION)
+        throw new IOException(file+" is a prelude image of unknown version "+_buffer.getInt(4));
+
+      ByteBuffer buffer = _buffer.duplicate();
+      buffer.position(_HEADER_SIZE);
+
+      _strings = new String[_buffer.getInt(8)];
+      for (int i=0; i<_strings.length; i++)
+        {
+          byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+          buffer.get(bytes);
+          _strings[i] = new String(bytes,"UTF-8").intern();
+        }
+
+      _types = new Type[_buffer.getInt(12)];
+      _typeOffsets = buffer.position();
+
+      if (_types.length == 0)
+        buffer.position(_typeOffsets);
+      else
+        {
+          buffer.position(_buffer.getInt(_typeOffsets+4*(_types.length-1)));
+          _skipType(buffer);
+        }
+
+      for (int i=_buffer.getInt(16); i-->0;)
+        {
+          int position = buffer.position();
+          _symbols.put(_strings[buffer.getInt(position)],Integer.valueOf(position));
+          buffer.position(position+9+8*buffer.getInt(position+5));
+        }
+
+      for (int i=_buffer.getInt(20); i-->0;)
+        {
+          int position = buffer.position();
+          _definitions.put(_strings[buffer.getInt(position)],Integer.valueOf(position));
+          buffer.position(position+12+4*buffer.getInt(position+8));
+        }
+    }
+
+  /**
+   * Returns <tt>true</tt> iff this image has a symbol with the specified name.
+   */
+  final boolean hasSymbol (String name)
+    {
+      return _symbols.containsKey(name);
+    }
+
+  /**
+   * Returns <tt>true</tt> iff this image has a type definition for the specified name.
+   */
+  final boolean hasDefinition (String name)
+    {
+      return _definitions.containsKey(name);
+    }
+
+  /**
+   * Returns an iterator over the names of the symbols of this image.
+   */
+  final Iterator<String> symbolNames ()
+    {
+      return _symbols.keySet().iterator();
+    }
+
+  /**
+   * Returns an iterator over the names of the type definitions of this image.
+   */
+  final Iterator<String> definitionNames ()
+    {
+      return _definitions.keySet().iterator();
+    }
+
+  /**
+   * Installs in the specified symbol the currying flag and built-in code entries that
+   * this image has for its name, if any.
+   */
+  final void install (Symbol symbol)
+    {
+      Integer offset = _symbols.get(symbol.name());
+      if (offset == null)
+        return;
+
+      int position = offset.intValue() + 4;
+
+      if (_buffer.get(position++) != 0)
+        symbol.setNoCurrying(true);
+
+      int count = _buffer.getInt(position);
+      for (int i=0; i<count; i++)
+        {
+          position += 8;
+          symbol.installBuiltIn(type(_buffer.getInt(position-4)),
+                                _instructions[_buffer.getInt(position)]);
+        }
+    }
+
+  /**
+   * Returns a new type definition for the specified name as per this image, or
+   * <tt>null</tt> if there is none.
+   */
+  final TypeDefinition definition (String name)
+    {
+      Integer offset = _definitions.get(name);
+      if (offset == null)
+        return null;
+
+      int position = offset.intValue() + 4;
+      Type definition = type(_buffer.getInt(position));
+
+      TypeParameter[] parameters = null;
+      int count = _buffer.getInt(position += 4);
+      if (count > 0)
+        {
+          parameters = new TypeParameter[count];
+          for (int i=0; i<count; i++)
+            parameters[i] = (TypeParameter)type(_buffer.getInt(position += 4));
+        }
+
+      return new TypeDefinition(name,definition,parameters);
+    }
+
+  /**
+   * Returns the type of the specified index, decoding it if it has not been already;
+   * or <tt>null</tt> if the index is -1.
+   */
+  final Type type (int index)
+    {
+      if (index < 0)
+        return null;
+
+      if (_types[index] == null)
+        _types[index] = _decode(_buffer.getInt(_typeOffsets+4*index));
+
+      return _types[index];
+    }
+
+  /**
+   * Decodes the type record at the specified offset.
+   */
+  private final Type _decode (int position)
+    {
+      byte kind = _buffer.get(position++);
+      String name = null;
+      boolean flag = false;
+
+      switch (kind)
+        {
+        case Type.CONSTANT:
+          // the sort and boxing flag are only recorded to tell type constants apart
+          // in the image: only standard type constants may occur in an image
+          name = _strings[_buffer.getInt(position)];
+          position += 6;
+          break;
+
+        case Type.COLLECTION:
+        case Type.CLASS:
+        case Type.DEFINED:
+          name = _strings[_buffer.getInt(position)];
+          position += 4;
+          break;
+
+        case Type.BOXABLE:
+        case Type.FUNCTION:
+          flag = _buffer.get(position++) != 0;
+        }
+
+      if (name != null && (kind == Type.CONSTANT || kind == Type.COLLECTION))
+        for (int i=0; i<_STANDARD_CONSTANTS.length; i++)
+          if (_STANDARD_CONSTANTS[i].name() == name && _STANDARD_CONSTANTS[i].kind() == kind)
+            return _STANDARD_CONSTANTS[i];
+
+      Type[] components = new Type[_buffer.getInt(position)];
+      for (int i=0; i<components.length; i++)
+        components[i] = type(_buffer.getInt(position += 4));
+      position += 4;
+
+      switch (kind)
+        {
+        case Type.CONSTANT:
+          throw new TypingErrorException("non-standard type constant in prelude image: "+name);
+
+        case Type.COLLECTION:
+          return new CollectionTypeConstant(name,components[0]);
+
+        case Type.BOXABLE:
+          return new BoxableTypeConstant(components[0],flag);
+
+        case Type.PARAMETER:
+          return new TypeParameter();
+
+        case Type.FUNCTION:
+          {
+            int arity = components.length - 1;
+            Type[] domains = new Type[arity];
+            System.arraycopy(components,0,domains,0,arity);
+
+            BoxingMask mask = new BoxingMask(arity);
+            mask.setRangeBox(_buffer.get(position) != 0);
+            for (int i=0; i<arity; i++)
+              mask.setDomainBox(i,_buffer.get(position+1+i) != 0);
+
+            return new FunctionType(domains,components[arity],mask).setNoCurrying(flag);
+          }
+
+        case Type.ARRAY:
+          return new ArrayType(components[0],components[1]);
+
+        case Type.TUPLE:
+          return TupleType.newTupleType(components);
+
+        case Type.NAMED_TUPLE:
+          {
+            TupleFieldName[] fields = new TupleFieldName[components.length];
+            for (int i=0; i<fields.length; i++, position+=8)
+              fields[i] = new TupleFieldName(_strings[_buffer.getInt(position)],
+                                             _buffer.getInt(position+4));
+            return new NamedTupleType(components,fields);
+          }
+
+        case Type.SET:
+          return new SetType(components[0]);
+
+        case Type.BAG:
+          return new BagType(components[0]);
+
+        case Type.LIST:
+          return new ListType(components[0]);
+
+        case Type.CLASS:
+          {
+            Type type = _tables.getType(name);
+            if (components.length == 0 || type.kind() != Type.CLASS)
+              return type;
+            return new ClassType(_tables,name,components,((ClassType)type).classInfo());
+          }
+
+        case Type.DEFINED:
+          return new DefinedType(name,components[0],_arguments(components));
+        }
+
+      throw new TypingErrorException("bad type kind in prelude image: "+kind);
+    }
+
+  /**
+   * Returns the arguments of a defined type from its components, or <tt>null</tt>
+   * if there are none.
+   */
+  private static final Type[] _arguments (Type[] components)
+    {
+      if (components.length == 1)
+        return null;
+
+      Type[] arguments = new Type[components.length-1];
+      System.arraycopy(components,1,arguments,0,arguments.length);
+      return arguments;
+    }
+
+  /**
+   * Moves the specified buffer past the type record at its position.
+   */
+  private static final void _skipType (ByteBuffer buffer)
+    {
+      byte kind = buffer.get();
+
+      switch (kind)
+        {
+        case Type.CONSTANT:
+          buffer.position(buffer.position()+6);
+          break;
+        case Type.COLLECTION:
+        case Type.CLASS:
+        case Type.DEFINED:
+          buffer.position(buffer.position()+4);
+          break;
+        case Type.BOXABLE:
+        case Type.FUNCTION:
+          buffer.get();
+        }
+
+      int count = buffer.getInt();
+      buffer.position(buffer.position()+4*count);
+
+      if (kind == Type.FUNCTION)
+        buffer.position(buffer.position()+count);
+      else
+        if (kind == Type.NAMED_TUPLE)
+          buffer.position(buffer.position()+8*count);
+    }
+
+  //\\//\\//\\//\\ Writing
+
+  /**
+   * Writes to the specified file an image of the specified symbols' built-in code
+   * entries and of the specified type definitions, referring to instructions by their
+   * index in the specified array.
+   */
+  static final void write (File file, ArrayList symbols, ArrayList definitions,
+                           Instruction[] instructions) throws IOException
+    {
+      new _Writer(instructions).write(file,symbols,definitions);
+    }
+
+  private static final class _Writer
+    {
+      private final IdentityHashMap<Instruction,Integer> _instructionIds
+        = new IdentityHashMap<Instruction,Integer>();
+
+      private final HashMap<String,Integer> _stringIds = new HashMap<String,Integer>();
+      private final java.util.ArrayList<String> _strings = new java.util.ArrayList<String>();
+
+      private final IdentityHashMap<Type,Integer> _typeIds = new IdentityHashMap<Type,Integer>();
+      private final java.util.ArrayList<Type> _types = new java.util.ArrayList<Type>();
+
+      _Writer (Instruction[] instructions)
+        {
+          for (int i=0; i<instructions.length; i++)
+            if (!_instructionIds.containsKey(instructions[i]))
+              _instructionIds.put(instructions[i],Integer.valueOf(i));
+        }
+
+      final void write (File file, ArrayList symbols, ArrayList definitions) throws IOException
+        {
+          ByteArrayOutputStream records = new ByteArrayOutputStream();
+          DataOutputStream out = new DataOutputStream(records);
+
+          for (int i=0; i<symbols.size(); i++)
+            {
+              Symbol symbol = (Symbol)symbols.get(i);
+              java.util.ArrayList<BuiltinEntry> entries = new java.util.ArrayList<BuiltinEntry>();
+
+              for (int j=0; j<symbol.typeTable().size(); j++)
+                if (symbol.typeTable().get(j) instanceof BuiltinEntry)
+                  entries.add((BuiltinEntry)symbol.typeTable().get(j));
+
+              out.writeInt(_string(symbol.name()));
+              out.writeByte(symbol.noCurrying() ? 1 : 0);
+              out.writeInt(entries.size());
+              for (int j=0; j<entries.size(); j++)
+                {
+                  BuiltinEntry entry = entries.get(j);
+                  out.writeInt(_type(entry.type()));
+                  out.writeInt(_instruction(entry));
+                }
+            }
+
+          for (int i=0; i<definitions.size(); i++)
+            {
+              TypeDefinition definition = (TypeDefinition)definitions.get(i);
+              out.writeInt(_string(definition.name()));
+              out.writeInt(_type(definition.definitionRef()));
+              out.writeInt(definition.arity());
+              for (int j=0; j<definition.arity(); j++)
+                out.writeInt(_type(definition.parameters()[j]));
+            }
+
+          out.flush();
+
+          ByteArrayOutputStream head = new ByteArrayOutputStream();
+          out = new DataOutputStream(head);
+
+          byte[][] types = new byte[_types.size()][];
+          for (int i=0; i<types.length; i++)
+            types[i] = _record(_types.get(i));
+
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+          out.writeInt(_strings.size());
+          out.writeInt(types.length);
+          out.writeInt(symbols.size());
+          out.writeInt(definitions.size());
+
+          for (int i=0; i<_strings.size(); i++)
+            {
+              byte[] bytes = _strings.get(i).getBytes("UTF-8");
+              if (bytes.length > 0xFFFF)
+                throw new IOException("name too long for a prelude image: "+_strings.get(i));
+              out.writeShort(bytes.length);
+              out.write(bytes);
+            }
+
+          int offset = out.size() + 4*types.length;
+          for (int i=0; i<types.length; i++)
+            {
+              out.writeInt(offset);
+              offset += types[i].length;
+            }
+
+          for (int i=0; i<types.length; i++)
+            out.write(types[i]);
+
+          out.flush();
+
+          FileOutputStream stream = new FileOutputStream(file);
+          try
+            {
+              head.writeTo(stream);
+              records.writeTo(stream);
+            }
+          finally
+            {
+              stream.close();
+            }
+        }
+
+      /**
+       * Returns the index of the specified string, giving it one if it has none.
+       */
+      private final int _string (String string)
+        {
+          Integer id = _stringIds.get(string);
+
+          if (id == null)
+            {
+              _stringIds.put(string,id = Integer.valueOf(_strings.size()));
+              _strings.add(string);
+            }
+
+          return id.intValue();
+        }
+
+      /**
+       * Returns the index of the instruction of the specified entry.
+       */
+      private final int _instruction (BuiltinEntry entry) throws IOException
+        {
+          Integer id = _instructionIds.get(entry.builtIn());
+
+          if (id == null)
+            throw new IOException("no index for the instruction of "+entry);
+
+          return id.intValue();
+        }
+
+      /**
+       * Returns the index of the specified type, giving one to it and to its components
+       * if they have none; or -1 if the type is <tt>null</tt>.
+       */
+      private final int _type (Type type) throws IOException
+        {
+          if (type == null)
+            return -1;
+
+          type = type.value();
+
+          Integer id = _typeIds.get(type);
+
+          if (id == null)
+            {
+              _typeIds.put(type,id = Integer.valueOf(_types.size()));
+              _types.add(type);
+
+              if (type.kind() == Type.CLASS && ((ClassType)type).isDeclared())
+                throw new IOException("declared class in a prelude image: "+type);
+
+              // other type constants are compared by identity, and so could not be
+              // mapped back to those of the tables the image is mapped in:
+              if (type.kind() == Type.CONSTANT && !_isStandard((TypeConstant)type))
+                throw new IOException("non-standard type constant in a prelude image: "+type);
+
+              if (type.kind() != Type.PARAMETER)
+                for (int i=0; i<type.numberOfTypeComponents(); i++)
+                  _type(type.typeRefComponent(i));
+            }
+
+          return id.intValue();
+        }
+
+      /**
+       * Returns the record of the specified type.
+       */
+      private final byte[] _record (Type type) throws IOException
+        {
+          ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          DataOutputStream out = new DataOutputStream(bytes);
+
+          byte kind = type.kind();
+          out.writeByte(kind);
+
+          switch (kind)
+            {
+            case Type.CONSTANT:
+              out.writeInt(_string(((TypeConstant)type).name()));
+              out.writeByte(type.sort());
+              out.writeByte(type.isBoxedType() ? 1 : 0);
+              break;
+
+            case Type.COLLECTION:
+            case Type.CLASS:
+            case Type.DEFINED:
+              out.writeInt(_string(((NamedType)type).name()));
+              break;
+
+            case Type.BOXABLE:
+              out.writeByte(type.isBoxedType() ? 1 : 0);
+              break;
+
+            case Type.FUNCTION:
+              out.writeByte(((FunctionType)type).noCurrying() ? 1 : 0);
+            }
+
+          int count = kind == Type.PARAMETER ? 0 : type.numberOfTypeComponents();
+          out.writeInt(count);
+          for (int i=0; i<count; i++)
+            out.writeInt(_type(type.typeRefComponent(i)));
+
+          if (kind == Type.FUNCTION)
+            {
+              BoxingMask mask = ((FunctionType)type).mask();
+              out.writeByte(mask.rangeIsBoxed() ? 1 : 0);
+              for (int i=0; i<count-1; i++)
+                out.writeByte(mask.domainIsBoxed(i) ? 1 : 0);
+            }
+          else
+            if (kind == Type.NAMED_TUPLE)
+              {
+                TupleFieldName[] fields = ((NamedTupleType)type).fields();
+                for (int i=0; i<fields.length; i++)
+                  {
+                    out.writeInt(_string(fields[i].name()));
+                    out.writeInt(fields[i].index());
+                  }
+              }
+
+          out.flush();
+          return bytes.toByteArray();
+        }
+    }
+}
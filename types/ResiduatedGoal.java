@@ -122,7 +122,21 @@ public class ResiduatedGoal extends Goal
   public final void trigger (GoalProver prover) throws FailedUnificationException
     {
       if (_refCount == 0)
-        _goal.prove((TypeChecker)prover);
+        {
+          TypingEvents.Trigger event = TypingEvents.TRIGGER.isEnabled() ? new TypingEvents.Trigger() : null;
+          if (event != null) event.begin();
+
+          try
+            {
+              _goal.prove((TypeChecker)prover);
+              if (event != null) event.succeeded = true;
+            }
+          finally
+            {
+              if (event != null && event.shouldCommit())
+                event.record((TypeChecker)prover,_goal);
+            }
+        }
     }
 
   /**
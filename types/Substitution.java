@@ -0,0 +1,231 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A <tt>Substitution</tt> is an immutable map from <a href="TypeParameter.html">
+ * <tt>TypeParameter</tt></a>s to the types they are bound to. It is laid out as a
+ * <i>hash-array mapped trie</i> keyed by the identifiers of the parameters, 5 bits
+ * at a time: each node holds a 32-bit bitmap telling which of its 32 slots are used,
+ * and a compact array of the used slots, each holding either a binding or a subnode.
+ * Binding or unbinding a parameter thus returns a new substitution that shares all
+ * but the (at most 7) nodes on the path to the parameter's slot with this one.
+ * <p>
+ * When a typing context has a substitution (see <a href="TypeChecker.html#setPersistentBindings(boolean)">
+ * <tt>TypeChecker.setPersistentBindings(boolean)</tt></a>), the unbound type parameters
+ * are bound by replacing this substitution rather than by setting their fields. Taking
+ * a snapshot of all the bindings is then simply keeping a reference to the current
+ * substitution, and independent typecheckers working in distinct contexts may start
+ * from the same snapshot without copying types or replaying trails.
+ */
+public final class Substitution
+{
+  /**
+   * The substitution binding no type parameter.
+   */
+  public static final Substitution EMPTY = new Substitution(new _Node(0,new Object[0]),0);
+
+  private static final AtomicInteger _ids = new AtomicInteger();
+
+  /**
+   * Returns a new type parameter identifier; identifiers are never 0.
+   */
+  static final int newId ()
+    {
+      return _ids.incrementAndGet();
+    }
+
+  private final _Node _root;
+  private final int _size;
+
+  private Substitution (_Node root, int size)
+    {
+      _root = root;
+      _size = size;
+    }
+
+  /**
+   * Returns the number of type parameters bound by this substitution.
+   */
+  public final int size ()
+    {
+      return _size;
+    }
+
+  /**
+   * Returns the type the specified type parameter is bound to by this substitution,
+   * or <tt>null</tt> if it is not bound by it.
+   */
+  public final Type get (TypeParameter parameter)
+    {
+      return get(parameter.id());
+    }
+
+  final Type get (int id)
+    {
+      _Node node = _root;
+
+      for (int shift=0;; shift+=5)
+        {
+          int bit = 1 << ((id >>> shift) & 31);
+
+          if ((node.bitmap & bit) == 0)
+            return null;
+
+          Object slot = node.slots[Integer.bitCount(node.bitmap & (bit-1))];
+
+          if (slot instanceof _Binding)
+            return ((_Binding)slot).id == id ? ((_Binding)slot).value : null;
+
+          node = (_Node)slot;
+        }
+    }
+
+  /**
+   * Returns a substitution like this one, but for binding the type parameter with
+   * the specified identifier to the specified type.
+   */
+  final Substitution put (int id, Type value)
+    {
+      boolean[] added = new boolean[1];
+      return new Substitution(_root.put(new _Binding(id,value),0,added),_size+(added[0] ? 1 : 0));
+    }
+
+  /**
+   * Returns a substitution like this one, but for not binding the type parameter
+   * with the specified identifier.
+   */
+  final Substitution remove (int id)
+    {
+      _Node root = _root.remove(id,0);
+
+      if (root == _root)
+        return this;
+
+      return new Substitution(root == null ? EMPTY._root : root,_size-1);
+    }
+
+  public final String toString ()
+    {
+      return "Substitution of " + _size + " parameter(s)";
+    }
+
+  //\\//\\//\\//\\ Trie nodes
+
+  private static final class _Binding
+    {
+      final int id;
+      final Type value;
+
+      _Binding (int id, Type value)
+        {
+          this.id = id;
+          this.value = value;
+        }
+    }
+
+  private static final class _Node
+    {
+      final int bitmap;
+      final Object[] slots;
+
+      _Node (int bitmap, Object[] slots)
+        {
+          this.bitmap = bitmap;
+          this.slots = slots;
+        }
+
+      /**
+       * Returns a node like this one at the specified depth (given as a shift), but
+       * with the specified binding; sets the specified flag iff the binding's parameter
+       * was not already bound in this node.
+       */
+      final _Node put (_Binding binding, int shift, boolean[] added)
+        {
+          int bit = 1 << ((binding.id >>> shift) & 31);
+          int index = Integer.bitCount(bitmap & (bit-1));
+
+          if ((bitmap & bit) == 0)
+            {
+              Object[] slots = new Object[this.slots.length+1];
+              System.arraycopy(this.slots,0,slots,0,index);
+              System.arraycopy(this.slots,index,slots,index+1,this.slots.length-index);
+              slots[index] = binding;
+              added[0] = true;
+              return new _Node(bitmap|bit,slots);
+            }
+
+          Object slot = this.slots[index];
+          Object[] slots = this.slots.clone();
+
+          if (slot instanceof _Node)
+            slots[index] = ((_Node)slot).put(binding,shift+5,added);
+          else
+            if (((_Binding)slot).id == binding.id)
+              slots[index] = binding;
+            else
+              {
+                _Node node = new _Node(0,new Object[0]).put((_Binding)slot,shift+5,new boolean[1]);
+                slots[index] = node.put(binding,shift+5,added);
+              }
+
+          return new _Node(bitmap,slots);
+        }
+
+      /**
+       * Returns a node like this one at the specified depth (given as a shift), but
+       * without binding the parameter with the specified identifier; this returns this
+       * node if it does not bind it, and <tt>null</tt> if the result would be empty.
+       */
+      final _Node remove (int id, int shift)
+        {
+          int bit = 1 << ((id >>> shift) & 31);
+
+          if ((bitmap & bit) == 0)
+            return this;
+
+          int index = Integer.bitCount(bitmap & (bit-1));
+          Object slot = this.slots[index];
+          Object newSlot;
+
+          if (slot instanceof _Node)
+            {
+              newSlot = ((_Node)slot).remove(id,shift+5);
+
+              if (newSlot == slot)
+                return this;
+
+              // a subnode left with a single binding is replaced by this binding:
+              if (newSlot != null && ((_Node)newSlot).slots.length == 1
+                  && ((_Node)newSlot).slots[0] instanceof _Binding)
+                newSlot = ((_Node)newSlot).slots[0];
+            }
+          else
+            {
+              if (((_Binding)slot).id != id)
+                return this;
+
+              newSlot = null;
+            }
+
+          if (newSlot != null)
+            {
+              Object[] slots = this.slots.clone();
+              slots[index] = newSlot;
+              return new _Node(bitmap,slots);
+            }
+
+          if (this.slots.length == 1)
+            return null;
+
+          Object[] slots = new Object[this.slots.length-1];
+          System.arraycopy(this.slots,0,slots,0,index);
+          System.arraycopy(this.slots,index+1,slots,index,slots.length-index);
+          return new _Node(bitmap&~bit,slots);
+        }
+    }
+}
@@ -16,7 +16,7 @@ import hlt.language.design.instructions.Instruction;
 import hlt.language.util.ArrayList;
 import hlt.language.util.Comparable;
 
-import java.util.HashMap;
+import java.util.AbstractList;
 import java.util.Iterator;
 
 /**
@@ -31,6 +31,12 @@ public class Symbol
   private boolean _noCurrying = false;
   private ArrayList _typeTable = new ArrayList();
 
+  /**
+   * This indexes the entries of the type table on the heads of their types (see
+   * <a href="EntryIndex.html"><tt>EntryIndex</tt></a>).
+   */
+  private EntryIndex _entryIndex = new EntryIndex();
+
   public Symbol (String name)
     {
       _name = name.intern();
@@ -54,15 +60,103 @@ public class Symbol
 
   public final ArrayList typeTable ()
     {
+      _materialize();
       return _typeTable;
     }
 
+  public final boolean noCurrying ()
+    {
+      return _noCurrying;
+    }
+
   public final Symbol setNoCurrying (boolean flag)
     {
+      _touch();
       _noCurrying = flag;
       return this;
     }
 
+  //\\//\\//\\//\\ Snapshot
+
+  /**
+   * The tables this symbol is registered in, which are told the first time this
+   * symbol changes after they were snapshot (see <a href="Tables.html#reset()">
+   * <tt>Tables.reset()</tt></a>); or <tt>null</tt> if it is not registered.
+   */
+  private Tables _tables;
+
+  /**
+   * The size of the type table and the currying flag of this symbol at the time of
+   * the latest snapshot.
+   */
+  private int _savedSize = 0;
+  private boolean _savedNoCurrying = false;
+
+  /**
+   * The smallest size the type table of this symbol has had since the latest snapshot.
+   * If it is smaller than the saved size, some of the saved entries have been removed,
+   * and removing the latest entries can no longer restore the saved state.
+   */
+  private int _lowestSize = 0;
+
+  /**
+   * This is <tt>true</tt> iff this symbol has changed since the latest snapshot.
+   */
+  private boolean _isTouched = false;
+
+  final void setTables (Tables tables)
+    {
+      _tables = tables;
+    }
+
+  /**
+   * Records the current state of this symbol as the one to restore.
+   */
+  final void save ()
+    {
+      _savedSize = _lowestSize = _size();
+      _savedNoCurrying = _noCurrying;
+      _isTouched = false;
+    }
+
+  /**
+   * Restores this symbol to its saved state by removing the latest code entries.
+   * Returns <tt>false</tt> if this is not possible because entries present when
+   * the state was saved have since been removed (even if others were added since).
+   */
+  final boolean restore ()
+    {
+      if (_lowestSize < _savedSize || _size() < _savedSize)
+        return false;
+
+      while (_size() > _savedSize)
+        if (_deferred != null)
+          {
+            _deferred.remove(_deferred.size()-1);
+            _deferred.remove(_deferred.size()-1);
+            if (_deferred.isEmpty())
+              _deferred = null;
+          }
+        else
+          {
+            _typeTable.remove(_typeTable.size()-1);
+            _entryIndex.removeLatest();
+          }
+
+      _noCurrying = _savedNoCurrying;
+      _isTouched = false;
+      return true;
+    }
+
+  /**
+   * Tells the tables of this symbol that it is about to change, unless already done.
+   */
+  private final void _touch ()
+    {
+      if (!_isTouched && _tables != null)
+        _isTouched = _tables.touched(this);
+    }
+
   //\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
 
   /**
@@ -153,11 +247,12 @@ public class Symbol
   public final CodeEntry getCodeEntry (Type type, boolean noDuplicates)
     throws DuplicateCodeEntryException
     {
-      CodeEntry entry = null;
-      int index = _codeEntryIndex(type);
-      if (index == -1)
+      _materialize();
+
+      CodeEntry entry = _entryIndex.find(type);
+      if (entry == null)
         {
-          _typeTable.add(entry = new DefinedEntry(this,type));
+          _addEntry(entry = new DefinedEntry(this,type.hashCons()));
           return entry;
         }
 
@@ -168,20 +263,28 @@ public class Symbol
                                                 this+" : "+type);
         }
 
-      return (CodeEntry)_typeTable.get(index);
+      return entry;
     }
 
   /**
-   * Returns the index in the type table of the code type whose type matches
-   * the specified type; or -1 if no match is found.
+   * Adds the specified code entry at the end of this symbol's type table.
    */
-  private final int _codeEntryIndex (Type type)
+  private final void _addEntry (CodeEntry entry)
     {
-      for (int i=_typeTable.size(); i-->0;)
-        if (type.isEqualTo(((CodeEntry)_typeTable.get(i)).type(),new HashMap()))
-          return i;
+      _materialize();
+      _touch();
+      _append(entry);
+    }
 
-        return -1;
+  /**
+   * Appends the specified code entry to this symbol's type table and entry index.
+   * The type table is a raw list, as it is shared with the kernel.
+   */
+  @SuppressWarnings("unchecked")
+  private final void _append (CodeEntry entry)
+    {
+      _typeTable.add(entry);
+      _entryIndex.add(entry);
     }
 
   /**
@@ -189,13 +292,43 @@ public class Symbol
    */
   public final void removeLatestEntry ()
     {
+      _materialize();
+      _touch();
       _typeTable.remove(_typeTable.size()-1);
+      _entryIndex.removeLatest();
+
+      if (_typeTable.size() < _lowestSize)
+        _lowestSize = _typeTable.size();
     }      
 
+  /**
+   * Returns the list, in type table order, of the code entries of this symbol whose
+   * types have an outer shape compatible with that of the specified type (<i>i.e.</i>,
+   * discarding those entries that can not possibly unify with it). <b>NB:</b> the
+   * list returned may be shared and must not be modified.
+   */
+  public final AbstractList<CodeEntry> candidateEntries (Type type)
+    {
+      _materialize();
+      return _entryIndex.candidates(type);
+    }
+
+  /**
+   * Returns <tt>true</tt> unless the type of the specified code entry can not possibly
+   * unify with the specified type because of incompatible outer shapes.
+   */
+  public static final boolean isCandidate (CodeEntry entry, Type type)
+    {
+      return EntryIndex.mayUnify(entry.type(),type);
+    }
+
   /**
    * Installs this symbol as a built-in with specified type and instruction.
    * <b>N.B.:</b> If this type was defined for this symbol before, a
    * <tt>DuplicateCodeEntryException</tt> is thrown.
+   * <p>
+   * The code entry is not created right away: the type and instruction are kept
+   * aside until the entries of this symbol are first needed (see <tt>_materialize</tt>).
    */
   public final void defineBuiltIn (Type type, Instruction builtIn)
     throws DuplicateCodeEntryException
@@ -206,12 +339,75 @@ public class Symbol
       if (type.kind() == Type.FUNCTION && _noCurrying)
         ((FunctionType)type).setNoCurrying();
 
-      _typeTable.add(new BuiltinEntry(this,type.standardize(),builtIn));
+      _touch();
+
+      if (_deferred == null)
+        _deferred = new java.util.ArrayList<Object>();
+
+      _deferred.add(type);
+      _deferred.add(builtIn);
+    }
+
+  //\\//\\//\\//\\ Deferred built-ins
+
+  /**
+   * When not <tt>null</tt>, this holds the types and instructions of the built-ins
+   * defined for this symbol whose code entries have not been created yet, in
+   * alternation. These entries come after those of the type table.
+   */
+  private volatile java.util.ArrayList<Object> _deferred;
+
+  /**
+   * Returns the number of code entries of this symbol, counting the deferred ones.
+   */
+  private final int _size ()
+    {
+      java.util.ArrayList<Object> deferred = _deferred;
+      return _typeTable.size() + (deferred == null ? 0 : deferred.size()/2);
+    }
+
+  /**
+   * Creates the code entries of the deferred built-ins of this symbol, if any. The
+   * types of the built-ins are standardized and hash-consed (see <tt>Type.hashCons</tt>)
+   * only then. As the entries may be needed by typecheckers running concurrently,
+   * this is done only once and under this symbol's lock. This does not count as a change of this symbol (see
+   * <tt>_touch</tt>) since its entries are the same, only no longer deferred.
+   */
+  private final void _materialize ()
+    {
+      if (_deferred != null)
+        _materializeDeferred();
+    }
+
+  private final synchronized void _materializeDeferred ()
+    {
+      java.util.ArrayList<Object> deferred = _deferred;
+
+      if (deferred == null)
+        return;
+
+      for (int i=0; i<deferred.size(); i+=2)
+        {
+          CodeEntry entry = new BuiltinEntry(this,((Type)deferred.get(i)).standardize().hashCons(),
+                                             (Instruction)deferred.get(i+1));
+          _append(entry);
+        }
+
+      _deferred = null;
+    }
+
+  /**
+   * Installs this symbol as a built-in with specified type and instruction, where
+   * the type is already in standard form (see <a href="PreludeImage.html"><tt>PreludeImage</tt></a>).
+   */
+  final void installBuiltIn (Type type, Instruction builtIn)
+    {
+      _addEntry(new BuiltinEntry(this,type.hashCons(),builtIn));
     }
 
   public final boolean isDefined ()
     {
-      return !_typeTable.isEmpty();
+      return !_typeTable.isEmpty() || _deferred != null;
     }
 
   public final boolean isDefined (Type type)
@@ -219,13 +415,8 @@ public class Symbol
       if (!isDefined())
         return false;
 
-      type = type.standardize();
-
-      for (int i=_typeTable.size(); i-->0;)
-        if (type.equals(((CodeEntry)_typeTable.get(i)).type()))
-          return true;
-
-      return false;
+      _materialize();
+      return _entryIndex.find(type.standardize()) != null;
     }
 
   public final boolean equals (Object other)
@@ -243,7 +434,7 @@ public class Symbol
     {
       boolean foundEntries = false;
 
-      for (Iterator i=_typeTable.iterator(); i.hasNext();)
+      for (Iterator i=typeTable().iterator(); i.hasNext();)
         {
           CodeEntry entry = (CodeEntry)i.next();
           if (entry.isBuiltIn()) continue;
@@ -257,7 +448,7 @@ public class Symbol
 
   public final void showCodeEntries ()
     {
-      for (Iterator i=_typeTable.iterator(); i.hasNext();)
+      for (Iterator i=typeTable().iterator(); i.hasNext();)
         {
           Type.resetNames();
           System.out.println("\t"+i.next());
@@ -18,6 +18,8 @@ import hlt.language.design.instructions.Instruction;
 
 import hlt.language.util.ArrayList;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.AbstractList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,32 +33,63 @@ import java.util.Iterator;
 
 public class Tables
 {
-  private final static HashSet _EQUALITY_SYMBOLS = new HashSet();
-  private static String _EQUALITY_SYMBOL;
+  /**
+   * Constructs tables working in a new typing context of their own.
+   */
+  public Tables ()
+    {
+      this(new TypingContext());
+    }
+
+  /**
+   * Constructs tables working in the specified typing context.
+   */
+  public Tables (TypingContext context)
+    {
+      _context = context;
+    }
+
+  /**
+   * This is the typing context in which these tables install their built-ins, and
+   * which the typecheckers constructed with them work in (see <a href="TypeChecker.html">
+   * <tt>TypeChecker(Tables)</tt></a>).
+   */
+  private final TypingContext _context;
+
+  /**
+   * Returns the typing context of these tables.
+   */
+  public final TypingContext context ()
+    {
+      return _context;
+    }
+
+  private final HashSet _equalitySymbols = new HashSet();
+  private String _equalitySymbol;
 
   public final boolean isEquality (String name) throws UndefinedEqualityException
     {
-      if (_EQUALITY_SYMBOL == null)
+      if (_equalitySymbol == null)
         throw new UndefinedEqualityException();
       name = name.intern();
-      return name == _EQUALITY_SYMBOL || _EQUALITY_SYMBOLS.contains(name);
+      return name == _equalitySymbol || _equalitySymbols.contains(name);
     }
 
   public final Symbol defineEqualitySymbol (String equality)
     {
       equality = equality.intern();
-      if (_EQUALITY_SYMBOL == null)
-        return symbol(_EQUALITY_SYMBOL = equality);
+      if (_equalitySymbol == null)
+        return symbol(_equalitySymbol = equality);
           
-      _EQUALITY_SYMBOLS.add(equality);
+      _equalitySymbols.add(equality);
       return symbol(equality);
     }
 
   public final Symbol equalitySymbol () throws UndefinedEqualityException
     {
-      if (_EQUALITY_SYMBOL == null)
+      if (_equalitySymbol == null)
         throw new UndefinedEqualityException();
-      return symbol(_EQUALITY_SYMBOL);
+      return symbol(_equalitySymbol);
     }
 
   public final Global equality () throws UndefinedEqualityException
@@ -97,17 +130,146 @@ public class Tables
     {
       _symbolTable.clear();
       _typeTable.clear();
+      _builtinsInstalled = false;
+      _dropSnapshot();
     }
 
   /**
    * This resets the (symbol and type) tables, erasing all definitions except
-   * for the built-ins.
+   * for the built-ins. The first time, this redefines all the built-ins and
+   * takes a snapshot of the resulting state; thereafter, this restores this
+   * snapshot by undoing only what was changed since, unless built-ins were
+   * declared since, in which case they are all redefined anew.
    */
   public final void reset ()
     {
-      clear();
-      _redefineBuiltins();
-      Constant.initialize(this);
+      if (_hasSnapshot && _restoreSnapshot())
+        return;
+
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          clear();
+          _redefineBuiltins();
+          Constant.initialize(this);
+          _takeSnapshot();
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
+    }
+
+  //\\//\\//\\//\\ Snapshot
+
+  /**
+   * This is <tt>true</tt> iff the state of the tables right after the built-ins
+   * were last redefined has been recorded.
+   */
+  private boolean _hasSnapshot = false;
+
+  /**
+   * Since the snapshot: the names of the new symbols, the symbols whose code
+   * entries or currying flag have changed, and the names of the new types.
+   */
+  private final ArrayList _newSymbols = new ArrayList();
+  private final ArrayList _touchedSymbols = new ArrayList();
+  private final ArrayList _newTypes = new ArrayList();
+
+  /**
+   * The state of the equality and <tt>in</tt> symbols at the time of the snapshot.
+   */
+  private HashSet _savedEqualitySymbols;
+  private String _savedEqualitySymbol;
+  private String _savedInSymbol;
+
+  /**
+   * Records the current state of the tables as the one to restore upon reset.
+   */
+  private final void _takeSnapshot ()
+    {
+      for (Iterator i = _symbolTable.values().iterator(); i.hasNext();)
+        ((Symbol)i.next()).save();
+
+      _savedEqualitySymbols = (HashSet)_equalitySymbols.clone();
+      _savedEqualitySymbol = _equalitySymbol;
+      _savedInSymbol = _inSymbol;
+
+      _newSymbols.clear();
+      _touchedSymbols.clear();
+      _newTypes.clear();
+      _hasSnapshot = true;
+    }
+
+  /**
+   * Forgets the snapshot, so that the next reset redefines all the built-ins.
+   */
+  private final void _dropSnapshot ()
+    {
+      _hasSnapshot = false;
+      _newSymbols.clear();
+      _touchedSymbols.clear();
+      _newTypes.clear();
+    }
+
+  /**
+   * Restores the tables to the state recorded by the snapshot, and returns
+   * <tt>true</tt>; or returns <tt>false</tt> if this is not possible.
+   */
+  private final boolean _restoreSnapshot ()
+    {
+      for (int i=_newSymbols.size(); i-->0;)
+        _symbolTable.remove(_newSymbols.get(i));
+
+      for (int i=_touchedSymbols.size(); i-->0;)
+        if (!((Symbol)_touchedSymbols.get(i)).restore())
+          return false;
+
+      for (int i=_newTypes.size(); i-->0;)
+        _typeTable.remove(_newTypes.get(i));
+
+      _equalitySymbols.clear();
+      _equalitySymbols.addAll(_savedEqualitySymbols);
+      _equalitySymbol = _savedEqualitySymbol;
+      _inSymbol = _savedInSymbol;
+
+      _newSymbols.clear();
+      _touchedSymbols.clear();
+      _newTypes.clear();
+      return true;
+    }
+
+  /**
+   * Records that the specified symbol is about to change since the snapshot, and
+   * returns <tt>true</tt>; or returns <tt>false</tt> if there is no snapshot.
+   * As different symbols may be changed at the same time (<i>e.g.</i>, by the
+   * typecheckers of a <a href="DefinitionScheduler.html"><tt>DefinitionScheduler</tt></a>),
+   * this is done under the lock of the list of touched symbols.
+   */
+  final boolean touched (Symbol symbol)
+    {
+      if (!_hasSnapshot)
+        return false;
+
+      synchronized (_touchedSymbols)
+        {
+          _touchedSymbols.add(symbol);
+        }
+
+      return true;
+    }
+
+  /**
+   * Registers the specified type definition, recording its name as new since the
+   * snapshot if there is one.
+   */
+  private final void _putType (String name, TypeDefinition typeDef)
+    {
+      if (_hasSnapshot)
+        _newTypes.add(name);
+
+      _typeTable.put(name,typeDef);
     }
 
   //\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
@@ -117,7 +279,17 @@ public class Tables
       Symbol s = (Symbol)_symbolTable.get(name);
 
       if (s == null)
-        _symbolTable.put(name,s = new Symbol(name,_symbolTable.size()));
+        {
+          _symbolTable.put(name,s = new Symbol(name,_symbolTable.size()));
+          s.setTables(this);
+          if (_hasSnapshot)
+            synchronized (_newSymbols)
+              {
+                _newSymbols.add(name);
+              }
+          if (_builtinsInstalled)
+            _installBuiltins(s);
+        }
 
       return s;
     }
@@ -132,7 +304,9 @@ public class Tables
    */
   public final boolean isDefined (String name)
     {
-      return _symbolTable.get(name) != null;
+      return _symbolTable.get(name) != null
+          || _builtinsInstalled && (_builtinSymbols.containsKey(name)
+                                    || _image != null && _image.hasSymbol(name));
     }
 
   /**
@@ -141,11 +315,11 @@ public class Tables
    */
   public final boolean isDefinedScalar (String name)
     {
-      Symbol symbol = (Symbol)_symbolTable.get(name);
-
-      if (symbol == null)
+      if (!isDefined(name))
         return false;
 
+      Symbol symbol = symbol(name);
+
       for (int i=symbol.typeTable().size(); i-->0;)
         if (((CodeEntry)symbol.typeTable().get(i)).type().kind() != Type.FUNCTION)
           return true;
@@ -155,6 +329,7 @@ public class Tables
 
   public final void showSymbols ()
     {
+      _installBuiltins();
       System.out.println("Showing declared symbols:\n");
 
       for (Iterator i = _symbolTable.values().iterator(); i.hasNext();)
@@ -166,6 +341,7 @@ public class Tables
    */
   public final void showSortedSymbols ()
     {
+      _installBuiltins();
       System.out.println("Showing known symbols in lexicographic order:\n");
 
       for (Iterator i = new TreeMap(_symbolTable).values().iterator(); i.hasNext();)
@@ -177,6 +353,7 @@ public class Tables
    */
   public final void showOrderedSymbols ()
     {
+      _installBuiltins();
       Symbol[] symbols = new Symbol[_symbolTable.size()];
 
       for (Iterator i = _symbolTable.values().iterator(); i.hasNext();)
@@ -196,6 +373,7 @@ public class Tables
    */
   public final void showDefined ()
     {
+      _installBuiltins();
       System.out.println("Showing known symbols:\n");
 
       for (Iterator i = _symbolTable.values().iterator(); i.hasNext();)
@@ -245,11 +423,11 @@ public class Tables
                                                AbstractList parameters)
     throws TypeDefinitionException
     {
-      if (_typeTable.get(name) != null)
+      if (_typeDefinition(name) != null)
         throw new TypeDefinitionException("a type is already defined with name "+name);
 
       TypeDefinition typeDef = new TypeDefinition(name,definition,parameters);
-      _typeTable.put(name,typeDef);
+      _putType(name,typeDef);
 
       return typeDef;
     }   
@@ -272,6 +450,7 @@ public class Tables
     {
       TypeDefinition typeDef = defineTypeAlias(name,definition,parameters);
       _builtinTypeDefinitions.add(new BuiltinTypeDefinition(name,definition,parameters,false));
+      _dropSnapshot();
       return typeDef;
     }         
 
@@ -291,13 +470,13 @@ public class Tables
   public final TypeDefinition defineNewType (String name, Type definition, AbstractList parameters)
     throws TypeDefinitionException
     {
-      if (_typeTable.get(name) != null)
+      if (_typeDefinition(name) != null)
         throw new TypeDefinitionException("a type is already defined with name "+name);
 
       TypeDefinition typeDef = new TypeDefinition(name,
                                                   new DefinedType(name,definition,parameters),
                                                   parameters);
-      _typeTable.put(name,typeDef);
+      _putType(name,typeDef);
 
       return typeDef;
     }   
@@ -321,6 +500,7 @@ public class Tables
     {
       TypeDefinition typeDef = defineNewType(name,definition,parameters);
       _builtinTypeDefinitions.add(new BuiltinTypeDefinition(name,definition,parameters,true));
+      _dropSnapshot();
       return typeDef;
     }         
 
@@ -331,7 +511,7 @@ public class Tables
    */
   public final Type getDefinedType (String name)
     {
-      TypeDefinition typeDef = ((TypeDefinition)_typeTable.get(name));
+      TypeDefinition typeDef = _typeDefinition(name);
       return typeDef == null ? null : typeDef.definition();
     }
 
@@ -342,10 +522,10 @@ public class Tables
    */
   public final Type getType (String name)
     {
-      TypeDefinition typeDef = ((TypeDefinition)_typeTable.get(name));
+      TypeDefinition typeDef = _typeDefinition(name);
 
       if (typeDef == null)
-        _typeTable.put(name,typeDef = new TypeDefinition(name,new ClassType(this,name)));
+        _putType(name,typeDef = new TypeDefinition(name,new ClassType(this,name)));
 
       return typeDef.definition();
     }
@@ -360,7 +540,7 @@ public class Tables
    */
   public final Type getType (String name, AbstractList types) throws StaticSemanticsErrorException
     {
-      TypeDefinition typeDef = ((TypeDefinition)_typeTable.get(name));
+      TypeDefinition typeDef = _typeDefinition(name);
 
       if (typeDef == null)
         {
@@ -375,7 +555,7 @@ public class Tables
 
           typeDef = new TypeDefinition(name,new ClassType(this,name).setArguments(parameters),
                                        parameters);
-          _typeTable.put(name,typeDef);
+          _putType(name,typeDef);
         }
 
       return typeDef.instantiate(types);
@@ -386,6 +566,7 @@ public class Tables
    */
   public final void showTypes ()
     {
+      _installBuiltins();
       System.out.println("Showing registered types:\n");
 
       for (Iterator i = _typeTable.values().iterator(); i.hasNext();)
@@ -396,19 +577,31 @@ public class Tables
 
   // These are conveniences to associate a new builtin instruction to a surface syntax
   // symbol and type. This will complain if the pair <i>(symbol,type)</i> is already
-  // defined.
+  // defined. Those taking a name rather than a symbol do not create the symbol if it
+  // does not exist yet: the built-in is then only recorded, and installed when the
+  // symbol is first looked up (see <tt>_installBuiltins</tt>). Either way, the code
+  // entry of the built-in is only created when the symbol's entries are first needed
+  // (see <tt>Symbol.defineBuiltIn</tt>).
 
   public final void defineBuiltIn (Symbol symbol, Type type, Instruction builtin)
     throws DuplicateCodeEntryException
     {
+      _dropSnapshot();
       symbol.defineBuiltIn(type,builtin);
-      _builtinSymbols.add(new BuiltinDefinition(symbol.name(),type,builtin));
+      _builtinDefinitions(symbol.name()).add(new BuiltinDefinition(symbol.name(),type,builtin));
     }
 
   public final void defineBuiltIn (String name, Type type, Instruction builtin)
     throws DuplicateCodeEntryException
     {
-      defineBuiltIn(symbol(name),type,builtin);
+      if (!_builtinsInstalled || _symbolTable.get(name) != null)
+        {
+          defineBuiltIn(symbol(name),type,builtin);
+          return;
+        }
+
+      _dropSnapshot();
+      _builtinDefinitions(name).add(new BuiltinDefinition(name,type,builtin));
     }
 
   public final void defineBuiltIn (Symbol symbol, Type domain, Type range, Instruction builtin)
@@ -420,7 +613,7 @@ public class Tables
   public final void defineBuiltIn (String name, Type domain, Type range, Instruction builtin)
     throws DuplicateCodeEntryException
     {
-      defineBuiltIn(symbol(name),domain,range,builtin);
+      defineBuiltIn(name,new FunctionType(domain,range),builtin);
     }
 
   public final void defineBuiltIn (Symbol symbol, Type domain1, Type domain2, Type range, Instruction builtin)
@@ -433,7 +626,8 @@ public class Tables
   public final void defineBuiltIn (String name, Type domain1, Type domain2, Type range, Instruction builtin)
     throws DuplicateCodeEntryException
     {
-      defineBuiltIn(symbol(name),domain1,domain2,range,builtin);
+      Type[] domains = { domain1, domain2 };
+      defineBuiltIn(name,new FunctionType(domains,range),builtin);
     }
 
   public final void defineBuiltIn (Symbol symbol, Type domain1, Type domain2, Type domain3, Type range, Instruction builtin)
@@ -446,7 +640,8 @@ public class Tables
   public final void defineBuiltIn (String name, Type domain1, Type domain2, Type domain3, Type range, Instruction builtin)
     throws DuplicateCodeEntryException
     {
-      defineBuiltIn(symbol(name),domain1,domain2,domain3,range,builtin);
+      Type[] domains = { domain1, domain2, domain3 };
+      defineBuiltIn(name,new FunctionType(domains,range),builtin);
     }
 
   public final void defineBuiltIn (Symbol symbol, Type[] domains, Type range, Instruction builtin)
@@ -458,21 +653,195 @@ public class Tables
   public final void defineBuiltIn (String name, Type[] domains, Type range, Instruction builtin)
     throws DuplicateCodeEntryException
     {
-      defineBuiltIn(symbol(name),domains,range,builtin);
+      defineBuiltIn(name,new FunctionType(domains,range),builtin);
+    }
+
+  //\\//\\//\\//\\ Prelude image
+
+  /**
+   * When not <tt>null</tt>, this is the mapped image supplying built-ins in addition
+   * to those declared with <tt>defineBuiltIn</tt> and <tt>defineBuiltin...</tt> (see
+   * <a href="PreludeImage.html"><tt>PreludeImage</tt></a>).
+   */
+  private PreludeImage _image;
+
+
+  /**
+   * Writes to the specified file a binary image of the built-ins of these tables;
+   * namely, the built-in code entries of their symbols along with their currying
+   * flags, and their built-in type aliases and opaque types. The built-in
+   * instructions are recorded as their index in the specified array, which must
+   * contain them all; the same array must be given to map the image back (see
+   * <tt>mapImage</tt>). An <tt>IOException</tt> is thrown if a built-in mentions a
+   * declared class or a type constant other than the standard ones, since it could
+   * not be mapped back to the same type.
+   */
+  public final void writeImage (File file, Instruction[] instructions) throws IOException
+    {
+      _installBuiltins();
+
+      Symbol[] ordered = new Symbol[_symbolTable.size()];
+      for (Iterator i = _symbolTable.values().iterator(); i.hasNext();)
+        {
+          Symbol symbol = (Symbol)i.next();
+          ordered[symbol.index()] = symbol;
+        }
+
+      ArrayList symbols = new ArrayList();
+      for (int i=0; i<ordered.length; i++)
+        if (ordered[i] != null)
+          for (int j=0; j<ordered[i].typeTable().size(); j++)
+            if (ordered[i].typeTable().get(j) instanceof BuiltinEntry)
+              {
+                symbols.add(ordered[i]);
+                break;
+              }
+
+      HashSet names = new HashSet();
+      for (Iterator i = _builtinTypeDefinitions.iterator(); i.hasNext();)
+        names.add(((BuiltinTypeDefinition)i.next()).name);
+      if (_image != null)
+        for (Iterator i = _image.definitionNames(); i.hasNext();)
+          names.add(i.next());
+
+      ArrayList definitions = new ArrayList();
+      for (Iterator i = new TreeMap(_typeTable).values().iterator(); i.hasNext();)
+        {
+          TypeDefinition typeDef = (TypeDefinition)i.next();
+          if (names.contains(typeDef.name()))
+            definitions.add(typeDef);
+        }
+
+      PreludeImage.write(file,symbols,definitions,instructions);
+    }
+
+  /**
+   * Maps in memory the binary image in the specified file (see <tt>writeImage</tt>),
+   * whose built-ins are thereafter part of these tables as if declared with
+   * <tt>defineBuiltIn</tt> and <tt>defineBuiltin...</tt>, except that each symbol, or
+   * type definition, is only installed from the image when its name is first looked
+   * up. The specified array of instructions must be the one the image was written
+   * with. At most one image may be mapped in given tables.
+   */
+  public final void mapImage (File file, Instruction[] instructions) throws IOException
+    {
+      if (_image != null)
+        throw new IOException("a prelude image is already mapped");
+
+      _image = new PreludeImage(this,file,instructions);
+      _dropSnapshot();
+
+      if (_builtinsInstalled)
+        for (Iterator i = _image.symbolNames(); i.hasNext();)
+          {
+            Symbol symbol = (Symbol)_symbolTable.get(i.next());
+            if (symbol != null)
+              _image.install(symbol);
+          }
+    }
+
+  /**
+   * Installs all the built-in symbols and type definitions that have not been looked
+   * up yet.
+   */
+  private final void _installBuiltins ()
+    {
+      if (!_builtinsInstalled)
+        return;
+
+      for (Iterator i = _builtinSymbols.keySet().iterator(); i.hasNext();)
+        symbol((String)i.next());
+
+      if (_image == null)
+        return;
+
+      for (Iterator i = _image.symbolNames(); i.hasNext();)
+        symbol((String)i.next());
+
+      for (Iterator i = _image.definitionNames(); i.hasNext();)
+        _typeDefinition((String)i.next());
+    }
+
+  /**
+   * Returns the type definition registered for the specified name, installing it
+   * from the image if needed; or <tt>null</tt> if there is none.
+   */
+  private final TypeDefinition _typeDefinition (String name)
+    {
+      TypeDefinition typeDef = (TypeDefinition)_typeTable.get(name);
+
+      if (typeDef == null && _builtinsInstalled && _image != null && _image.hasDefinition(name))
+        _putType(name,typeDef = _image.definition(name));
+
+      return typeDef;
     }
 
   //\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
 
-  private ArrayList _builtinSymbols = new ArrayList();
+  /**
+   * This associates the name of a symbol to the list of the built-ins defined for it,
+   * in the order they were defined.
+   */
+  private HashMap _builtinSymbols = new HashMap();
   private ArrayList _builtinTypeDefinitions = new ArrayList();
 
-  private final void _redefineBuiltins () throws DuplicateCodeEntryException, TypeDefinitionException
+  /**
+   * This is <tt>true</tt> iff the built-in symbols are in the tables; namely, a symbol
+   * that is not in the tables yet is to be installed with its built-ins, if any, as
+   * soon as its name is looked up. This is so unless the tables were cleared and not
+   * reset since.
+   */
+  private boolean _builtinsInstalled = true;
+
+  /**
+   * Returns the list of the built-ins defined for the symbol of the specified name.
+   */
+  private final ArrayList _builtinDefinitions (String name)
     {
-      for (Iterator i = _builtinSymbols.iterator(); i.hasNext();)
+      ArrayList definitions = (ArrayList)_builtinSymbols.get(name);
+
+      if (definitions == null)
+        _builtinSymbols.put(name,definitions = new ArrayList());
+
+      return definitions;
+    }
+
+  /**
+   * Installs in the specified new symbol the built-ins defined for its name, first
+   * from the image, if any, then those defined with <tt>defineBuiltIn</tt>.
+   */
+  private final void _installBuiltins (Symbol symbol)
+    {
+      TypingContext previous = _context.enter();
+
+      try
         {
-          BuiltinDefinition bid = (BuiltinDefinition)i.next();
-          symbol(bid.name).defineBuiltIn(bid.type,bid.instruction);
+          if (_image != null)
+            _image.install(symbol);
+
+          ArrayList definitions = (ArrayList)_builtinSymbols.get(symbol.name());
+
+          if (definitions != null)
+            for (int i=0; i<definitions.size(); i++)
+              {
+                BuiltinDefinition bid = (BuiltinDefinition)definitions.get(i);
+                symbol.defineBuiltIn(bid.type,bid.instruction);
+              }
         }
+      finally
+        {
+          _context.leave(previous);
+        }
+    }
+
+  /**
+   * Since the symbol table is empty, this amounts to having the built-in symbols
+   * installed as they are looked up, and redefining the built-in types.
+   */
+  private final void _redefineBuiltins () throws DuplicateCodeEntryException, TypeDefinitionException
+    {
+      _builtinsInstalled = true;
+
       for (Iterator i =  _builtinTypeDefinitions.iterator(); i.hasNext();)
         {
           BuiltinTypeDefinition bid = (BuiltinTypeDefinition)i.next();
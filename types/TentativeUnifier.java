@@ -0,0 +1,199 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.util.IdentityHashMap;
+
+/**
+ * A <tt>TentativeUnifier</tt> tells whether two types may unify without unifying
+ * them: it does not bind, compress, or curry anything in the types, and so needs no
+ * trailing; instead, it records the bindings it assumes for type parameters in a
+ * scratch table that is discarded after each test. This is used to weed out, before
+ * pushing a choice point, the code entries of a global whose types cannot unify with
+ * the global's current type, which would otherwise each cost a full retry (see <a
+ * href="GlobalTypingGoal.html"><tt>GlobalTypingGoal</tt></a>).
+ * <p>
+ * The test is conservative: it may answer <tt>true</tt> for types that do not unify
+ * (it does no occurs-check, does not model currying between function types of distinct
+ * arities, nor the finer points of named tuples and opaque tuple types), but never
+ * answers <tt>false</tt> for types that do. To guarantee termination without an
+ * occurs-check, it also answers <tt>true</tt> after exploring more than a fixed number
+ * of pairs of subterms.
+ */
+final class TentativeUnifier
+{
+  /**
+   * The maximum number of pairs of subterms explored by a test.
+   */
+  private static final int _MAX_STEPS = 1000;
+
+  /**
+   * The scratch bindings assumed for type parameters.
+   */
+  private final IdentityHashMap<Type,Type> _bindings = new IdentityHashMap<Type,Type>();
+
+  private int _steps;
+
+  /**
+   * Returns <tt>false</tt> only if the specified types cannot unify given the current
+   * bindings of their type parameters.
+   */
+  final boolean mayUnify (Type t1, Type t2)
+    {
+      _steps = 0;
+
+      try
+        {
+          return _mayUnify(t1,t2);
+        }
+      finally
+        {
+          _bindings.clear();
+        }
+    }
+
+  /**
+   * Returns the value of the specified type, taking into account both its actual
+   * bindings and the scratch bindings.
+   */
+  private final Type _value (Type type)
+    {
+      type = type.value();
+
+      Type binding;
+      while (type.kind() == Type.PARAMETER && (binding = _bindings.get(type)) != null)
+        type = binding.value();
+
+      return type;
+    }
+
+  private final boolean _mayUnify (Type t1, Type t2)
+    {
+      if (++_steps > _MAX_STEPS)
+        return true;
+
+      t1 = _value(t1);
+      t2 = _value(t2);
+
+      if (t1 == t2)
+        return true;
+
+      if (t1.kind() == Type.PARAMETER)
+        {
+          _bindings.put(t1,t2);
+          return true;
+        }
+
+      if (t2.kind() == Type.PARAMETER)
+        {
+          _bindings.put(t2,t1);
+          return true;
+        }
+
+      switch (t1.kind())
+        {
+        case Type.CONSTANT:
+          if (t2.kind() == Type.BOXABLE)
+            return _mayUnify(t1,((BoxableTypeConstant)t2).type());
+          return t2.kind() == Type.CONSTANT && ((NamedType)t1).name() == ((NamedType)t2).name();
+
+        case Type.BOXABLE:
+          if (t2.kind() == Type.BOXABLE)
+            return _mayUnify(((BoxableTypeConstant)t1).type(),((BoxableTypeConstant)t2).type());
+          if (t2.kind() == Type.CONSTANT)
+            return _mayUnify(((BoxableTypeConstant)t1).type(),t2);
+          return false;
+
+        case Type.FUNCTION:
+          {
+            if (t2.kind() != Type.FUNCTION)
+              return false;
+
+            FunctionType f1 = (FunctionType)t1;
+            FunctionType f2 = (FunctionType)t2;
+
+            if (f1.arity() != f2.arity())
+              return !f1.noCurrying() && !f2.noCurrying();
+
+            for (int i=0; i<f1.arity(); i++)
+              if (!_mayUnify(f1.domain(i),f2.domain(i)))
+                return false;
+
+            return _mayUnify(f1.range(),f2.range());
+          }
+
+        case Type.ARRAY:
+          return t2.kind() == Type.ARRAY
+              && _mayUnify(((ArrayType)t1).baseType(),((ArrayType)t2).baseType())
+              && _mayUnify(((ArrayType)t1).indexSetType(),((ArrayType)t2).indexSetType());
+
+        case Type.SET:
+        case Type.BAG:
+        case Type.LIST:
+          return t2.kind() == t1.kind()
+              && _mayUnify(((CollectionType)t1).baseType(),((CollectionType)t2).baseType());
+
+        case Type.COLLECTION:
+          return t2.kind() == Type.COLLECTION
+              && ((NamedType)t1).name() == ((NamedType)t2).name()
+              && _mayUnify(((CollectionTypeConstant)t1).baseType(),
+                           ((CollectionTypeConstant)t2).baseType());
+
+        case Type.TUPLE:
+          {
+            if (t2.kind() == Type.NAMED_TUPLE
+                || t2.kind() == Type.DEFINED && TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES)
+              return true;
+
+            if (t2.kind() != Type.TUPLE)
+              return false;
+
+            TupleType u1 = (TupleType)t1;
+            TupleType u2 = (TupleType)t2;
+
+            if (u1.dimension() != u2.dimension())
+              return false;
+
+            for (int i=0; i<u1.dimension(); i++)
+              if (!_mayUnify(u1.component(i),u2.component(i)))
+                return false;
+
+            return true;
+          }
+
+        case Type.NAMED_TUPLE:
+          return t2.kind() == Type.TUPLE || t2.kind() == Type.NAMED_TUPLE
+              || t2.kind() == Type.DEFINED && TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES;
+
+        case Type.DEFINED:
+          // defined types unify through their definitions, which need not depend on
+          // all their arguments:
+          if (t2.kind() == Type.DEFINED)
+            return ((NamedType)t1).name() == ((NamedType)t2).name();
+          return (t2.kind() == Type.TUPLE || t2.kind() == Type.NAMED_TUPLE)
+              && TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES;
+
+        case Type.CLASS:
+          {
+            if (t2.kind() != Type.CLASS)
+              return false;
+
+            TypeTerm a1 = (TypeTerm)t1;
+            TypeTerm a2 = (TypeTerm)t2;
+
+            if (a1.name() != a2.name() || a1.arity() != a2.arity())
+              return false;
+
+            for (int i=0; i<a1.arity(); i++)
+              if (!_mayUnify(a1.argument(i),a2.argument(i)))
+                return false;
+
+            return true;
+          }
+        }
+
+      return true;
+    }
+}
@@ -18,16 +18,12 @@ package hlt.language.design.types;
 abstract public class TimeStamp
 {
   /**
-   * This static field records temporal precedence of the creation of time stamps.
-   */
-  private static long _TIME_STAMP = 0;
-
-  /**
-   * Resets the temporal origin of time stamping to 0 for all time-stamped objects.
+   * Resets the temporal origin of time stamping to 0 for all time-stamped objects
+   * of the current <a href="TypingContext.html"><tt>TypingContext</tt></a>.
    */
   static final void reset ()
     {
-      _TIME_STAMP = 0;
+      TypingContext.current().resetTimeStamps();
     }
 
   /**
@@ -40,7 +36,7 @@ abstract public class TimeStamp
   /**
    * The time stamp of this object.
    */
-  private long _timeStamp = _TIME_STAMP++;
+  private long _timeStamp = TypingContext.current().newTimeStamp();
 
   /**
    * Returns the time stamp of this object.
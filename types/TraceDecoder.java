@@ -0,0 +1,167 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A <tt>TraceDecoder</tt> renders as text the binary events dumped by a <a href="TraceRecorder.html">
+ * <tt>TraceRecorder</tt></a>, one per line, in the manner of the textual tracing of a
+ * <a href="TypeChecker.html"><tt>TypeChecker</tt></a>. Each line starts with the time
+ * elapsed since the first event rendered, in microseconds. It may be run on a dump file:
+ * <pre>
+ * java hlt.language.design.types.TraceDecoder <i>file</i>
+ * </pre>
+ */
+public class TraceDecoder
+{
+  public static void main (String[] args) throws IOException
+    {
+      if (args.length != 1)
+        {
+          System.err.println("Usage: java hlt.language.design.types.TraceDecoder <file>");
+          System.exit(1);
+        }
+
+      InputStream in = new BufferedInputStream(new FileInputStream(args[0]));
+
+      try
+        {
+          System.out.print(render(in));
+        }
+      finally
+        {
+          in.close();
+        }
+    }
+
+  /**
+   * Reads a dump from the specified stream and returns it rendered as text.
+   */
+  public static final String render (InputStream stream) throws IOException
+    {
+      DataInputStream in = new DataInputStream(stream);
+
+      if (in.readInt() != TraceRecorder.MAGIC)
+        throw new IOException("not a typechecker trace dump");
+
+      int version = in.readInt();
+      if (version != TraceRecorder.VERSION)
+        throw new IOException("unsupported trace dump version: "+version);
+
+      int eventSize = in.readInt();
+      long count = in.readLong();
+
+      String[] strings = new String[in.readInt()];
+      for (int i=0; i<strings.length; i++)
+        strings[i] = in.readUTF();
+
+      int size = in.readInt();
+
+      StringBuilder buf = new StringBuilder();
+      buf.append("(").append(size).append(" latest of ").append(count).append(" events)\n");
+
+      long origin = 0;
+      byte[] skipped = new byte[Math.max(0,eventSize-TraceRecorder.EVENT_SIZE)];
+
+      for (int i=0; i<size; i++)
+        {
+          long time     = in.readLong();
+          short kind    = in.readShort();
+          short goal    = in.readShort();
+          int symbol    = in.readInt();
+          long stamp    = in.readLong();
+          int arg1      = in.readInt();
+          int arg2      = in.readInt();
+          in.readFully(skipped);
+
+          if (i == 0) origin = time;
+
+          buf.append(String.format("[%12.3f] ",(time-origin)/1000.0));
+          _render(buf,kind,_goal(strings,goal,symbol,stamp),stamp,arg1,arg2);
+          buf.append("\n");
+        }
+
+      return buf.toString();
+    }
+
+  private static final String _goal (String[] strings, short goal, int symbol, long stamp)
+    {
+      if (goal < 0)
+        return "Goal " + stamp;
+
+      return "Goal " + stamp + " (" + strings[goal]
+           + (symbol < 0 ? "" : ": " + strings[symbol]) + ")";
+    }
+
+  private static final void _render (StringBuilder buf, short kind, String goal, long stamp,
+                                     int arg1, int arg2)
+    {
+      switch (kind)
+        {
+        case TraceRecorder.GOAL_PUSHED:
+          buf.append("Pushing ").append(goal).append(" [goal stack: ").append(arg1).append("]");
+          return;
+
+        case TraceRecorder.GOAL_POPPED:
+          buf.append("Currently attempting ==> ").append(goal)
+             .append(" [trail: ").append(arg1).append(", goal trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.GOAL_SUCCEEDED:
+          buf.append(goal).append(" succeeded; proceeding...")
+             .append(" [trail: ").append(arg1).append(", goal trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.GOAL_FAILED:
+          buf.append(goal).append(" failed")
+             .append(" [trail: ").append(arg1).append(", goal trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.BIND:
+          buf.append("Binding #").append(Integer.toHexString(arg1))
+             .append(" [trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.UNWIND:
+          buf.append("Unwinding trail from ").append(arg1).append(" to ").append(arg2);
+          return;
+
+        case TraceRecorder.CHOICE_POINT_PUSHED:
+          buf.append("Pushing choice point ").append(stamp)
+             .append(" [choice points: ").append(arg1).append(", trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.CHOICE_POINT_POPPED:
+          buf.append("Popping choice point [choice points: ").append(arg1).append("]");
+          return;
+
+        case TraceRecorder.BACKTRACK:
+          buf.append("Retrying Goal ").append(stamp).append(" ...")
+             .append(" [trail: ").append(arg1).append(", goal trail: ").append(arg2).append("]");
+          return;
+
+        case TraceRecorder.SKIP:
+          buf.append("Skipping choice point ").append(stamp)
+             .append(" ... [conflict point: ").append(arg1).append("]");
+          return;
+
+        case TraceRecorder.CUT_POINT_PUSHED:
+          buf.append("Pushing cut point [cut points: ").append(arg1).append("]");
+          return;
+
+        case TraceRecorder.CUT_POINT_UNDONE:
+          buf.append("Undoing cut point [cut points: ").append(arg1).append("]");
+          return;
+
+        default:
+          buf.append("Unknown event ").append(kind);
+        }
+    }
+}
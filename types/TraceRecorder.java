@@ -0,0 +1,371 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * A <tt>TraceRecorder</tt> records the steps of a <a href="TypeChecker.html"><tt>TypeChecker</tt></a>
+ * it is given to (see <tt>TypeChecker.setTraceRecorder</tt>) as compact binary events in
+ * a fixed-size ring buffer allocated off the heap. Unlike the textual tracing of the
+ * typechecker (see <tt>TypeChecker.setTracing</tt>), which renders its whole state and
+ * prints it at each step, recording an event only costs writing 32 bytes, and so may be
+ * left on in production: when a typing error looks wrong, the last events recorded may
+ * be dumped (see <tt>dump</tt>) and rendered offline as text by a <a href="TraceDecoder.html">
+ * <tt>TraceDecoder</tt></a>.
+ * <p>
+ * Each event is laid out as follows:
+ * <pre>
+ *  0  long   time (as per <tt>System.nanoTime()</tt>)
+ *  8  short  kind of event
+ * 10  short  index of the goal class name in the string table, or -1
+ * 12  int    index of the goal symbol name in the string table, or -1
+ * 16  long   goal or choice point time stamp, or -1
+ * 24  int    first argument
+ * 28  int    second argument
+ * </pre>
+ * The arguments depend on the kind of event as documented for each kind. Goal classes and
+ * symbol names are recorded as indices in string tables that grow as they are first met.
+ * There are only so many goal classes; but so that the table of symbol names stays bounded
+ * however long the recorder is left on, it is compacted down to the names of the events
+ * still kept whenever it grows to twice the capacity of the ring.
+ * <p>
+ * <b>NB:</b> A <tt>TraceRecorder</tt> is meant to be written by the single thread running
+ * its typechecker; it should be dumped by that same thread.
+ */
+public class TraceRecorder
+{
+  /**
+   * The goal was pushed on the goal stack; the first argument is the new size of the
+   * goal stack.
+   */
+  public static final short GOAL_PUSHED = 1;
+
+  /**
+   * The goal was popped from the goal stack to be proven; the arguments are the effect
+   * and goal trail points.
+   */
+  public static final short GOAL_POPPED = 2;
+
+  /**
+   * The goal was proven; the arguments are the effect and goal trail points.
+   */
+  public static final short GOAL_SUCCEEDED = 3;
+
+  /**
+   * The goal failed; the arguments are the effect and goal trail points.
+   */
+  public static final short GOAL_FAILED = 4;
+
+  /**
+   * A bindable object was bound; the first argument is its identity hash code and the
+   * second the effect trail point.
+   */
+  public static final short BIND = 5;
+
+  /**
+   * The effect trail was unwound; the arguments are the trail points from and to which
+   * it was unwound.
+   */
+  public static final short UNWIND = 6;
+
+  /**
+   * A choice point with the recorded time stamp was pushed; the arguments are the new
+   * size of the choice-point stack and the effect trail point.
+   */
+  public static final short CHOICE_POINT_PUSHED = 7;
+
+  /**
+   * The latest choice point was popped; the first argument is the new size of the
+   * choice-point stack.
+   */
+  public static final short CHOICE_POINT_POPPED = 8;
+
+  /**
+   * The typechecker backtracked to the choice point with the recorded time stamp;
+   * the arguments are the effect and goal trail points before unwinding.
+   */
+  public static final short BACKTRACK = 9;
+
+  /**
+   * The choice point with the recorded time stamp was skipped by backjumping; the
+   * first argument is the conflict point.
+   */
+  public static final short SKIP = 10;
+
+  /**
+   * A cut point was pushed; the first argument is the new size of the cut-point stack.
+   */
+  public static final short CUT_POINT_PUSHED = 11;
+
+  /**
+   * The latest cut point was undone; the first argument is the new size of the cut-point
+   * stack.
+   */
+  public static final short CUT_POINT_UNDONE = 12;
+
+  /**
+   * The size in bytes of an event.
+   */
+  public static final int EVENT_SIZE = 32;
+
+  /**
+   * The magic number heading a dump.
+   */
+  static final int MAGIC = 0x484C5454;
+
+  /**
+   * The version of the dump format.
+   */
+  static final int VERSION = 1;
+
+  private final ByteBuffer _buffer;
+  private final int _mask;
+
+  /**
+   * The number of events recorded so far.
+   */
+  private long _count = 0;
+
+  /**
+   * The names of the goal classes, and their indices in this list.
+   */
+  private final ArrayList<String> _classes = new ArrayList<String>();
+  private final IdentityHashMap<Class<?>,Integer> _classIndices = new IdentityHashMap<Class<?>,Integer>();
+
+  /**
+   * The names of the symbols, and their indices in this list.
+   */
+  private final ArrayList<String> _names = new ArrayList<String>();
+  private final HashMap<String,Integer> _nameIndices = new HashMap<String,Integer>();
+
+  /**
+   * Constructs a recorder keeping at least the specified number of latest events
+   * (rounded up to a power of 2).
+   */
+  public TraceRecorder (int capacity)
+    {
+      int size = Integer.highestOneBit(Math.max(1,capacity-1)) << 1;
+      _buffer = ByteBuffer.allocateDirect(size*EVENT_SIZE);
+      _mask = size-1;
+    }
+
+  /**
+   * Constructs a recorder keeping the 65536 latest events (2MB).
+   */
+  public TraceRecorder ()
+    {
+      this(1 << 16);
+    }
+
+  /**
+   * Returns the maximum number of events kept by this recorder.
+   */
+  public final int capacity ()
+    {
+      return _mask+1;
+    }
+
+  /**
+   * Returns the number of events recorded so far (including those no longer kept).
+   */
+  public final long count ()
+    {
+      return _count;
+    }
+
+  /**
+   * Forgets all the events recorded so far.
+   */
+  public final void clear ()
+    {
+      _count = 0;
+      _names.clear();
+      _nameIndices.clear();
+    }
+
+  //\\//\\//\\//\\ Recording
+
+  final void record (short kind, long stamp, int arg1, int arg2)
+    {
+      _record(kind,-1,-1,stamp,arg1,arg2);
+    }
+
+  final void record (short kind, Goal goal, int arg1, int arg2)
+    {
+      _record(kind,
+              _classIndex(goal.getClass()),
+              goal instanceof GlobalTypingGoal
+                ? _nameIndex(((GlobalTypingGoal)goal).global().symbol().name())
+                : -1,
+              goal.timeStamp(),
+              arg1,arg2);
+    }
+
+  private final void _record (short kind, int goalKind, int symbol, long stamp, int arg1, int arg2)
+    {
+      int offset = (int)(_count++ & _mask) * EVENT_SIZE;
+
+      _buffer.putLong(offset,System.nanoTime());
+      _buffer.putShort(offset+8,kind);
+      _buffer.putShort(offset+10,(short)goalKind);
+      _buffer.putInt(offset+12,symbol);
+      _buffer.putLong(offset+16,stamp);
+      _buffer.putInt(offset+24,arg1);
+      _buffer.putInt(offset+28,arg2);
+    }
+
+  /**
+   * Returns the index of the specified goal class in the table of goal classes,
+   * giving it one if it has none.
+   */
+  private final int _classIndex (Class<?> goalClass)
+    {
+      Integer index = _classIndices.get(goalClass);
+
+      if (index == null)
+        {
+          _classIndices.put(goalClass,index = Integer.valueOf(_classes.size()));
+          _classes.add(goalClass.getSimpleName());
+        }
+
+      return index.intValue();
+    }
+
+  /**
+   * Returns the index of the specified symbol name in the table of symbol names,
+   * giving it one if it has none (after compacting the table if it is full).
+   */
+  private final int _nameIndex (String name)
+    {
+      Integer index = _nameIndices.get(name);
+
+      if (index == null)
+        {
+          if (_names.size() >= 2*capacity())
+            _compactNames();
+
+          _nameIndices.put(name,index = Integer.valueOf(_names.size()));
+          _names.add(name);
+        }
+
+      return index.intValue();
+    }
+
+  /**
+   * Rebuilds the table of symbol names with only the names of the events kept, and
+   * renumbers these events' names accordingly. Since each event has at most one name,
+   * at most half the table is then used.
+   */
+  private final void _compactNames ()
+    {
+      ArrayList<String> names = new ArrayList<String>();
+      _nameIndices.clear();
+
+      for (long i=Math.max(0,_count-capacity()); i<_count; i++)
+        {
+          int offset = (int)(i & _mask) * EVENT_SIZE;
+          int symbol = _buffer.getInt(offset+12);
+
+          if (symbol >= 0)
+            {
+              String name = _names.get(symbol);
+              Integer index = _nameIndices.get(name);
+
+              if (index == null)
+                {
+                  _nameIndices.put(name,index = Integer.valueOf(names.size()));
+                  names.add(name);
+                }
+
+              _buffer.putInt(offset+12,index.intValue());
+            }
+        }
+
+      _names.clear();
+      _names.addAll(names);
+    }
+
+  //\\//\\//\\//\\ Dumping
+
+  /**
+   * Writes the specified number of latest events kept by this recorder (or all of them,
+   * if fewer) to the specified stream, oldest first, in the format read by <a href="TraceDecoder.html">
+   * <tt>TraceDecoder</tt></a>: the magic number, the format version, the event size, the
+   * total number of events recorded, the string table (its size followed by its strings),
+   * the number of events dumped, and the events. The string table is made of the goal
+   * class names followed by the symbol names, the indices of which are shifted accordingly
+   * in the events dumped.
+   */
+  public final void dump (OutputStream stream, int n) throws IOException
+    {
+      DataOutputStream out = new DataOutputStream(stream);
+
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(EVENT_SIZE);
+      out.writeLong(_count);
+
+      out.writeInt(_classes.size()+_names.size());
+      for (int i=0; i<_classes.size(); i++)
+        out.writeUTF(_classes.get(i));
+      for (int i=0; i<_names.size(); i++)
+        out.writeUTF(_names.get(i));
+
+      int size = (int)Math.min(Math.min(n,_count),capacity());
+      out.writeInt(size);
+
+      byte[] event = new byte[EVENT_SIZE];
+      for (long i=_count-size; i<_count; i++)
+        {
+          int offset = (int)(i & _mask) * EVENT_SIZE;
+          for (int j=0; j<EVENT_SIZE; j++)
+            event[j] = _buffer.get(offset+j);
+
+          int symbol = _buffer.getInt(offset+12);
+          if (symbol >= 0)
+            ByteBuffer.wrap(event).putInt(12,_classes.size()+symbol);
+
+          out.write(event);
+        }
+
+      out.flush();
+    }
+
+  /**
+   * Writes all the events kept by this recorder to the specified stream (see
+   * <tt>dump(OutputStream,int)</tt>).
+   */
+  public final void dump (OutputStream stream) throws IOException
+    {
+      dump(stream,capacity());
+    }
+
+  /**
+   * Returns the specified number of latest events kept by this recorder rendered as text
+   * by a <a href="TraceDecoder.html"><tt>TraceDecoder</tt></a>.
+   */
+  public final String render (int n)
+    {
+      try
+        {
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          dump(out,n);
+          return TraceDecoder.render(new ByteArrayInputStream(out.toByteArray()));
+        }
+      catch (IOException e)
+        {
+          throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.kernel.Application;
+import hlt.language.design.kernel.Expression;
+
+import hlt.language.util.Stack;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * A <tt>Trail</tt> gathers in one structure all the effects that a <a
+ * href="TypeChecker.html"><tt>TypeChecker</tt></a> must be able to undo
+ * upon backtracking. It consists of two parts:
+ *
+ * <ul>
+ * <li> an <i>effect trail</i> recording, in chronological order, type
+ *      variable (and boxing mask) bindings, type variable binding chain
+ *      compressions, function type currying, and application currying;<p>
+ * <li> a <i>goal trail</i> recording the <a href="Goal.html"><tt>Goal</tt></a>s
+ *      that have been proven and must be proven anew upon backtracking.
+ * </ul>
+ *
+ * Rather than using generic stacks of loose objects, the effect trail is
+ * laid out as a pair of parallel preallocated arrays: an array of cells,
+ * and an array of tags. An entry occupies 1 (binding), 2 (compression), 3
+ * (application currying), or 4 (function type currying) consecutive cells, and its tag
+ * is recorded at the index of its topmost cell. A trail point is thus
+ * simply the <tt>int</tt> index of the top of the cell array, and
+ * unwinding down to such a point is done in one loop dispatching on the
+ * tag of each entry met on the way down.
+ */
+final class Trail
+{
+  /**
+   * The tag of an entry recording a <a href="Bindable.html"><tt>Bindable</tt></a>
+   * to unbind.
+   */
+  static final byte BINDING = 0;
+
+  /**
+   * The tag of an entry recording a <a href="FunctionType.html"><tt>FunctionType</tt></a>
+   * with its domains, range, and boxing mask before currying.
+   */
+  static final byte FUNCTION_CURRYING = 1;
+
+  /**
+   * The tag of an entry recording an <a href="../kernel/Application.html">
+   * <tt>Application</tt></a> with its function and arguments before currying.
+   */
+  static final byte APPLICATION_CURRYING = 2;
+
+  /**
+   * The tag of an entry recording a <a href="TypeParameter.html"><tt>TypeParameter</tt></a>
+   * with the type it was bound to before its binding chain was compressed.
+   */
+  static final byte COMPRESSION = 3;
+
+  private static final int _INITIAL_CAPACITY = 256;
+
+  private Object[] _cells = new Object[_INITIAL_CAPACITY];
+  private byte[] _tags = new byte[_INITIAL_CAPACITY];
+  private int _top = 0;
+
+  private Goal[] _goals = new Goal[_INITIAL_CAPACITY];
+  private int _goalTop = 0;
+
+  /**
+   * Returns the current effect trail point.
+   */
+  final int point ()
+    {
+      return _top;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff the effect trail is empty.
+   */
+  final boolean isEmpty ()
+    {
+      return _top == 0;
+    }
+
+  /**
+   * Makes sure that there is room for <tt>n</tt> more cells on the effect trail.
+   */
+  private final void _ensureCapacity (int n)
+    {
+      if (_top + n <= _cells.length)
+        return;
+
+      int capacity = Math.max(2*_cells.length,_top+n);
+
+      Object[] cells = new Object[capacity];
+      System.arraycopy(_cells,0,cells,0,_top);
+      _cells = cells;
+
+      byte[] tags = new byte[capacity];
+      System.arraycopy(_tags,0,tags,0,_top);
+      _tags = tags;
+    }
+
+  /**
+   * Records the specified <tt>Bindable</tt> to be unbound upon unwinding.
+   */
+  final void push (Bindable bindable)
+    {
+      _ensureCapacity(1);
+      _cells[_top] = bindable;
+      _tags[_top++] = BINDING;
+    }
+
+  /**
+   * Records the specified type parameter with the type it is bound to, before its
+   * binding chain gets compressed.
+   */
+  final void push (TypeParameter parameter, Type value)
+    {
+      _ensureCapacity(2);
+      _cells[_top++] = value;
+      _cells[_top] = parameter;
+      _tags[_top++] = COMPRESSION;
+    }
+
+  /**
+   * Records the specified function type with its domains, range, and mask, as
+   * they were before currying.
+   */
+  final void push (FunctionType type, Type[] domains, Type range, BoxingMask mask)
+    {
+      _ensureCapacity(4);
+      _cells[_top++] = mask;
+      _cells[_top++] = range;
+      _cells[_top++] = domains;
+      _cells[_top] = type;
+      _tags[_top++] = FUNCTION_CURRYING;
+    }
+
+  /**
+   * Records the specified application with its function and arguments, as they
+   * were before currying.
+   */
+  final void push (Application application, Expression function, Expression[] arguments)
+    {
+      _ensureCapacity(3);
+      _cells[_top++] = arguments;
+      _cells[_top++] = function;
+      _cells[_top] = application;
+      _tags[_top++] = APPLICATION_CURRYING;
+    }
+
+  /**
+   * Undoes all the effects recorded on the effect trail above the specified point,
+   * latest first.
+   */
+  final void unwind (int point)
+    {
+      int top = _top;
+
+      while (top > point)
+        top = _undo(top);
+
+      _top = top;
+    }
+
+  /**
+   * Undoes the effect recorded by the entry right below the specified point, and
+   * returns the point right below this entry.
+   */
+  private final int _undo (int top)
+    {
+      Object[] cells = _cells;
+
+      switch (_tags[--top])
+        {
+        case BINDING:
+          ((Bindable)cells[top]).unbind();
+          cells[top] = null;
+          break;
+
+        case FUNCTION_CURRYING:
+          {
+            FunctionType type = (FunctionType)cells[top];
+            type.setDomains((Type[])cells[top-1]);
+            type.setRange((Type)cells[top-2]);
+            type.setMask((BoxingMask)cells[top-3]);
+            cells[top] = cells[top-1] = cells[top-2] = cells[top-3] = null;
+            top -= 3;
+            break;
+          }
+
+        case APPLICATION_CURRYING:
+          {
+            Application application = (Application)cells[top];
+            application.setFunction((Expression)cells[top-1]);
+            application.setArguments((Expression[])cells[top-2]);
+            cells[top] = cells[top-1] = cells[top-2] = null;
+            top -= 2;
+            break;
+          }
+
+        case COMPRESSION:
+          ((TypeParameter)cells[top]).setValueRef((Type)cells[top-1]);
+          cells[top] = cells[top-1] = null;
+          top--;
+        }
+
+      return top;
+    }
+
+  /**
+   * Undoes all the effects recorded on the effect trail above the specified point,
+   * latest first, except those recorded within the specified spans, which are kept
+   * and moved down, in their original order, right above the point. The spans are
+   * given as pairs of start and end points; they must be disjoint, above the point,
+   * and in decreasing order. Returns the new effect trail point.
+   */
+  final int unwindKeeping (int point, int[] spans)
+    {
+      int top = _top;
+      int span = 0;
+
+      while (top > point)
+        if (span < spans.length && top == spans[span+1])
+          {
+            top = spans[span];
+            span += 2;
+          }
+        else
+          top = _undo(top);
+
+      int newTop = point;
+      for (span=spans.length; (span-=2) >= 0;)
+        for (int i=spans[span]; i<spans[span+1]; i++)
+          {
+            _cells[newTop] = _cells[i];
+            _tags[newTop++] = _tags[i];
+          }
+
+      for (int i=newTop; i<_top; i++)
+        _cells[i] = null;
+
+      return _top = newTop;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff all the entries between the specified points of the
+   * effect trail record either the binding of a type parameter that has no residuated
+   * goals, or the compression of a binding chain.
+   */
+  final boolean bindsOnlyParameters (int start, int end)
+    {
+      for (int top=end; top-->start;)
+        switch (_tags[top])
+          {
+          case BINDING:
+            if (!(_cells[top] instanceof TypeParameter)
+                || ((TypeParameter)_cells[top]).residuations() != null)
+              return false;
+            break;
+
+          case COMPRESSION:
+            top--;
+            break;
+
+          default:
+            return false;
+          }
+
+      return true;
+    }
+
+  /**
+   * Undoes all the effects recorded on the effect trail.
+   */
+  final void unwind ()
+    {
+      unwind(0);
+    }
+
+  /**
+   * Returns the index of the latest entry on the effect trail below the specified
+   * point that records either the binding or compression of a type parameter, or
+   * the currying of a function type, contained in the specified table; or -1 if
+   * there is none.
+   * Boxing mask bindings and application currying are not considered since they
+   * have no bearing on the outcome of a unification.
+   */
+  final int latestEntry (IdentityHashMap<Type,Type> types, int point)
+    {
+      for (int top=point; top-->0;)
+        switch (_tags[top])
+          {
+          case BINDING:
+            if (types.containsKey(_cells[top]))
+              return top;
+            break;
+
+          case FUNCTION_CURRYING:
+            if (types.containsKey(_cells[top]))
+              return top;
+            top -= 3;
+            break;
+
+          case APPLICATION_CURRYING:
+            top -= 2;
+            break;
+
+          case COMPRESSION:
+            if (types.containsKey(_cells[top]))
+              return top;
+            top--;
+          }
+
+      return -1;
+    }
+
+  /**
+   * Returns the list of the types that the type parameters whose binding chains were
+   * compressed above the specified point of the effect trail were previously bound to.
+   */
+  final ArrayList<Type> compressedValuesAbove (int point)
+    {
+      ArrayList<Type> values = new ArrayList<Type>();
+
+      for (int top=_top; top-->point;)
+        switch (_tags[top])
+          {
+          case FUNCTION_CURRYING:
+            top -= 3;
+            break;
+
+          case APPLICATION_CURRYING:
+            top -= 2;
+            break;
+
+          case COMPRESSION:
+            values.add((Type)_cells[--top]);
+          }
+
+      return values;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff a type parameter bound above the specified point of
+   * the effect trail has residuated goals attached to it (which may have been
+   * released by this binding).
+   */
+  final boolean hasResiduationsAbove (int point)
+    {
+      for (int top=_top; top-->point;)
+        switch (_tags[top])
+          {
+          case BINDING:
+            if (_cells[top] instanceof TypeParameter
+                && ((TypeParameter)_cells[top]).residuations() != null)
+              return true;
+            break;
+
+          case FUNCTION_CURRYING:
+            top -= 3;
+            break;
+
+          case APPLICATION_CURRYING:
+            top -= 2;
+            break;
+
+          case COMPRESSION:
+            top--;
+          }
+
+      return false;
+    }
+
+  //\\//\\//\\//\\ Goal trail
+
+  /**
+   * Returns the current goal trail point.
+   */
+  final int goalPoint ()
+    {
+      return _goalTop;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff the goal trail is empty.
+   */
+  final boolean noGoals ()
+    {
+      return _goalTop == 0;
+    }
+
+  /**
+   * Records the specified goal on the goal trail.
+   */
+  final void pushGoal (Goal goal)
+    {
+      if (_goalTop == _goals.length)
+        {
+          Goal[] goals = new Goal[2*_goals.length];
+          System.arraycopy(_goals,0,goals,0,_goalTop);
+          _goals = goals;
+        }
+
+      _goals[_goalTop++] = goal;
+    }
+
+  /**
+   * Returns the latest goal on the goal trail.
+   */
+  final Goal peekGoal ()
+    {
+      return _goals[_goalTop-1];
+    }
+
+  /**
+   * Removes and returns the latest goal on the goal trail.
+   */
+  final Goal popGoal ()
+    {
+      Goal goal = _goals[--_goalTop];
+      _goals[_goalTop] = null;
+      return goal;
+    }
+
+  /**
+   * Empties the goal trail.
+   */
+  final void clearGoals ()
+    {
+      while (_goalTop > 0)
+        _goals[--_goalTop] = null;
+    }
+
+  /**
+   * Returns a stack containing the goals on the goal trail. This is only meant
+   * for showing the state of a typechecker when tracing.
+   */
+  final Stack goalStack ()
+    {
+      Stack stack = new Stack();
+
+      for (int i=0; i<_goalTop; i++)
+        stack.push(_goals[i]);
+
+      return stack;
+    }
+}
@@ -102,7 +102,7 @@ public class TupleType extends ConstructedType
 
   public void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       if (TypeChecker.ALLOWS_UNIFYING_OPAQUE_TUPLES && type.kind() == DEFINED)
@@ -123,7 +123,7 @@ public class TupleType extends ConstructedType
             TupleType other = (TupleType)type;
 
             if (other.dimension() != dimension())
-              typeChecker.error(new TypeClashException(this,other));
+              typeChecker.clash(this,other);
 
             for (int i=dimension(); i-->0;)
               {
@@ -141,7 +141,7 @@ public class TupleType extends ConstructedType
               NamedTupleType other = (NamedTupleType)type;
 
               if (other.dimension() != dimension())
-                typeChecker.error(new TypeClashException(this,other));
+                typeChecker.clash(this,other);
 
               for (int i=dimension(); i-->0;)
                 {
@@ -154,7 +154,7 @@ public class TupleType extends ConstructedType
             }
 
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
@@ -204,8 +204,16 @@ public class TupleType extends ConstructedType
       return set;
     }
 
+  final boolean computeSharability ()
+    {
+      return hasSharableComponents();
+    }
+
   public final Type flatten ()
     {
+      if (isSharable())
+        return this;
+
       for (int i=dimension(); i-->0;)
         _components[i] = component(i).flatten();
       return this;
@@ -213,7 +221,7 @@ public class TupleType extends ConstructedType
 
   public Type copy (HashMap parameters)
     {
-      if (dimension() == 0)
+      if (dimension() == 0 || isSharable())
         return this;
 
       Type[] newComponents = new Type[dimension()];
@@ -226,7 +234,7 @@ public class TupleType extends ConstructedType
 
   public Type instantiate (HashMap substitution)
     {
-      if (dimension() == 0)
+      if (dimension() == 0 || isSharable())
         return this;
 
       Type[] newComponents = new Type[dimension()];
@@ -239,6 +247,9 @@ public class TupleType extends ConstructedType
 
   public final int eqCode ()
     {
+      if (isHashConsed())
+        return consCode();
+
       int code =  kind() + dimension();
 
       for (int i=dimension(); i-->0;)
@@ -252,6 +263,9 @@ public class TupleType extends ConstructedType
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof TupleType))
         return false;
 
@@ -272,6 +286,9 @@ public class TupleType extends ConstructedType
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof TupleType))
         return false;
 
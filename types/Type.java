@@ -19,8 +19,6 @@ import hlt.language.design.kernel.Expression;
 import hlt.language.design.kernel.Constant;
 import hlt.language.design.kernel.ParameterStack;
 
-import hlt.language.util.ArrayList;
-
 import hlt.language.tools.Misc;
 
 
@@ -386,14 +384,9 @@ public abstract class Type implements Valuable
         }
     }
 
-  private static ArrayList _dejaVu = new ArrayList();
-
   private static final boolean _isDejaVu (Type type)
     {
-      for (int i=_dejaVu.size(); i-->0;)
-        if (type.isEqualTo((Type)_dejaVu.get(i))) return true;
-      _dejaVu.add(type);
-      return false;
+      return TypingContext.current().isDejaVu(type);
     }       
 
   public boolean isPolymorphic ()
@@ -421,6 +414,17 @@ public abstract class Type implements Valuable
       return this;
     }
 
+  /**
+   * This returns the type value this is bound to and compresses the binding chains
+   * like <tt>findValue()</tt>, but records the compressions in the specified type
+   * checker so that they may be undone upon backtracking (returns itself by default
+   * - overridden by <a href="TypeParameter.html"><tt>TypeParameter</tt></a>).
+   */
+  public Type findValue (TypeChecker typeChecker)
+    {
+      return this;
+    }
+
   /**
    * This is identical to the <tt>value</tt> method but returns a
    * <tt>Valuable</tt> as mandated as it implements this interface.
@@ -674,6 +678,120 @@ public abstract class Type implements Valuable
    */
   abstract public int eqCode ();
 
+  //\\//\\//\\//\\ Sharing
+
+  private static final byte _UNKNOWN_SHARABILITY = 0;
+  private static final byte _SHARABLE = 1;
+  private static final byte _UNSHARABLE = 2;
+
+  /**
+   * The cached sharability of this type.
+   */
+  private byte _sharability = _UNKNOWN_SHARABILITY;
+
+  /**
+   * Returns <tt>true</tt> iff this type may be shared rather than copied by <tt>copy</tt>
+   * and <tt>instantiate</tt>; <i>i.e.</i>, iff it is ground (it contains no type parameter,
+   * bound or not) and none of its parts may ever be modified in place (as boxable type
+   * constants and function types may be). Since the components of a sharable type are
+   * themselves sharable, this can not change, and so it is computed once and cached.
+   */
+  public final boolean isSharable ()
+    {
+      if (_sharability == _UNKNOWN_SHARABILITY)
+        _sharability = isHashConsed() || computeSharability() ? _SHARABLE : _UNSHARABLE;
+
+      return _sharability == _SHARABLE;
+    }
+
+  /**
+   * Computes whether this type is sharable (see <tt>isSharable()</tt>).
+   *
+   * <p><i><b>N.B.:</b> The following definition specifies only the
+   * <b>default</b> behavior for this method. Specific subclasses are
+   * generally expected to override this method.</i>
+   */
+  boolean computeSharability ()
+    {
+      return false;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff all the (undereferenced) components of this type are
+   * sharable.
+   */
+  final boolean hasSharableComponents ()
+    {
+      for (int i=numberOfTypeComponents(); i-->0;)
+        if (!typeRefComponent(i).isSharable())
+          return false;
+
+      return true;
+    }
+
+  //\\//\\//\\//\\ Hash-consing
+
+  /**
+   * The table of ground types wherein this type was hash-consed, if any.
+   */
+  private GroundTypes _consTable;
+
+  /**
+   * The <tt>eqCode</tt> of this type, memoized when it is hash-consed.
+   */
+  private int _consCode;
+
+  /**
+   * Marks this type as the canonical instance of its structure in the specified
+   * table of ground types, memoizing its <tt>eqCode</tt>.
+   */
+  final void setHashConsed (GroundTypes table, int code)
+    {
+      _consTable = table;
+      _consCode = code;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff this type has been hash-consed.
+   */
+  public final boolean isHashConsed ()
+    {
+      return _consTable != null;
+    }
+
+  /**
+   * Returns the memoized <tt>eqCode</tt> of this type, assuming it has been hash-consed.
+   */
+  final int consCode ()
+    {
+      return _consCode;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff this and the specified type are of the same class and
+   * were hash-consed in the same table, in which case they are equal iff they are
+   * identical.
+   */
+  final boolean isConsedWith (Type type)
+    {
+      return _consTable != null
+          && _consTable == type._consTable
+          && getClass() == type.getClass();
+    }
+
+  /**
+   * Returns the canonical instance of this type in the table of ground types shared
+   * by the code entries of all symbols (see <a href="GroundTypes.html"><tt>GroundTypes.SHARED</tt></a>).
+   * <b>NB:</b> this may replace the components of this type by their canonical instances.
+   */
+  final Type hashCons ()
+    {
+      synchronized (GroundTypes.SHARED)
+        {
+          return GroundTypes.SHARED.intern(this);
+        }
+    }
+
   public boolean equals (Object object)
     {
       if (this == object)
@@ -699,56 +817,25 @@ public abstract class Type implements Valuable
    */
   public abstract boolean isEqualTo (Type type, HashMap parameters);
 
-  /**
-   * This is used for printing type parameters as names.
-   */
-  private static final HashMap _names = new HashMap();
-
   /**
    * Returns the name of the given type parameter. This is used only
    * in <a href="TypeParameter.html"><tt>TypeParameter</tt></a> for
    * printing. (The type of the argument is <tt>Type</tt> rather than
    * <tt>TypeParameter</tt> because it is called with the <tt>value()</tt>
-   * method which returns a <tt>Type</tt.)
+   * method which returns a <tt>Type</tt.) Names are kept in the current
+   * <a href="TypingContext.html"><tt>TypingContext</tt></a>.
    */
   protected static final String name (Type v)
     {
-      String name = (String)_names.get(v);
-      if (name==null) _names.put(v,name=_newVarName());
-      return name;
-    }
-
-  /**
-   * A global counter for generating new parameter names.
-   */
-  private static int _varCount = 0;
-
-  /**
-   * Returns a new parameter name. The generated names are, successively,
-   * <tt>A, B, ..., Z, AA, AB, ..., AZ, BA, BB, ..., BZ, ..., </tt>, <i>etc.</i>
-   */
-  private static String _newVarName ()
-    {
-      String s = "";
-
-      int n = _varCount++;
-      do
-        {
-          s = String.valueOf((char)('A'+n%26)) + s;
-          n = n/26-1;
-        }
-      while (n >= 0);
-
-      return s;
+      return TypingContext.current().parameterName(v);
     }
 
   /**
-   * Clears the names of parameters.
+   * Clears the names of parameters in the current typing context.
    */
   public static final void resetNames ()
     {
-      _names.clear();
-      _varCount = 0;
+      TypingContext.current().resetNames();
     }
 
   /**
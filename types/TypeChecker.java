@@ -15,6 +15,7 @@ import hlt.language.design.kernel.Expression;
 import hlt.language.design.kernel.Application;
 import hlt.language.design.kernel.Scope;
 
+import hlt.language.util.ArrayList;
 import hlt.language.util.Locatable;
 import hlt.language.util.ViewableStack;
 import hlt.language.util.Stack;
@@ -24,6 +25,10 @@ import hlt.language.tools.Misc;
 
 import java.util.Iterator;
 import java.util.AbstractList;
+import java.util.IdentityHashMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A <tt>TypeChecker</tt> is a backtracking prover that establishes <a
@@ -70,7 +75,13 @@ import java.util.AbstractList;
  * well as type unification methods to enable recording of any such
  * effect in the appropriate trail. These effects may then be
  * accordingly undone upon backtracking by <i>unwinding</i> the trails
- * back to where the latest choice point indicates.
+ * back to where the latest choice point indicates. Note that as long as
+ * there is neither a choice point nor a cut point, nothing can ever be
+ * undone; therefore, trailing may then be elided altogether (see
+ * <tt>ELIDES_DETERMINISTIC_TRAILING</tt>).
+ * Also, when a unification goal fails, the typechecker does not necessarily
+ * backtrack to the latest choice point, but directly to the latest one that
+ * is actually implicated in the failure (see <tt>BACKJUMPING</tt>).
  *
  * <p>
  *
@@ -79,19 +90,21 @@ import java.util.AbstractList;
  * <ul>
  * <li> a <i>goal stack</i> containing <tt>Goal</tt> objects that
  *      are yet to be proven;<p>
- * <li> a <i>binding trail stack</i> containing type variables and boxing
- *      masks to reset to "unbound" upon backtracking;<p>
- * <li> a <i>function type currying trail</i> containing 4-tuples of
- *      the form (function type, previous domains, previous range, previous
- *      boxing mask) for resetting the function type to the recorded domains,
- *      range, and mask upon backtracking;<p>
- * <li> an <i>application currying trail</i> containing triples of
- *      the form (application type, previous function, previous arguments)
- *      for resetting the application to the recorded function and arguments
- *      upon backtracking;<p>
- * <li> a <i>goal trail</i> containing <tt>Goal</tt> objects that
- *      have been proven since the last choice point, and must be reproven
- *      upon backtracking;<p>
+ * <li> a <a href="Trail.html"><tt>Trail</tt></a> consisting of:
+ *      <p>
+ *      <ul>
+ *      <li> an <i>effect trail</i> containing, in chronological order, type
+ *           variables and boxing masks to reset to "unbound" upon backtracking,
+ *           4-tuples of the form (function type, previous domains, previous
+ *           range, previous boxing mask) for resetting a curryed function type
+ *           to the recorded domains, range, and mask upon backtracking, and
+ *           triples of the form (application type, previous function, previous
+ *           arguments) for resetting a curryed application to the recorded
+ *           function and arguments upon backtracking;
+ *      <li> a <i>goal trail</i> containing <tt>Goal</tt> objects that
+ *           have been proven since the last choice point, and must be reproven
+ *           upon backtracking;
+ *      </ul><p>
  * <li> a <i>choice-point stack</i> whose entries consists of <a href="ChoicePoint.html">
  *      <tt>ChoicePoint</tt></a> objects containing:
  *      <p>
@@ -107,31 +120,196 @@ import java.util.AbstractList;
 public class TypeChecker implements GoalProver
 {
   /**
-   * This is the goal stack - it contains the goals remaining to be proved.
+   * Constructs a typechecker working in a new typing context of its own.
    */
-  private Stack _goalStack = new Stack();
+  public TypeChecker ()
+    {
+      this(new TypingContext());
+    }
+
   /**
-   * This is the choice-point stack - it contains the alternative choices
-   * remaining to be made.
+   * Constructs a typechecker working in the typing context of the specified tables.
    */
-  private Stack _chptStack = new Stack();
+  public TypeChecker (Tables tables)
+    {
+      this(tables.context());
+    }
+
+  /**
+   * Constructs a typechecker working in the specified typing context.
+   */
+  public TypeChecker (TypingContext context)
+    {
+      _context = context;
+    }
+
+  /**
+   * This is the typing context of this typechecker's session.
+   */
+  private TypingContext _context;
+
+  /**
+   * Returns the typing context of this typechecker's session.
+   */
+  public final TypingContext context ()
+    {
+      return _context;
+    }
+
+  /**
+   * This gathers metrics describing the work of this typechecker; it is <tt>null</tt>
+   * unless set by <tt>setMetrics</tt>, in which case no metrics are gathered.
+   */
+  private TypingMetrics _metrics;
+
+  /**
+   * Makes this typechecker record its work in the specified metrics (or stop
+   * recording it, if <tt>null</tt>), and returns this typechecker.
+   */
+  public final TypeChecker setMetrics (TypingMetrics metrics)
+    {
+      _metrics = metrics;
+      return this;
+    }
+
+  /**
+   * Returns the metrics this typechecker records its work in, or <tt>null</tt>
+   * if there are none.
+   */
+  public final TypingMetrics metrics ()
+    {
+      return _metrics;
+    }
+
+  /**
+   * This attributes the backtracking work of this typechecker to symbols, global
+   * occurrences, and code entries; it is <tt>null</tt> unless set by <tt>setProfiler</tt>.
+   */
+  private TypingProfiler _profiler;
+
+  /**
+   * Makes this typechecker profile its backtracking in the specified profiler (or
+   * stop profiling it, if <tt>null</tt>), and returns this typechecker.
+   */
+  public final TypeChecker setProfiler (TypingProfiler profiler)
+    {
+      _profiler = profiler;
+      return this;
+    }
+
+  /**
+   * Returns the profiler this typechecker profiles its backtracking in, or <tt>null</tt>
+   * if there is none.
+   */
+  public final TypingProfiler profiler ()
+    {
+      return _profiler;
+    }
+
   /**
-   * This stack records the bindable objects that have been affected.
+   * This records the steps of this typechecker as binary events; it is <tt>null</tt>
+   * unless set by <tt>setTraceRecorder</tt>.
    */
-  private Stack _bindTrail = new Stack();
+  private TraceRecorder _recorder;
+
+  /**
+   * Makes this typechecker record its steps in the specified trace recorder (or stop
+   * recording them, if <tt>null</tt>), and returns this typechecker.
+   */
+  public final TypeChecker setTraceRecorder (TraceRecorder recorder)
+    {
+      _recorder = recorder;
+      return this;
+    }
+
+  /**
+   * Returns the trace recorder this typechecker records its steps in, or <tt>null</tt>
+   * if there is none.
+   */
+  public final TraceRecorder traceRecorder ()
+    {
+      return _recorder;
+    }
+
+  /**
+   * Makes this typechecker bind the unbound type parameters in a persistent <a
+   * href="Substitution.html"><tt>Substitution</tt></a> held by its typing context
+   * (or, if <tt>false</tt>, in the type parameters themselves), and returns this
+   * typechecker, which is reset. This affects all the typecheckers sharing this
+   * typechecker's context.
+   * <p>
+   * <b>NB:</b> the bindings are then only visible in this context. Once a public
+   * operation of this typechecker returns, the types it has left in expressions
+   * (<i>e.g.</i>, <tt>expression.type()</tt>) must thus be read with this context
+   * entered (see <a href="TypingContext.html#enter()"><tt>TypingContext.enter()</tt></a>):
+   * read from another context, or from another thread, their type parameters appear
+   * unbound. Only the type parameters bound in a substitution look it up; the others
+   * are dereferenced as when bindings are not persistent.
+   */
+  public final TypeChecker setPersistentBindings (boolean persistent)
+    {
+      reset();
+      _context.setSubstitution(persistent ? Substitution.EMPTY : null);
+      return this;
+    }
+
+  /**
+   * Returns <tt>true</tt> iff this typechecker binds the unbound type parameters in
+   * a persistent substitution.
+   */
+  public final boolean hasPersistentBindings ()
+    {
+      return _context.substitution() != null;
+    }
+
+  /**
+   * Returns the substitution holding the current bindings of this typechecker's type
+   * parameters, or <tt>null</tt> if its bindings are not persistent. This takes
+   * constant time, and the snapshot so taken is not affected by further bindings or
+   * backtracking.
+   */
+  public final Substitution snapshot ()
+    {
+      return _context.substitution();
+    }
+
+  /**
+   * Returns a new typechecker with persistent bindings, working in a new typing
+   * context, and starting from the current bindings of this one, which must be
+   * persistent too. The new typechecker and this one may then proceed independently
+   * of each other, even concurrently in distinct threads, as far as the type
+   * parameters bound in their substitutions are concerned. <b>NB:</b> the currying
+   * of function types and the residuations of type parameters are shared, and must
+   * not be affected by either typechecker if they are to proceed independently.
+   *
+   * @throws UnsupportedOperationException if the bindings of this typechecker are
+   * not persistent, since they would then be shared, and affected by both
+   */
+  public final TypeChecker fork ()
+    {
+      if (!hasPersistentBindings())
+        throw new UnsupportedOperationException("fork() of a typechecker whose bindings are not persistent");
+
+      TypingContext context = new TypingContext();
+      context.setSubstitution(snapshot());
+      return new TypeChecker(context);
+    }
+
   /**
-   * This stack records the components of function types affected by currying.
+   * This is the goal stack - it contains the goals remaining to be proved.
    */
-  private Stack _typeTrail = new Stack();
+  private Stack _goalStack = new Stack();
   /**
-   * This stack records the components of application expressions affected by
-   * currying.
+   * This is the choice-point stack - it contains the alternative choices
+   * remaining to be made.
    */
-  private Stack _applTrail = new Stack();
+  private Stack _chptStack = new Stack();
   /**
-   * This stack records the goals that have been proven up to now.
+   * This trail records the bindable objects that have been affected, the
+   * components of function types and application expressions affected by
+   * currying, and the goals that have been proven up to now.
    */
-  private Stack _goalTrail = new Stack();
+  private Trail _trail = new Trail();
   /**
    * This stack records cut-point states of the type-checker before the latest
    * of which it will not backtrack.
@@ -142,6 +320,33 @@ public class TypeChecker implements GoalProver
    */
   private Stack _exitStack = new Stack();
 
+  /**
+   * This is <tt>true</tt> iff there is neither a choice point nor a cut point
+   * on their respective stacks. In this case, no effect may ever be undone
+   * and no goal may ever be proven anew, and so trailing is elided altogether
+   * (provided that <tt>ELIDES_DETERMINISTIC_TRAILING</tt> is <tt>true</tt>).
+   */
+  private boolean _isDeterministic = ELIDES_DETERMINISTIC_TRAILING;
+
+  /**
+   * Returns <tt>true</tt> iff this typechecker is currently in deterministic
+   * mode; <i>i.e.</i>, when no effect and no proven goal need be trailed.
+   */
+  public final boolean isDeterministic ()
+    {
+      return _isDeterministic;
+    }
+
+  /**
+   * Recomputes whether this typechecker is in deterministic mode. This must be
+   * called whenever the choice-point or cut-point stacks change.
+   */
+  private final void _updateMode ()
+    {
+      _isDeterministic = ELIDES_DETERMINISTIC_TRAILING
+                      && _chptStack.isEmpty() && _ctptStack.isEmpty();
+    }
+
   private boolean _tracing = false;
 
   public final boolean isTracing ()
@@ -185,6 +390,58 @@ public class TypeChecker implements GoalProver
    */
   public static boolean ALLOWS_UNIFYING_OPAQUE_TUPLES = false;
 
+  /**
+   * This is a boolean switch to dis/allow eliding all trailing while there is no live
+   * choice point or cut point; default is <tt>false</tt>. <b>NB:</b> when this is
+   * <tt>true</tt>, the effects that took place in deterministic mode are not undone
+   * by <tt>reset()</tt>, since they were never recorded: after a failed check, the
+   * type parameters of the expression may thus remain bound, and the expression
+   * must not be checked again as is. This is therefore only meant for callers that
+   * check each expression once, or check a fresh copy of it each time.
+   */
+  public static boolean ELIDES_DETERMINISTIC_TRAILING = false;
+
+  /**
+   * This is a boolean switch to dis/allow backjumping upon a failed unification goal
+   * directly to the latest choice point actually implicated in the failure, skipping
+   * the intervening choice points; default is <tt>true</tt>. (See the method
+   * <tt>_conflictPoint</tt> for what "implicated" means.)
+   */
+  public static boolean BACKJUMPING = true;
+
+  /**
+   * This is a boolean switch to dis/allow discarding, before pushing the choice point
+   * of a global, those of its code entries whose types cannot unify with its current
+   * type as found by a tentative (non-mutating) unification; default is <tt>true</tt>.
+   * When <tt>false</tt>, only the entries whose types' outer shapes are incompatible
+   * with the global's type are discarded.
+   */
+  public static boolean LOOKS_AHEAD = true;
+
+  /**
+   * This is a boolean switch to dis/allow keeping, upon backtracking, the effects of
+   * those unification goals proven since the choice point that do not depend on any
+   * effect undone by backtracking, rather than undoing them and proving these goals
+   * anew; default is <tt>true</tt>. (See the method <tt>_isIndependent</tt> for what
+   * "depend" means.)
+   */
+  public static boolean SELECTIVE_REPLAY = true;
+
+  /**
+   * This is used for testing whether types may unify without unifying them.
+   */
+  private final TentativeUnifier _tentativeUnifier = new TentativeUnifier();
+
+  /**
+   * Returns <tt>false</tt> only if the specified types cannot unify given the current
+   * bindings of their type parameters. This tests them tentatively, without binding
+   * anything (see <a href="TentativeUnifier.html"><tt>TentativeUnifier</tt></a>).
+   */
+  final boolean mayUnify (Type t1, Type t2)
+    {
+      return _tentativeUnifier.mayUnify(t1,t2);
+    }
+
   /**
    * Checks that the specified extent is within an exitable scope, and if
    * it is returns that scope. Otherwise, tiggers a typing error.
@@ -202,7 +459,10 @@ public class TypeChecker implements GoalProver
    */
   public final void pushGoal (Goal goal)
     {
+      goal.setActivationPoint(_trail.point());
       _goalStack.push(goal);
+      if (_metrics != null) _metrics.goalPushed(_goalStack.size());
+      if (_recorder != null) _recorder.record(TraceRecorder.GOAL_PUSHED,goal,_goalStack.size(),0);
     }
 
   /**
@@ -211,6 +471,7 @@ public class TypeChecker implements GoalProver
   public final void pushExitable (Scope scope)
     {
       _exitStack.push(scope);
+      if (_metrics != null) _metrics.exitablePushed(_exitStack.size());
     }
 
   /**
@@ -227,6 +488,9 @@ public class TypeChecker implements GoalProver
   public final void pushCutPoint ()
     {
       _ctptStack.push(getTypingState());
+      _isDeterministic = false;
+      if (_metrics != null) _metrics.cutPointPushed(_ctptStack.size());
+      if (_recorder != null) _recorder.record(TraceRecorder.CUT_POINT_PUSHED,-1,_ctptStack.size(),0);
     }
 
   /**
@@ -234,46 +498,69 @@ public class TypeChecker implements GoalProver
    */
   public final TypingState popCutPoint ()
     {
-      return (TypingState)_ctptStack.pop();
+      TypingState ctpt = (TypingState)_ctptStack.pop();
+      _updateMode();
+      return ctpt;
     }
 
   /**
-   * Pushes the specified <tt>Bindable</tt> object on the binding trail.
+   * Pushes the specified <tt>Bindable</tt> object on the binding trail,
+   * unless in deterministic mode.
    */
   public final void trail (Bindable bindable)
     {
-      _bindTrail.push(bindable);
+      if (_recorder != null)
+        _recorder.record(TraceRecorder.BIND,-1,System.identityHashCode(bindable),_trail.point());
+
+      if (!_isDeterministic)
+        _trail.push(bindable);
+    }
+
+  /**
+   * Records on the trail the type the specified parameter is bound to before its
+   * binding chain gets compressed, unless in deterministic mode.
+   */
+  final void trail (TypeParameter parameter, Type value)
+    {
+      if (!_isDeterministic)
+        _trail.push(parameter,value);
     }
 
   /**
    * Pushes the specified four objects on the type trail (corresponding to
-   * the form of a function type before being curryed).
+   * the form of a function type before being curryed), unless in deterministic mode.
    */
   final void trail (FunctionType type, Type[] domains, Type range, BoxingMask mask)
     {
-      _typeTrail.push(mask);
-      _typeTrail.push(range);
-      _typeTrail.push(domains);
-      _typeTrail.push(type);
+      if (!_isDeterministic)
+        _trail.push(type,domains,range,mask);
     }
 
   /**
-   * Pushes the specified four objects on the application trail (corresponding to
-   * the form of an application before being curryed).
+   * Pushes the specified three objects on the application trail (corresponding to
+   * the form of an application before being curryed), unless in deterministic mode.
    */
   public final void trail (Application application, Expression function, Expression[] arguments)
     {
-      _applTrail.push(arguments);
-      _applTrail.push(function);
-      _applTrail.push(application);
+      if (!_isDeterministic)
+        _trail.push(application,function,arguments);
     }
 
   /**
-   * Pushes the specified goal on the goal trail.
+   * Pushes the specified goal on the goal trail, unless in deterministic mode.
    */
   public final void trail (Goal goal)
     {
-      _goalTrail.push(goal);
+      if (!_isDeterministic)
+        _trail.pushGoal(goal);
+    }
+
+  /**
+   * Pushes the specified goal on the goal trail, even in deterministic mode.
+   */
+  final void forceTrail (Goal goal)
+    {
+      _trail.pushGoal(goal);
     }
 
   /**
@@ -293,7 +580,16 @@ public class TypeChecker implements GoalProver
    */
   public final void unify (Type t1, Type t2, Locatable extent) throws TypingErrorException
     {
-      prove(new UnifyGoal(t1,t2,extent));
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _prove(new UnifyGoal(t1,t2,extent));
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
     }
 
   /**
@@ -302,7 +598,16 @@ public class TypeChecker implements GoalProver
    */
   public final void typeCheck (Expression expression, Type type) throws TypingErrorException
     {
-      prove(new TypingGoal(expression,type));
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _prove(new TypingGoal(expression,type));
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
     }
 
   /**
@@ -312,7 +617,16 @@ public class TypeChecker implements GoalProver
    */
   public final void prune (Global global, Type filter, Locatable extent) throws TypingErrorException
     {
-      prove(new PruningGoal(global,filter,extent));
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _prove(new PruningGoal(global,filter,extent));
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
     }
 
   /**
@@ -325,10 +639,24 @@ public class TypeChecker implements GoalProver
    * triggering type becomes fully instantiated.
    */
   public final void residuate (Type type, Goal goal) throws TypingErrorException
+    {
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _residuate(type,goal);
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
+    }
+
+  private final void _residuate (Type type, Goal goal) throws TypingErrorException
     {
       ResiduatedGoal residuation = new ResiduatedGoal(goal);
       residuation.addTrigger(type);
-      prove(goal);
+      _prove(goal);
     }
 
   /**
@@ -339,7 +667,16 @@ public class TypeChecker implements GoalProver
    */
   public final void disallowVoid (Type type, Locatable extent, Object info) throws TypingErrorException
     {
-      residuate(type,new NoVoidTypeGoal(type,extent,": "+info));
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _residuate(type,new NoVoidTypeGoal(type,extent,": "+info));
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
     }
 
   /**
@@ -348,8 +685,41 @@ public class TypeChecker implements GoalProver
    */
   public final void prove (Goal goal) throws TypingErrorException
     {
-      _goalStack.push(goal);
-      _typeCheck();
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _prove(goal);
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
+    }
+
+  /**
+   * Proves the specified goal like <tt>prove</tt>, assuming this typechecker's
+   * context has been entered by the calling public operation.
+   */
+  private final void _prove (Goal goal) throws TypingErrorException
+    {
+      TypingEvents.Prove event = TypingEvents.PROVE.isEnabled() ? new TypingEvents.Prove() : null;
+      if (event != null) event.begin();
+
+      try
+        {
+          goal.setActivationPoint(_trail.point());
+          _goalStack.push(goal);
+          if (_metrics != null) _metrics.goalPushed(_goalStack.size());
+          if (_recorder != null) _recorder.record(TraceRecorder.GOAL_PUSHED,goal,_goalStack.size(),0);
+          _typeCheck();
+          if (event != null) event.succeeded = true;
+        }
+      finally
+        {
+          if (event != null && event.shouldCommit())
+            event.record(this,goal);
+        }
     }
 
   /**
@@ -370,6 +740,11 @@ public class TypeChecker implements GoalProver
           _currentGoal   = (Goal)_goalStack.pop();
           _currentExtent = _currentGoal.extent();
 
+          int start = _trail.point();
+
+          if (_recorder != null)
+            _recorder.record(TraceRecorder.GOAL_POPPED,_currentGoal,start,_trail.goalPoint());
+
           try
             {
               if (_tracing)
@@ -380,15 +755,26 @@ public class TypeChecker implements GoalProver
 
               _currentGoal.prove(this);
 
+              if (SELECTIVE_REPLAY && _currentGoal.getClass() == UnifyGoal.class)
+                ((UnifyGoal)_currentGoal).setSpan(start,_trail.point());
+
+              if (_metrics != null) _metrics.goalProven(_currentGoal);
+              if (_recorder != null)
+                _recorder.record(TraceRecorder.GOAL_SUCCEEDED,_currentGoal,_trail.point(),_trail.goalPoint());
+
               if (_tracing)
 		_showStep("Goal "+_currentGoal.timeStamp()+" succeeded; proceeding...");
             }
           catch (FailedUnificationException error)
             {
+              if (_metrics != null) _metrics.goalFailed(_currentGoal);
+              if (_recorder != null)
+                _recorder.record(TraceRecorder.GOAL_FAILED,_currentGoal,_trail.point(),_trail.goalPoint());
+
               if (_tracing)
 		_showStep("Goal "+_currentGoal.timeStamp()+" failed: "+error.msg());
 
-              _backtrack();
+              _backtrack(_conflictPoint(start));
             }
         }
     }
@@ -399,66 +785,298 @@ public class TypeChecker implements GoalProver
    */
   public final void allTypes (Expression expression, AbstractList types)
     {
-      try
+      _record(types(expression),types);
+    }      
+
+  /**
+   * Finds all remaining types for the specifed expression starting in the current
+   * typing state of this typechecker, recording the types it finds in the specified
+   * list.
+   */
+  public final void remainingTypes (Expression expression, AbstractList types)
+    {
+      _record(remainingTypes(expression),types);
+    }
+
+  /**
+   * Records in the specified list all the types delivered by the specified iterator.
+   */
+  private final void _record (Iterator i, AbstractList types)
+    {
+      while (i.hasNext())
         {
-	  // find a first type if possible, and if so, record it...
-          expression.typeCheck(this);
-          types.add(expression.type().copy());
+          types.add(i.next());
 
           if (_tracing)
 	    _showStep("Types so far: " + types);
         }
-      catch (TypingErrorException error)
-	// not even one type could be found: bail out...
+    }
+
+  //\\//\\//\\//\\ Parallel search
+
+  /**
+   * Performs an exhaustive type checking of an expression like <tt>allTypes(Expression,
+   * AbstractList)</tt>, but splitting the search among as many worker typecheckers as
+   * there are specified copies of the expression: the alternatives of the outermost
+   * choice point of the search are split into as many contiguous blocks, and each worker
+   * explores one block on its own copy, as a fork-join task. This typechecker must have
+   * persistent bindings, so that no type parameter is bound in place by any worker: the
+   * first worker is this typechecker and the others are forked from it (see <tt>fork()</tt>).
+   * The choice points created while a cut point is pending are not split, since the cut
+   * would then keep the first success of each block rather than that of the whole
+   * choice point; if no choice point can be split, the first worker alone records the
+   * types found. The types found by the workers are recorded in the specified list in
+   * worker order, which is the order in which the sequential search would find them.
+   * <p>
+   * <b>NB:</b> the copies must be built separately (<i>e.g.</i>, by parsing the same
+   * source text once per worker), not obtained by sharing parts of one expression:
+   * they may share symbols and their code entries, which are only read by type
+   * checking, but no type parameter, function type, nor any other part that type
+   * checking may bind, curry, or residuate. Otherwise, the workers would affect one
+   * another's search.
+   *
+   * @throws UnsupportedOperationException if this typechecker's bindings are not
+   * persistent and there is more than one copy
+   */
+  public final void allTypes (Expression[] copies, AbstractList types)
+    {
+      if (copies.length == 1)
         {
+          allTypes(copies[0],types);
           return;
         }
 
-      for (;;)
-	// backtrack, find, and record new types, as long as we can carry on...
-        try
-          {
-            if (_tracing)
-	      _showStep("Backtracking to find more types...");
-
-            _backtrack();
-            _typeCheck();
-            types.add(expression.type().copy());
-
-            if (_tracing)
-	      _showStep("Types so far: " + types);
-          }
-        catch (TypingErrorException error)
-          {
-            return;
-          }
-    }      
+      SearchTask[] tasks = new SearchTask[copies.length];
+
+      for (int i=0; i<tasks.length; i++)
+        tasks[i] = new SearchTask(i == 0 ? this : fork(),copies[i],i,tasks.length);
+
+      ForkJoinTask.invokeAll(tasks);
+
+      for (int i=0; i<tasks.length; i++)
+        types.addAll(tasks[i].types);
+    }
 
   /**
-   * Finds all remaining types for the specifed expression starting in the current
-   * typing state of this typechecker, recording the types it finds in the specified
-   * list.
+   * When this typechecker is one of several workers sharing a search, this is its
+   * index among them, and <tt>_workers</tt> is their number.
    */
-  public final void remainingTypes (Expression expression, AbstractList types)
+  private int _worker = 0;
+  private int _workers = 1;
+
+  /**
+   * This is <tt>true</tt> once this worker has taken its share of the alternatives of
+   * the outermost choice point.
+   */
+  private boolean _hasShared = false;
+
+  /**
+   * Returns an iterator over this typechecker's share of the code entries delivered
+   * by the specified iterator if they are the alternatives of the outermost choice
+   * point of a search shared among several workers, and no cut point is pending;
+   * otherwise, returns the specified iterator.
+   */
+  final Iterator share (Iterator entries)
+    {
+      if (_workers == 1 || _hasShared || !_ctptStack.isEmpty())
+        return entries;
+
+      ArrayList list = new ArrayList();
+      while (entries.hasNext())
+        list.add(entries.next());
+
+      if (list.size() > 1)
+        {
+          _hasShared = true;
+          int size = list.size();
+          return list.subList(_worker*size/_workers,(_worker+1)*size/_workers).iterator();
+        }
+
+      return list.iterator();
+    }
+
+  /**
+   * A <tt>SearchTask</tt> finds all the types of its expression with its typechecker
+   * acting as one of several workers.
+   */
+  private static final class SearchTask extends RecursiveAction
+    {
+      private static final long serialVersionUID = 1L;
+
+      private final TypeChecker _typeChecker;
+      private final Expression _expression;
+      private final int _worker;
+      private final int _workers;
+
+      final ArrayList types = new ArrayList();
+
+      SearchTask (TypeChecker typeChecker, Expression expression, int worker, int workers)
+        {
+          _typeChecker = typeChecker;
+          _expression = expression;
+          _worker = worker;
+          _workers = workers;
+        }
+
+      protected final void compute ()
+        {
+          _typeChecker._worker = _worker;
+          _typeChecker._workers = _workers;
+          _typeChecker._hasShared = false;
+
+          try
+            {
+              // until the search is shared, all the workers find the same types,
+              // which only the first one records:
+              for (Iterator i=_typeChecker.types(_expression); i.hasNext();)
+                {
+                  Object type = i.next();
+                  if (_worker == 0 || _typeChecker._hasShared)
+                    types.add(type);
+                }
+            }
+          finally
+            {
+              _typeChecker._worker = 0;
+              _typeChecker._workers = 1;
+            }
+        }
+    }
+
+  /**
+   * Type-checks the specified expression and records in the specified list its
+   * type if it has exactly one, or its first two types if it has more than one;
+   * the search stops as soon as a second type is found. Returns the number of
+   * types thus recorded: 0 if the expression is ill-typed, 1 if it is uniquely
+   * typed, and 2 if it is ambiguous.
+   */
+  public final int uniqueOrAmbiguous (Expression expression, AbstractList types)
+    {
+      Iterator i = types(expression);
+      int count = 0;
+
+      while (count < 2 && i.hasNext())
+        {
+          types.add(i.next());
+          count++;
+        }
+
+      return count;
+    }
+
+  /**
+   * Returns an iterator over the types of the specified expression. The search is
+   * lazy: each type is found only when the iterator is asked for it (by its
+   * <tt>hasNext</tt> or <tt>next</tt> method), by backtracking from where the
+   * search for the previous one left this typechecker. The types returned are copies,
+   * and so are not affected by further searching.
+   */
+  public final Iterator types (Expression expression)
+    {
+      return new TypeIterator(expression,true);
+    }
+
+  /**
+   * Returns an iterator over the remaining types for the specified expression
+   * starting in the current typing state of this typechecker. This is to
+   * <tt>remainingTypes(Expression,AbstractList)</tt> what <tt>types(Expression)</tt>
+   * is to <tt>allTypes(Expression,AbstractList)</tt>.
+   */
+  public final Iterator remainingTypes (Expression expression)
+    {
+      return new TypeIterator(expression,false);
+    }
+
+  /**
+   * A <tt>TypeIterator</tt> delivers the types of an expression one at a time,
+   * resuming the backtracking search of its typechecker on demand.
+   */
+  private final class TypeIterator implements Iterator
     {
-      for (;;)
-	// backtrack, find, and record new types, as long as we can carry on...
-        try
-          {
-            if (_tracing)
-              _showStep("Found type "+expression.type()+"; looking for more types...");
+      private Expression _expression;
+      private boolean _isFirst;
+      private Type _next;
+      private boolean _isExhausted = false;
+
+      /**
+       * Constructs an iterator over the types of the specified expression; if
+       * <tt>isFirst</tt> is true, the first type is found by type-checking the
+       * expression; otherwise, by backtracking from the current typing state.
+       */
+      TypeIterator (Expression expression, boolean isFirst)
+        {
+          _expression = expression;
+          _isFirst = isFirst;
+        }
+
+      public final boolean hasNext ()
+        {
+          if (_next == null && !_isExhausted)
+            _advance();
+
+          return _next != null;
+        }
+
+      public final Object next ()
+        {
+          if (!hasNext())
+            throw new NoSuchElementException();
+
+          Type type = _next;
+          _next = null;
+          return type;
+        }
+
+      public final void remove ()
+        {
+          throw new UnsupportedOperationException();
+        }
+
+      /**
+       * Finds the next type, or marks this iterator as exhausted if there is none.
+       */
+      private final void _advance ()
+        {
+          boolean isFirst = _isFirst;
+          long start = _metrics == null ? 0 : System.nanoTime();
+          TypingContext previous = _context.enter();
+
+          try
+            {
+              if (_isFirst)
+		// find a first type if possible...
+                {
+                  _isFirst = false;
+                  _expression.typeCheck(TypeChecker.this);
+                  if (_metrics != null)
+                    {
+                      _metrics.typeChecked(System.nanoTime()-start,true);
+                      _metrics.trailSizes(_trail.point(),_trail.goalPoint());
+                    }
+                }
+              else
+		// backtrack and find a new type if we can carry on...
+                {
+                  if (_tracing)
+                    _showStep("Found type "+_expression.type()+"; looking for more types...");
 
-            _backtrack();
-            _typeCheck();
-            types.add( expression.type().copy());
+                  _backtrack();
+                  _typeCheck();
+                }
 
-            if (_tracing)
-	      _showStep("Types so far: " + types);
-          }
-        catch (TypingErrorException error)
-          {
-            return;
-          }
+              _next = _expression.type().copy();
+            }
+          catch (TypingErrorException error)
+            {
+              if (_metrics != null && isFirst)
+                _metrics.typeChecked(System.nanoTime()-start,false);
+              _isExhausted = true;
+            }
+          finally
+            {
+              _context.leave(previous);
+            }
+        }
     }
 
   /**
@@ -467,8 +1085,33 @@ public class TypeChecker implements GoalProver
    */
   public final TypingState getTypingState ()
     {
-      return new TypingState().save(_goalStack.size(),_chptStack.size(),_bindTrail.size(),
-                                    _typeTrail.size(),_applTrail.size(),_goalTrail.size());
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          return new TypingState().save(_goalStack.size(),_chptStack.size(),
+                                        _trail.point(),_trail.goalPoint());
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
+    }
+
+  /**
+   * Returns the number of cells currently on the effect trail of this typechecker.
+   */
+  public final int trailSize ()
+    {
+      return _trail.point();
+    }
+
+  /**
+   * Returns the number of goals currently on the goal trail of this typechecker.
+   */
+  public final int goalTrailSize ()
+    {
+      return _trail.goalPoint();
     }
 
   /**
@@ -477,8 +1120,12 @@ public class TypeChecker implements GoalProver
    */
   final void pushChoicePoint (ChoicePoint chpt)
     {
-      _chptStack.push(chpt.save(_goalStack.size(),_chptStack.size(),_bindTrail.size(),
-                                _typeTrail.size(),_applTrail.size(),_goalTrail.size()));
+      _chptStack.push(chpt.save(_goalStack.size(),_chptStack.size(),
+                                _trail.point(),_trail.goalPoint()));
+      _isDeterministic = false;
+      if (_metrics != null) _metrics.choicePointPushed(_chptStack.size());
+      if (_recorder != null)
+        _recorder.record(TraceRecorder.CHOICE_POINT_PUSHED,chpt.timeStamp(),_chptStack.size(),_trail.point());
     }
 
   /**
@@ -487,6 +1134,9 @@ public class TypeChecker implements GoalProver
   final void popChoicePoint ()
     {
       _chptStack.pop();
+      _updateMode();
+      if (_metrics != null) _metrics.choicePointExhausted();
+      if (_recorder != null) _recorder.record(TraceRecorder.CHOICE_POINT_POPPED,-1,_chptStack.size(),0);
     }
 
   /**
@@ -513,10 +1163,20 @@ public class TypeChecker implements GoalProver
    */
   public final TypeChecker reset ()
     {
-      _GENERIC_ERROR.setExtent(_currentExtent);
-      _currentExtent = null;
-      _error = null;
-      _clearAllStacks();
+      TypingContext previous = _context.enter();
+
+      try
+        {
+          _genericError.setExtent(_currentExtent);
+          _currentExtent = null;
+          _error = null;
+          _clearAllStacks();
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
+
       return this;
     }
 
@@ -528,31 +1188,58 @@ public class TypeChecker implements GoalProver
       _goalStack.clear();
       _chptStack.clear();
       _exitStack.clear();
-      _goalTrail.clear();
-      _unwindBindTrail();
-      _unwindTypeTrail();
-      _unwindApplTrail();
+      if (_metrics != null) _metrics.trailSizes(_trail.point(),_trail.goalPoint());
+      if (_profiler != null) _profiler.closeAll();
+      if (_recorder != null) _recorder.record(TraceRecorder.UNWIND,-1,_trail.point(),0);
+      _trail.clearGoals();
+      _trail.unwind();
+      _updateMode();
     }
 
   //\\//\\//\\//\\ Effects undoing code
 
   public final void undoCutPoint ()
     {
-      if (_tracing)
+      TypingContext previous = _context.enter();
+
+      try
         {
-          System.out.println("Undoing cut point from state:");
-          _showState();
-        }
+          if (_tracing)
+            {
+              System.out.println("Undoing cut point from state:");
+              _showState();
+            }
+
+          TypingEvents.UndoCutPoint event = TypingEvents.UNDO_CUT_POINT.isEnabled()
+                                          ? new TypingEvents.UndoCutPoint() : null;
+          if (event != null) event.begin();
 
-      TypingState ctpt = popCutPoint();
+          TypingState ctpt = popCutPoint();
 
-      while (!_goalTrail.isEmpty()
-	     && ((Goal)_goalTrail.peek()).timeStamp() > ctpt.timeStamp())
-        _goalTrail.pop();
+          if (_metrics != null)
+            {
+              _metrics.cutPointUndone();
+              _metrics.trailSizes(_trail.point(),_trail.goalPoint());
+            }
+
+          while (!_trail.noGoals() && _trail.peekGoal().timeStamp() > ctpt.timeStamp())
+            _trail.popGoal();
       
-      _unwindBindTrail(ctpt.bindTrailPoint());
-      _unwindTypeTrail(ctpt.typeTrailPoint());
-      _unwindApplTrail(ctpt.applTrailPoint());
+          if (event != null) event.undone = _trail.point() - ctpt.trailPoint();
+          if (_recorder != null)
+            {
+              _recorder.record(TraceRecorder.CUT_POINT_UNDONE,-1,_ctptStack.size(),0);
+              _recorder.record(TraceRecorder.UNWIND,-1,_trail.point(),ctpt.trailPoint());
+            }
+          _trail.unwind(ctpt.trailPoint());
+
+          if (event != null && event.shouldCommit())
+            event.record(this,_currentGoal);
+        }
+      finally
+        {
+          _context.leave(previous);
+        }
     }
 
   private final boolean _noMoreChoices ()
@@ -567,81 +1254,249 @@ public class TypeChecker implements GoalProver
       if (_noMoreChoices())
           reportError();
 
+      TypingEvents.Backtrack event = TypingEvents.BACKTRACK.isEnabled() ? new TypingEvents.Backtrack() : null;
+      if (event != null) event.begin();
+
       ChoicePoint chpt = (ChoicePoint)_chptStack.peek();
+
+      if (_metrics != null)
+        {
+          _metrics.backtracked();
+          _metrics.trailSizes(_trail.point(),_trail.goalPoint());
+        }
       
-      _unwindGoalTrail(chpt.timeStamp());
-      _unwindBindTrail(chpt.bindTrailPoint());
-      _unwindTypeTrail(chpt.typeTrailPoint());
-      _unwindApplTrail(chpt.applTrailPoint());
+      if (event != null) event.undone = _trail.point() - chpt.trailPoint();
+      if (_recorder != null)
+        {
+          _recorder.record(TraceRecorder.BACKTRACK,chpt.timeStamp(),_trail.point(),_trail.goalPoint());
+          _recorder.record(TraceRecorder.UNWIND,-1,_trail.point(),chpt.trailPoint());
+        }
+      if (SELECTIVE_REPLAY && (_ctptStack.isEmpty() || _getCutPoint().trailPoint() <= chpt.trailPoint()))
+        _unwindKeeping(chpt);
+      else
+        {
+          _unwindGoalTrail(chpt.timeStamp());
+          _trail.unwind(chpt.trailPoint());
+        }
+
+      if (event != null && event.shouldCommit())
+        event.record(this,(Goal)_goalStack.peek());
 
       if (_tracing) _show("Retrying Goal " + chpt.timeStamp() + " ...");
     }
 
-  private final void _unwindBindTrail ()
+  private final void _unwindGoalTrail (long stamp)
     {
-      _unwindBindTrail(0);
-    }
+      while (_trail.peekGoal().timeStamp() > stamp)
+        _trail.popGoal().undo(this);
 
-  private final void _unwindBindTrail (int point)
-    {
-      while (_bindTrail.size() > point)
-        ((Bindable)_bindTrail.pop()).unbind();
+      pushGoal(_trail.popGoal());
     }
 
-  private final void _unwindTypeTrail ()
+  /**
+   * Backtracks to the specified choice point like <tt>_unwindGoalTrail</tt> followed
+   * by unwinding the effect trail, except that the goals proven since the choice point
+   * that are independent of all the other effects undone are not undone: their effects
+   * are moved below the choice point, and they are recorded on the goal trail below the
+   * goal to retry, in their original order.
+   */
+  private final void _unwindKeeping (ChoicePoint chpt)
     {
-      _unwindTypeTrail(0);
-    }
+      int point = chpt.trailPoint();
+      int limit = _trail.point();
+      java.util.ArrayList<UnifyGoal> kept = null;
 
-  private final void _unwindTypeTrail (int point)
-    {
-      while (_typeTrail.size() > point)
+      while (_trail.peekGoal().timeStamp() > chpt.timeStamp())
         {
-          FunctionType type = (FunctionType)_typeTrail.pop();
-          type.setDomains((Type[])_typeTrail.pop());
-          type.setRange((Type)_typeTrail.pop());
-          type.setMask((BoxingMask)_typeTrail.pop());
+          Goal goal = _trail.popGoal();
+
+          if (_isIndependent(goal,point,limit))
+            {
+              if (kept == null) kept = new java.util.ArrayList<UnifyGoal>();
+              kept.add((UnifyGoal)goal);
+              limit = ((UnifyGoal)goal).spanStart();
+            }
+          else
+            goal.undo(this);
         }
+
+      Goal retried = _trail.popGoal();
+
+      if (kept == null)
+        _trail.unwind(point);
+      else
+        {
+          int[] spans = new int[2*kept.size()];
+          for (int i=kept.size(); i-->0;)
+            {
+              spans[2*i]   = kept.get(i).spanStart();
+              spans[2*i+1] = kept.get(i).spanEnd();
+            }
+
+          int top = _trail.unwindKeeping(point,spans);
+
+          for (int i=kept.size(); i-->0;)
+            {
+              UnifyGoal goal = kept.get(i);
+              int size = goal.spanEnd() - goal.spanStart();
+              goal.setSpan(point,point+size);
+              point += size;
+              _trail.pushGoal(goal);
+            }
+
+          chpt.moveTrailPoints(top,chpt.goalTrailPoint()+kept.size());
+
+          if (_metrics != null) _metrics.goalsKept(kept.size());
+          if (_tracing) _show("Keeping " + kept.size() + " independent goal(s) ...");
+        }
+
+      pushGoal(retried);
     }
 
-  private final void _unwindApplTrail ()
+  /**
+   * Returns <tt>true</tt> iff the specified goal, popped from the goal trail while
+   * backtracking to a choice point whose effect trail point is the specified point,
+   * may keep its effects. This is the case of a <a href="UnifyGoal.html"><tt>UnifyGoal</tt></a>
+   * whose last proof recorded, between the specified point and limit, only bindings
+   * of type parameters releasing no residuated goals and compressions, and whose two
+   * types do not depend on any effect recorded after the choice point and before this
+   * proof. Since unification is confluent, proving such a goal anew after backtracking
+   * would yield the very same effects, whatever alternative is tried in the meantime.
+   */
+  private final boolean _isIndependent (Goal goal, int point, int limit)
     {
-      _unwindApplTrail(0);
+      if (goal.getClass() != UnifyGoal.class)
+        return false;
+
+      UnifyGoal unify = (UnifyGoal)goal;
+      int start = unify.spanStart();
+
+      if (start < point || unify.spanEnd() > limit || !_trail.bindsOnlyParameters(start,unify.spanEnd()))
+        return false;
+
+      IdentityHashMap<Type,Type> types = new IdentityHashMap<Type,Type>();
+
+      if (!_collectTypes(unify.lhsRef(),types) || !_collectTypes(unify.rhsRef(),types))
+        return false;
+
+      java.util.ArrayList<Type> values = _trail.compressedValuesAbove(start);
+      for (int i=values.size(); i-->0;)
+        if (!_collectTypes(values.get(i),types))
+          return false;
+
+      return _trail.latestEntry(types,start) < point;
     }
 
-  private final void _unwindApplTrail (int point)
+  //\\//\\//\\//\\ Backjumping code
+
+  /**
+   * Backtracks to the latest choice point whose trail point is not above the specified
+   * conflict point. All the choice points above it are discarded, which amounts to
+   * backtracking as if all their remaining alternatives had been tried and had failed.
+   */
+  private final void _backtrack (int conflictPoint) throws TypingErrorException
     {
-      while (_applTrail.size() > point)
+      while (!_noMoreChoices() && _getChoicePoint().trailPoint() > conflictPoint)
         {
-          Application application = (Application)_applTrail.pop();
-          application.setFunction((Expression)_applTrail.pop());
-          application.setArguments((Expression[])_applTrail.pop());
+          if (_tracing) _show("Skipping " + _getChoicePoint() + " ...");
+          if (_metrics != null) _metrics.choicePointSkipped();
+          if (_recorder != null)
+            _recorder.record(TraceRecorder.SKIP,_getChoicePoint().timeStamp(),conflictPoint,0);
+
+          _getChoicePoint().clear();
+          popChoicePoint();
         }
+
+      _backtrack();
     }
 
-  private final void _unwindGoalTrail (long stamp)
+  /**
+   * Assuming that the current goal has just failed after having been started with the
+   * effect trail at the specified point, returns a point of the effect trail such that
+   * the choice points pushed above it are not implicated in this failure. A choice
+   * point is implicated in the failure of a goal if it was pushed before either the
+   * goal itself was activated, or one of the effects the failure depends on took place.
+   * <p>
+   * This analysis is only done for the failure of a <a href="UnifyGoal.html">
+   * <tt>UnifyGoal</tt></a>, which depends only on the bindings of the type parameters
+   * and the currying of the function types that are reachable from its two types.
+   * Since a unification that fails still fails for any further bindings, the choice
+   * points pushed after all these effects can not possibly make it succeed. In all
+   * other cases (including when the unification has released residuated goals), no
+   * choice point may be skipped and this returns <tt>Integer.MAX_VALUE</tt>.
+   */
+  private final int _conflictPoint (int start)
     {
-      while (((Goal)_goalTrail.peek()).timeStamp() > stamp)
-        ((Goal)_goalTrail.pop()).undo(this);
+      if (!BACKJUMPING || !(_currentGoal instanceof UnifyGoal)
+          || _trail.hasResiduationsAbove(start))
+        return Integer.MAX_VALUE;
+
+      UnifyGoal goal = (UnifyGoal)_currentGoal;
+      IdentityHashMap<Type,Type> types = new IdentityHashMap<Type,Type>();
+
+      if (!_collectTypes(goal.lhsRef(),types) || !_collectTypes(goal.rhsRef(),types))
+        return Integer.MAX_VALUE;
+
+      // the binding chains compressed by the failing goal may bypass relevant bindings:
+      java.util.ArrayList<Type> values = _trail.compressedValuesAbove(start);
+      for (int i=values.size(); i-->0;)
+        if (!_collectTypes(values.get(i),types))
+          return Integer.MAX_VALUE;
+
+      return Math.max(goal.activationPoint(),_trail.latestEntry(types,start));
+    }
+
+  /**
+   * Records in the specified table all the types reachable from the specified type,
+   * following the bindings of type parameters. Returns <tt>false</tt> if a type that
+   * can not be so traversed is encountered.
+   */
+  private static final boolean _collectTypes (Type type, IdentityHashMap<Type,Type> types)
+    {
+      if (type == null || types.containsKey(type))
+        return true;
+
+      if (type instanceof ProtoType)
+        return false;
+
+      types.put(type,type);
 
-      _goalStack.push(_goalTrail.pop());      
+      if (type.kind() == Type.PARAMETER)
+        return _collectTypes(((TypeParameter)type).valueRef(),types);
+
+      for (int i=type.numberOfTypeComponents(); i-->0;)
+        if (!_collectTypes(type.typeRefComponent(i),types))
+          return false;
+
+      return true;
     }
 
   //\\//\\//\\//\\ Error handling code
 
-  private static final TypingErrorException _GENERIC_ERROR
+  private final TypingErrorException _genericError
     = new TypingErrorException("ill-typed form");
   private StaticSemanticsErrorException _error;
   private Goal _currentGoal;
   private Locatable _currentExtent;
 
+  /**
+   * Returns <tt>true</tt> iff an error signalled now would become the culprit to
+   * report, in place of the current one.
+   */
+  private final boolean _isCulprit ()
+    {
+      return _error == null || _currentGoal.timeStamp() > _error.stamp();
+    }
+
   private final void _assessCulprit (StaticSemanticsErrorException error)
     {
-      if (_error == null || _currentGoal.timeStamp() > _error.stamp())
+      if (_isCulprit())
         {
           _error = error.setExtent(_currentExtent);
           if (_currentGoal != null)
             _error.setStamp(_currentGoal.timeStamp());
+          if (_error instanceof TypeClashException)
+            ((TypeClashException)_error).elaborate();
         }
     }
 
@@ -659,13 +1514,50 @@ public class TypeChecker implements GoalProver
       error(error);
     }
 
+  /**
+   * Signals a clash between the two specified types. This is equivalent to signalling
+   * a new <a href="TypeClashException.html"><tt>TypeClashException</tt></a> for these
+   * types with <tt>error</tt>, except that this exception is only created if it is to
+   * become the culprit; otherwise, the current culprit is thrown as is.
+   */
+  public final void clash (Type expected, Type found) throws StaticSemanticsErrorException
+    {
+      if (_isCulprit())
+        error(new TypeClashException(expected,found));
+
+      throw _error;
+    }
+
+  /**
+   * Signals a type clash with the specified detail, as <tt>clash(Type,Type)</tt> does.
+   * The detail is only rendered (using its <tt>toString</tt> method) if this clash
+   * becomes the culprit and <tt>GIVES_DETAILS</tt> is <tt>true</tt>.
+   */
+  public final void clash (Object detail) throws StaticSemanticsErrorException
+    {
+      if (_isCulprit())
+        error(new TypeClashException(detail));
+
+      throw _error;
+    }
+
+  /**
+   * Signals a type clash with the specified detail at the specified extent, as
+   * <tt>clash(Object)</tt> does.
+   */
+  public final void clash (Object detail, Locatable locatable) throws StaticSemanticsErrorException
+    {
+      _currentExtent = locatable;
+      clash(detail);
+    }
+
   public final void reportError () throws StaticSemanticsErrorException
     {
       StaticSemanticsErrorException error = _error;
 
       //      if (_ctptStack.isEmpty()) reset();
       
-      throw error != null ? error : _GENERIC_ERROR;
+      throw error != null ? error : _genericError;
     }    
 
   //\\//\\//\\//\\//\\ State showing code
@@ -673,7 +1565,7 @@ public class TypeChecker implements GoalProver
   final private void _showState ()
     {
       if (_tracing) _show(_showNonEmpty(_goalStack,"        Goal stack")+
-                    _showNonEmpty(_goalTrail,"        Goal trail")+
+                    _showNonEmpty(_trail.goalStack(),"        Goal trail")+
                     _showNonEmpty(_exitStack,"        Exit stack")+
                     _showNonEmpty(_ctptStack,"   Cut point stack")+
                     _showNonEmpty(_chptStack,"Choice point stack")+
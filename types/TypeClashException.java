@@ -10,27 +10,49 @@ package hlt.language.design.types;
  * @copyright   &copy; <a href="http://www.hassan-ait-kaci.net/">by the author</a>
  */
 
+/**
+ * A <tt>TypeClashException</tt> signals that two types do not unify. Since most type
+ * clashes are expected and discarded upon backtracking, such an exception keeps what
+ * it concerns (two types, or a detail object) but only renders it in its message when
+ * it becomes the culprit a typechecker will report (see <tt>elaborate</tt>), and only
+ * if <tt>TypeChecker.GIVES_DETAILS</tt> is <tt>true</tt>. For the same reason, it is
+ * stackless (see <a href="FailedUnificationException.html"><tt>FailedUnificationException</tt></a>),
+ * and is not even created if it could not become the culprit (see <tt>TypeChecker.clash</tt>).
+ */
 public class TypeClashException extends FailedUnificationException
 {
+  private Object _detail;
+  private Type _expected;
+  private Type _found;
+
   public TypeClashException (Object detail)
     {
       _msg += "incompatible type";
-
-      if (TypeChecker.GIVES_DETAILS)
-        {
-          Type.resetNames();
-          _msg += ": "+detail;
-        }
+      _detail = detail;
     }
 
   public TypeClashException (Type expected, Type found)
     {
       _msg += "incompatible type";
+      _expected = expected;
+      _found = found;
+    }
 
-      if (TypeChecker.GIVES_DETAILS)
+  /**
+   * Renders the details of this clash in its message if <tt>TypeChecker.GIVES_DETAILS</tt>
+   * is <tt>true</tt>. This must be done before the bindings of the types it concerns are
+   * undone, and is done by the typechecker as this becomes the culprit it will report.
+   */
+  final void elaborate ()
+    {
+      if (TypeChecker.GIVES_DETAILS && (_detail != null || _expected != null))
         {
           Type.resetNames();
-          _msg += ": "+expected.toQuantifiedString()+", "+found.toQuantifiedString();
+          _msg += ": " + (_detail != null ? String.valueOf(_detail)
+                                          : _expected.toQuantifiedString()+", "+
+                                            _found.toQuantifiedString());
         }
+
+      _detail = _expected = _found = null;
     }
 }
@@ -41,6 +41,14 @@ public class TypeConstant extends NamedType
       return _shadowType == this ? 0 : 1;
     }
 
+  /**
+   * A type constant is always sharable.
+   */
+  final boolean computeSharability ()
+    {
+      return true;
+    }
+
   public Type typeRefComponent (int n) throws NoSuchTypeComponentException
     {
       if (n == 0 && _shadowType != this)
@@ -91,7 +99,7 @@ public class TypeConstant extends NamedType
 
   public void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       switch (type.kind())
@@ -107,7 +115,7 @@ public class TypeConstant extends NamedType
 //                && (this == INT && type == REAL || this == REAL && type == INT))
 //              return;
         default:
-          typeChecker.error(new TypeClashException(this,type));
+          typeChecker.clash(this,type);
         }
     }
 
@@ -92,6 +92,22 @@ public class TypeDefinition extends TypeTermScheme
         }
     }
 
+  /**
+   * Returns the name of the defined type.
+   */
+  public final String name ()
+    {
+      return _name;
+    }
+
+  /**
+   * Returns the type defining this definition's type term itself (rather than a copy).
+   */
+  final Type definitionRef ()
+    {
+      return _definition;
+    }
+
   /**
    * Returns a fresh copy of the type defining this definition's type term.
    */
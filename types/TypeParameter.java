@@ -21,15 +21,89 @@ public class TypeParameter extends StaticType implements Bindable
 {
   /**
    * This is set to this type parameter's dereferenced value if bound, or itself.
-   * (See the <tt>value()</tt> and the <tt>valueRef()</tt> methods.)
+   * (See the <tt>value()</tt> and the <tt>valueRef()</tt> methods.) When the current
+   * typing context has a <a href="Substitution.html"><tt>Substitution</tt></a>, an
+   * unbound type parameter is bound in this substitution instead, and this is left
+   * unchanged.
    */
   private Type _value = this;
 
+  /**
+   * This identifies this type parameter in substitutions; it is 0 until needed.
+   */
+  private int _id;
+
+  /**
+   * Returns the identifier of this type parameter in substitutions, giving it one if
+   * it has none.
+   */
+  final int id ()
+    {
+      int id = _id;
+      return id != 0 ? id : _newId();
+    }
+
+  private final synchronized int _newId ()
+    {
+      if (_id == 0) _id = Substitution.newId();
+      return _id;
+    }
+
+  /**
+   * Returns the type this type parameter is bound to in the substitution of the current
+   * typing context, or itself if none. A type parameter that has never been bound in a
+   * substitution has no identifier, and is then known to be unbound without looking up
+   * the current context.
+   */
+  private final Type _substitutedValue ()
+    {
+      if (_id == 0)
+        return this;
+
+      Substitution substitution = TypingContext.current().substitution();
+
+      if (substitution == null)
+        return this;
+
+      Type value = substitution.get(_id);
+      return value == null ? this : value;
+    }
+
+  /**
+   * Binds this unbound type parameter to the specified type, in the substitution of
+   * the specified typing context if it has one, or else in its <tt>_value</tt> field.
+   */
+  private final void _setValue (Type value, TypingContext context)
+    {
+      if (context.substitution() != null)
+        context.setSubstitution(context.substitution().put(id(),value));
+      else
+        _value = value;
+    }
+
+  /**
+   * Returns the typing context of the specified prover if it is a typechecker, or
+   * else the current typing context.
+   */
+  private static final TypingContext _context (GoalProver prover)
+    {
+      return prover instanceof TypeChecker ? ((TypeChecker)prover).context() : TypingContext.current();
+    }
+
   /**
    * This is used to order type parameters in the header of a type's quantified string.
    */
   private int _index = -1;
 
+  /**
+   * This is an upper bound on the length of the longest binding chain of type
+   * parameters ending in this one. When two unbound type parameters are unified,
+   * the one with the lower rank gets bound to the other (<i>i.e.</i>, <i>union by
+   * rank</i>). Ranks are not restored upon backtracking since they only serve to
+   * keep binding chains short.
+   */
+  private int _rank = 0;
+
   /**
    * This records the set of residuations attached to this type parameter.
    * It associates to each residuation the value of its reference count current
@@ -64,15 +138,24 @@ public class TypeParameter extends StaticType implements Bindable
       return PARAMETER;
     }    
 
-  // /**
-  //  * This method returns the possibly dereferenced type value of this
-  //  * type parameter. (Note to myself: This is never used anywhere as far
-  //  * as I know. This is why it is commented out.)
-  //  */
-  // public final Type valueRef ()
-  //   {
-  //     return _value;
-  //   }
+  /**
+   * This method returns the possibly dereferenced type value of this
+   * type parameter (<i>i.e.</i>, the type it is directly bound to, or
+   * itself if it is unbound).
+   */
+  public final Type valueRef ()
+    {
+      return _value == this ? _substitutedValue() : _value;
+    }
+
+  /**
+   * Sets the type value this is bound to. This is only used to undo the compression
+   * of a binding chain.
+   */
+  final void setValueRef (Type value)
+    {
+      _value = value;
+    }
 
   /**
    * This method acts as a type parameter dereferencing for possibly
@@ -82,7 +165,13 @@ public class TypeParameter extends StaticType implements Bindable
    */
   public final Type value ()
     {
-      return _value == this ? _value : _value.value();
+      if (_value == this)
+        {
+          Type value = _substitutedValue();
+          return value == this ? value : value.value();
+        }
+
+      return _value.value();
     }
 
   /**
@@ -91,21 +180,52 @@ public class TypeParameter extends StaticType implements Bindable
    * <i>FIND</i> operation of the <i>"UNION/FIND"</i> algorithm.  In
    * other words, it returns the same value as the <tt>value()</tt>
    * method, but with a side-effect of setting its <tt>_value</tt> field
-   * to the type it is bound to (which is itself if unbound)
+   * to the type it is bound to (which is itself if unbound). Binding chains
+   * going through a substitution are not shortened.
    */
   public final Type findValue ()
     {
-      return _value == this ? _value : (_value = _value.findValue());
+      if (_value == this)
+        {
+          Type value = _substitutedValue();
+          return value == this ? value : value.findValue();
+        }
+
+      return _value = _value.findValue();
+    }
+
+  /**
+   * This returns the type value this is bound to, like <tt>findValue()</tt>,
+   * shortening the binding chains it walks; each such shortening is trailed
+   * in the specified type checker so that it is exactly undone upon backtracking.
+   */
+  public final Type findValue (TypeChecker typeChecker)
+    {
+      if (_value == this)
+        {
+          Type value = _substitutedValue();
+          return value == this ? value : value.findValue(typeChecker);
+        }
+
+      Type value = _value.findValue(typeChecker);
+
+      if (value != _value)
+        {
+          typeChecker.trail(this,_value);
+          _value = value;
+        }
+
+      return value;
     }
 
   public final boolean isBound ()
     {
-      return this != _value;
+      return this != valueRef();
     }
 
   public final boolean isUnbound ()
     {
-      return this == _value;
+      return this == valueRef();
     }
 
   /**
@@ -118,16 +238,16 @@ public class TypeParameter extends StaticType implements Bindable
       valuable = valuable.getValue();
       if (this != valuable)
         {
-          _value = (Type)valuable;
+          _setValue((Type)valuable,_context(prover));
           prover.trail(this);
         }
-      _releaseResiduations(_value,prover);
+      _releaseResiduations(valueRef(),prover);
       return true;
     }
 
   public final boolean bind (Valuable value)
     {
-      _value = (Type)value;
+      _setValue((Type)value,TypingContext.current());
       return true;
     }
 
@@ -137,7 +257,13 @@ public class TypeParameter extends StaticType implements Bindable
    */
   public final void unbind ()
     {
-      _value = this;
+      TypingContext context;
+
+      if (_value != this)
+        _value = this;
+      else
+        if (_id != 0 && (context = TypingContext.current()).substitution() != null)
+          context.setSubstitution(context.substitution().remove(_id));
 
       if (_residuations != null)
         for (Iterator i=_residuations.iterator(); i.hasNext();)
@@ -174,13 +300,14 @@ public class TypeParameter extends StaticType implements Bindable
 
   public final boolean isPolymorphic ()
     {
-      return (_value == this ? true : _value.isPolymorphic());
+      Type value = valueRef();
+      return (value == this ? true : value.isPolymorphic());
     }
 
   public final void curry (int depth, TypeChecker typeChecker)
     {
       if (isBound())
-        _value.curry(depth,typeChecker);
+        valueRef().curry(depth,typeChecker);
     }
     
   /**
@@ -191,7 +318,7 @@ public class TypeParameter extends StaticType implements Bindable
   public final Type flatten ()
     {
       if (isBound())
-        return _value.flatten();
+        return valueRef().flatten();
 
       return this;
     }    
@@ -258,18 +385,43 @@ public class TypeParameter extends StaticType implements Bindable
    * Unifies this type parameter with the given type in the context of
    * the given type-checker. If this occurs in the specified type,
    * unification fails by throwing a FailedUnificationException.
-   * Otherwise this get bound to the specified type. This binding is
-   * appropriately trailed in the contextual type-checker for undoing
-   * purposes.
+   * Otherwise this get bound to the specified type - unless the type
+   * is a type parameter of higher rank, in which case it gets bound to
+   * this. This binding is appropriately trailed in the contextual
+   * type-checker for undoing purposes.
    */
   public final void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
+      if (type.kind() == PARAMETER)
+        {
+          TypeParameter parameter = (TypeParameter)type;
+
+          if (_rank > parameter._rank)
+            {
+              parameter._bind(this,typeChecker);
+              return;
+            }
+
+          if (_rank == parameter._rank)
+            parameter._rank++;
+        }
+
+      _bind(type,typeChecker);
+    }
+
+  /**
+   * Binds this type parameter to the specified type, trailing the binding in the
+   * specified type-checker, unless this occurs in the type.
+   */
+  private final void _bind (Type type, TypeChecker typeChecker) throws FailedUnificationException
+    {
       type.checkOccurrence(this,type,typeChecker);
       typeChecker.trail(this);
-      _releaseResiduations(_value=type,typeChecker);
+      _setValue(type,typeChecker.context());
+      _releaseResiduations(type,typeChecker);
     }
 
   private final void _releaseResiduations (Type type, GoalProver prover)
@@ -284,7 +436,7 @@ public class TypeParameter extends StaticType implements Bindable
    */
   public final boolean unify (Type type)
     {
-      _value = type.findValue();
+      _setValue(type.findValue(),TypingContext.current());
       return true;
     }
 
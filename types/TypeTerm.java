@@ -93,6 +93,11 @@ public abstract class TypeTerm extends NamedType implements Cloneable
       return false;
     }
 
+  boolean computeSharability ()
+    {
+      return hasSharableComponents();
+    }
+
   // Note to myself: Why then implement the Cloneable interface?
   private final TypeTerm _clone ()
     {
@@ -110,7 +115,7 @@ public abstract class TypeTerm extends NamedType implements Cloneable
 
   public Type copy (HashMap parameters)
     {
-      if (arity() == 0)
+      if (arity() == 0 || isSharable())
         return this;
 
       Type[] newArguments = new Type[arity()];
@@ -123,7 +128,7 @@ public abstract class TypeTerm extends NamedType implements Cloneable
 
   public Type instantiate (HashMap substitution)
     {
-      if (arity() == 0)
+      if (arity() == 0 || isSharable())
         return this;
 
       Type[] arguments = new Type[arity()];
@@ -136,6 +141,9 @@ public abstract class TypeTerm extends NamedType implements Cloneable
 
   public int eqCode ()
     {
+      if (isHashConsed())
+        return consCode();
+
       int code = super.eqCode() + arity();
 
       for (int i=arity(); i-->0;)
@@ -154,6 +162,9 @@ public abstract class TypeTerm extends NamedType implements Cloneable
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof TypeTerm))
         return false;
 
@@ -179,6 +190,9 @@ public abstract class TypeTerm extends NamedType implements Cloneable
       if (this == type)
         return true;
 
+      if (isConsedWith(type))
+        return false;
+
       if (!(type instanceof TypeTerm))
         return false;
 
@@ -196,7 +210,7 @@ public abstract class TypeTerm extends NamedType implements Cloneable
 
   public void unify (Type type, TypeChecker typeChecker) throws FailedUnificationException
     {
-      if ((type = type.value()) == this)
+      if ((type = type.findValue(typeChecker)) == this)
         return;
 
       if (type.kind() == PARAMETER)
@@ -206,12 +220,12 @@ public abstract class TypeTerm extends NamedType implements Cloneable
         }
 
       if (type.kind() != kind())
-        typeChecker.error(new TypeClashException(this,type));
+        typeChecker.clash(this,type);
 
       TypeTerm typeTerm = (TypeTerm)type;
 
       if (typeTerm.name() != name() || typeTerm.arity() != arity())
-        typeChecker.error(new TypeClashException(this,typeTerm));
+        typeChecker.clash(this,typeTerm);
 
       for (int i=arity(); i-->0;)
         {
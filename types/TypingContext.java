@@ -0,0 +1,205 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.design.instructions.Instruction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A <tt>TypingContext</tt> gathers the mutable state of a type-checking session
+ * that is needed by objects that have no access to the <a href="TypeChecker.html">
+ * <tt>TypeChecker</tt></a> working on them; namely:
+ *
+ * <ul>
+ * <li> the counter used for stamping <a href="TimeStamp.html"><tt>TimeStamp</tt></a>
+ *      objects;
+ * <li> the names given to type parameters for printing;
+ * <li> the class types already met while checking whether a type is global-unsafe;
+ * <li> the identifiers given to code arrays for printing;
+ * <li> the substitution binding type parameters, if bindings are persistent.
+ * </ul>
+ *
+ * Each thread has its own <i>current</i> context, which is the one used by these
+ * objects. A typechecker is given a context upon construction (by default, a new
+ * one of its own), and makes it current for the duration of each of its public
+ * operations, restoring the context that was current before. The same goes for
+ * <a href="Tables.html"><tt>Tables</tt></a>, whose context is shared by the
+ * typecheckers constructed with them. Thus, independent typecheckers may run
+ * concurrently, or interleaved in the same thread, without interfering with one
+ * another, and the results of each do not depend on what the others do.
+ */
+public class TypingContext
+{
+  private static final ThreadLocal<TypingContext> _CURRENT = new ThreadLocal<TypingContext>()
+    {
+      protected TypingContext initialValue ()
+        {
+          return new TypingContext();
+        }
+    };
+
+  /**
+   * Returns the typing context that is current in the calling thread.
+   */
+  public static final TypingContext current ()
+    {
+      return _CURRENT.get();
+    }
+
+  /**
+   * Makes this the current typing context of the calling thread, and returns the
+   * one that was current until then, to be restored with <tt>leave</tt>.
+   */
+  public final TypingContext enter ()
+    {
+      TypingContext previous = _CURRENT.get();
+      if (previous != this) _CURRENT.set(this);
+      return previous;
+    }
+
+  /**
+   * Makes the specified typing context, returned by entering this one, the current
+   * typing context of the calling thread again.
+   */
+  public final void leave (TypingContext previous)
+    {
+      if (previous != this) _CURRENT.set(previous);
+    }
+
+  //\\//\\//\\//\\ Time stamps
+
+  /**
+   * This records temporal precedence of the creation of time stamps.
+   */
+  private long _timeStamp = 0;
+
+  /**
+   * Returns a new time stamp.
+   */
+  final long newTimeStamp ()
+    {
+      return _timeStamp++;
+    }
+
+  /**
+   * Resets the temporal origin of time stamping to 0.
+   */
+  final void resetTimeStamps ()
+    {
+      _timeStamp = 0;
+    }
+
+  //\\//\\//\\//\\ Parameter names
+
+  /**
+   * This is used for printing type parameters as names.
+   */
+  private final HashMap<Type,String> _names = new HashMap<Type,String>();
+
+  /**
+   * A counter for generating new parameter names.
+   */
+  private int _varCount = 0;
+
+  /**
+   * Returns the name of the given type parameter, giving it a new one if it has none.
+   */
+  final String parameterName (Type v)
+    {
+      String name = _names.get(v);
+      if (name==null) _names.put(v,name=_newVarName());
+      return name;
+    }
+
+  /**
+   * Returns a new parameter name. The generated names are, successively,
+   * <tt>A, B, ..., Z, AA, AB, ..., AZ, BA, BB, ..., BZ, ..., </tt>, <i>etc.</i>
+   */
+  private final String _newVarName ()
+    {
+      String s = "";
+
+      int n = _varCount++;
+      do
+        {
+          s = String.valueOf((char)('A'+n%26)) + s;
+          n = n/26-1;
+        }
+      while (n >= 0);
+
+      return s;
+    }
+
+  /**
+   * Clears the names of parameters.
+   */
+  final void resetNames ()
+    {
+      _names.clear();
+      _varCount = 0;
+    }
+
+  //\\//\\//\\//\\ Already seen types
+
+  private final ArrayList<Type> _dejaVu = new ArrayList<Type>();
+
+  /**
+   * Returns <tt>true</tt> iff a type equal to the specified one has been seen
+   * before; otherwise, records it as seen and returns <tt>false</tt>.
+   */
+  final boolean isDejaVu (Type type)
+    {
+      for (int i=_dejaVu.size(); i-->0;)
+        if (type.isEqualTo(_dejaVu.get(i))) return true;
+      _dejaVu.add(type);
+      return false;
+    }
+
+  //\\//\\//\\//\\ Code identifiers
+
+  private final HashMap<Instruction[],CodeEntry.CodeId> _codeIds = new HashMap<Instruction[],CodeEntry.CodeId>();
+
+  /**
+   * Returns the identifier of the specified code array, giving it a new one if it
+   * has none.
+   */
+  final CodeEntry.CodeId codeId (Instruction[] code)
+    {
+      CodeEntry.CodeId id = _codeIds.get(code);
+
+      if (id == null)
+        _codeIds.put(code,id = new CodeEntry.CodeId(_codeIds.size()));
+
+      return id;
+    }
+
+  //\\//\\//\\//\\ Substitution
+
+  /**
+   * When not <tt>null</tt>, this holds the bindings of the unbound type parameters
+   * (see <a href="Substitution.html"><tt>Substitution</tt></a>).
+   */
+  private Substitution _substitution;
+
+  /**
+   * Returns the substitution of this context, or <tt>null</tt> if its bindings are
+   * kept in the type parameters themselves.
+   */
+  final Substitution substitution ()
+    {
+      return _substitution;
+    }
+
+  /**
+   * Sets the substitution of this context; when <tt>null</tt>, the bindings are kept
+   * in the type parameters themselves.
+   */
+  final void setSubstitution (Substitution substitution)
+    {
+      _substitution = substitution;
+    }
+}
@@ -0,0 +1,146 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This gathers the JDK Flight Recorder events emitted by a <a href="TypeChecker.html">
+ * <tt>TypeChecker</tt></a>, which make it possible to relate its stalls to other
+ * activity of the JVM (<i>e.g.</i>, garbage collection or allocation) in a recording.
+ * They are all:
+ *
+ * <ul>
+ * <li> <i>disabled</i> by default; to record them, they must be enabled in a recording's
+ *      settings (<i>e.g.</i>, by a <tt>.jfc</tt> file with
+ *      <tt>&lt;event name="hlt.language.design.types.Prove"&gt;&lt;setting name="enabled"&gt;true&lt;/setting&gt;&lt;/event&gt;</tt>);
+ * <li> created only when enabled (as told by their <tt>EventType</tt>, which is
+ *      looked up once and for all), so that, as long as they are not recorded,
+ *      they cost a test and no allocation;
+ * <li> without stack traces.
+ * </ul>
+ *
+ * Each event carries the kind (<i>i.e.</i>, the class name) and time stamp of the goal
+ * it concerns, the name of the symbol of this goal if it is a <a href="GlobalTypingGoal.html">
+ * <tt>GlobalTypingGoal</tt></a>, and the sizes of the typechecker's effect and goal
+ * trails when the event ended.
+ * <p>
+ * <b>NB:</b> the <tt>jdk.jfr</tt> API these events use requires a JDK 11 or later, or
+ * a JDK 8 from update 272 on.
+ */
+final class TypingEvents
+{
+  private TypingEvents ()
+    {
+    }
+
+  /**
+   * The types of these events, whose <tt>isEnabled</tt> method tells whether an
+   * event of the type may be recorded.
+   */
+  static final EventType PROVE = EventType.getEventType(Prove.class);
+  static final EventType BACKTRACK = EventType.getEventType(Backtrack.class);
+  static final EventType UNDO_CUT_POINT = EventType.getEventType(UndoCutPoint.class);
+  static final EventType GLOBAL_GOAL = EventType.getEventType(GlobalGoal.class);
+  static final EventType TRIGGER = EventType.getEventType(Trigger.class);
+
+  @Category({"HLT", "Type Checking"})
+  @Enabled(false)
+  @StackTrace(false)
+  static abstract class TypingEvent extends Event
+    {
+      @Label("Goal Kind")
+      String goalKind;
+
+      @Label("Goal Time Stamp")
+      long goalStamp;
+
+      @Label("Symbol")
+      String symbol;
+
+      @Label("Trail Size")
+      @Description("Number of cells on the effect trail")
+      int trailSize;
+
+      @Label("Goal Trail Size")
+      @Description("Number of goals on the goal trail")
+      int goalTrailSize;
+
+      /**
+       * Fills this event for the specified goal (which may be <tt>null</tt>) and
+       * typechecker, and commits it.
+       */
+      final void record (TypeChecker typeChecker, Goal goal)
+        {
+          if (goal != null)
+            {
+              goalKind = goal.getClass().getSimpleName();
+              goalStamp = goal.timeStamp();
+              if (goal instanceof GlobalTypingGoal)
+                symbol = String.valueOf(((GlobalTypingGoal)goal).global());
+            }
+
+          trailSize = typeChecker.trailSize();
+          goalTrailSize = typeChecker.goalTrailSize();
+          commit();
+        }
+    }
+
+  @Name("hlt.language.design.types.Prove")
+  @Label("Prove Goal")
+  @Description("A goal pushed and proven by TypeChecker.prove, with all the goals pending")
+  static final class Prove extends TypingEvent
+    {
+      @Label("Succeeded")
+      boolean succeeded;
+    }
+
+  @Name("hlt.language.design.types.Backtrack")
+  @Label("Backtrack")
+  @Description("Backtracking to the latest choice point; the goal is the one retried")
+  static final class Backtrack extends TypingEvent
+    {
+      @Label("Trail Cells Undone")
+      int undone;
+    }
+
+  @Name("hlt.language.design.types.UndoCutPoint")
+  @Label("Undo Cut Point")
+  @Description("Undoing the effects above the latest cut point; the goal is the current one")
+  static final class UndoCutPoint extends TypingEvent
+    {
+      @Label("Trail Cells Undone")
+      int undone;
+    }
+
+  @Name("hlt.language.design.types.GlobalTypingGoal")
+  @Label("Global Typing Goal")
+  @Description("Choosing a code entry for a global, and proving its typing goal")
+  static final class GlobalGoal extends TypingEvent
+    {
+      @Label("Retry")
+      @Description("Whether this is a further alternative tried upon backtracking")
+      boolean isRetry;
+
+      @Label("Succeeded")
+      boolean succeeded;
+    }
+
+  @Name("hlt.language.design.types.ResiduationTrigger")
+  @Label("Residuation Trigger")
+  @Description("Proving a residuated goal whose type parameters are all bound")
+  static final class Trigger extends TypingEvent
+    {
+      @Label("Succeeded")
+      boolean succeeded;
+    }
+}
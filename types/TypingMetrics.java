@@ -0,0 +1,409 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A <tt>TypingMetrics</tt> object gathers counts and high-water marks describing the
+ * work of a <a href="TypeChecker.html"><tt>TypeChecker</tt></a> it is given to (see
+ * <tt>TypeChecker.setMetrics</tt>); namely:
+ *
+ * <ul>
+ * <li> the numbers of goals proven and failed, in all and per <a href="Goal.html">
+ *      <tt>Goal</tt></a> subclass;
+ * <li> the numbers of backtracks, of choice points pushed, exhausted, and skipped
+ *      by backjumping, and of cut points pushed and undone;
+ * <li> the high-water marks of the goal, choice-point, cut-point, and exitable
+ *      stacks, and of the effect and goal trails;
+ * <li> a histogram of the latencies of top-level type checks (<i>i.e.</i>, the
+ *      searches for the first type of an expression by <tt>types</tt>,
+ *      <tt>allTypes</tt>, or <tt>uniqueOrAmbiguous</tt>), with power-of-two
+ *      nanosecond buckets.
+ * </ul>
+ *
+ * A typechecker without metrics (the default) only pays for a null test at each
+ * of the corresponding points. These metrics may be read as an immutable <tt>Snapshot</tt>,
+ * or through JMX once registered as an MBean (see <tt>register</tt>).
+ * <p>
+ * <b>NB:</b> A <tt>TypingMetrics</tt> object is meant to be updated by the single thread
+ * running its typechecker. It may be read from any other thread, but what is read may
+ * then lag slightly behind.
+ */
+public class TypingMetrics implements TypingMetricsMBean
+{
+  private long _goalsProven;
+  private long _goalsFailed;
+  /**
+   * This maps each goal class to a pair of counts: goals proven and goals failed.
+   */
+  private final HashMap<Class<?>,long[]> _goalKinds = new HashMap<Class<?>,long[]>();
+
+  private long _backtracks;
+  private long _goalsKept;
+  private long _choicePointsPushed;
+  private long _choicePointsExhausted;
+  private long _choicePointsSkipped;
+  private long _cutPointsPushed;
+  private long _cutPointsUndone;
+
+  private int _maxGoalStack;
+  private int _maxChoicePointStack;
+  private int _maxCutPointStack;
+  private int _maxExitStack;
+  private int _maxTrail;
+  private int _maxGoalTrail;
+
+  private long _typeChecks;
+  private long _illTypedChecks;
+  private long _totalLatency;
+  private long _maxLatency;
+  /**
+   * Bucket <tt>i</tt> counts the latencies <tt>l</tt> such that
+   * 2<sup>i</sup> &lt;= <tt>l</tt> &lt; 2<sup>i+1</sup> nanoseconds.
+   */
+  private final long[] _latencies = new long[64];
+
+  //\\//\\//\\//\\ Recording
+
+  /**
+   * Returns the pair of counts of the specified goal's class, creating it if needed.
+   */
+  private final long[] _counts (Goal goal)
+    {
+      long[] counts = _goalKinds.get(goal.getClass());
+
+      if (counts == null)
+        synchronized (this)
+          {
+            _goalKinds.put(goal.getClass(),counts = new long[2]);
+          }
+
+      return counts;
+    }
+
+  final void goalProven (Goal goal)
+    {
+      _goalsProven++;
+      _counts(goal)[0]++;
+    }
+
+  final void goalFailed (Goal goal)
+    {
+      _goalsFailed++;
+      _counts(goal)[1]++;
+    }
+
+  final void goalPushed (int goalStackSize)
+    {
+      if (goalStackSize > _maxGoalStack) _maxGoalStack = goalStackSize;
+    }
+
+  final void exitablePushed (int exitStackSize)
+    {
+      if (exitStackSize > _maxExitStack) _maxExitStack = exitStackSize;
+    }
+
+  final void choicePointPushed (int choicePointStackSize)
+    {
+      _choicePointsPushed++;
+      if (choicePointStackSize > _maxChoicePointStack)
+        _maxChoicePointStack = choicePointStackSize;
+    }
+
+  final void choicePointExhausted ()
+    {
+      _choicePointsExhausted++;
+    }
+
+  final void choicePointSkipped ()
+    {
+      _choicePointsSkipped++;
+    }
+
+  final void cutPointPushed (int cutPointStackSize)
+    {
+      _cutPointsPushed++;
+      if (cutPointStackSize > _maxCutPointStack)
+        _maxCutPointStack = cutPointStackSize;
+    }
+
+  final void cutPointUndone ()
+    {
+      _cutPointsUndone++;
+    }
+
+  final void backtracked ()
+    {
+      _backtracks++;
+    }
+
+  final void goalsKept (int count)
+    {
+      _goalsKept += count;
+    }
+
+  /**
+   * Records the current sizes of the trails. Since the trails only shrink when they
+   * are unwound, calling this before each unwinding and at the end of each search
+   * records their high-water marks.
+   */
+  final void trailSizes (int trailSize, int goalTrailSize)
+    {
+      if (trailSize > _maxTrail) _maxTrail = trailSize;
+      if (goalTrailSize > _maxGoalTrail) _maxGoalTrail = goalTrailSize;
+    }
+
+  /**
+   * Records a top-level type check that took the specified number of nanoseconds and
+   * succeeded or not as specified.
+   */
+  final void typeChecked (long latency, boolean isWellTyped)
+    {
+      _typeChecks++;
+      if (!isWellTyped) _illTypedChecks++;
+      _totalLatency += latency;
+      if (latency > _maxLatency) _maxLatency = latency;
+      _latencies[63-Long.numberOfLeadingZeros(latency|1)]++;
+    }
+
+  //\\//\\//\\//\\ Reading
+
+  /**
+   * Returns an immutable snapshot of these metrics.
+   */
+  public final Snapshot snapshot ()
+    {
+      return new Snapshot(this);
+    }
+
+  /**
+   * Resets all the metrics to zero.
+   */
+  public final synchronized void reset ()
+    {
+      _goalsProven = _goalsFailed = 0;
+      _goalKinds.clear();
+      _backtracks = _goalsKept = _choicePointsPushed = _choicePointsExhausted = _choicePointsSkipped = 0;
+      _cutPointsPushed = _cutPointsUndone = 0;
+      _maxGoalStack = _maxChoicePointStack = _maxCutPointStack = _maxExitStack = 0;
+      _maxTrail = _maxGoalTrail = 0;
+      _typeChecks = _illTypedChecks = _totalLatency = _maxLatency = 0;
+      for (int i=_latencies.length; i-->0;)
+        _latencies[i] = 0;
+    }
+
+  /**
+   * Returns a map from goal class simple names to the counts at the specified index
+   * of their pairs of counts.
+   */
+  private final synchronized Map<String,Long> _byKind (int index)
+    {
+      TreeMap<String,Long> map = new TreeMap<String,Long>();
+
+      for (Iterator<Map.Entry<Class<?>,long[]>> i=_goalKinds.entrySet().iterator(); i.hasNext();)
+        {
+          Map.Entry<Class<?>,long[]> entry = i.next();
+          map.put(entry.getKey().getSimpleName(),Long.valueOf(entry.getValue()[index]));
+        }
+
+      return map;
+    }
+
+  public final long getGoalsProven ()             { return _goalsProven; }
+  public final long getGoalsFailed ()             { return _goalsFailed; }
+  public final Map<String,Long> getGoalsProvenByKind () { return _byKind(0); }
+  public final Map<String,Long> getGoalsFailedByKind () { return _byKind(1); }
+  public final long getBacktracks ()              { return _backtracks; }
+  public final long getGoalsKept ()               { return _goalsKept; }
+  public final long getChoicePointsPushed ()      { return _choicePointsPushed; }
+  public final long getChoicePointsExhausted ()   { return _choicePointsExhausted; }
+  public final long getChoicePointsSkipped ()     { return _choicePointsSkipped; }
+  public final long getCutPointsPushed ()         { return _cutPointsPushed; }
+  public final long getCutPointsUndone ()         { return _cutPointsUndone; }
+  public final int getMaxGoalStack ()             { return _maxGoalStack; }
+  public final int getMaxChoicePointStack ()      { return _maxChoicePointStack; }
+  public final int getMaxCutPointStack ()         { return _maxCutPointStack; }
+  public final int getMaxExitStack ()             { return _maxExitStack; }
+  public final int getMaxTrail ()                 { return _maxTrail; }
+  public final int getMaxGoalTrail ()             { return _maxGoalTrail; }
+  public final long getTypeChecks ()              { return _typeChecks; }
+  public final long getIllTypedChecks ()          { return _illTypedChecks; }
+  public final double getLatencyMeanMicros ()     { return snapshot().latencyMeanMicros(); }
+  public final double getLatencyP50Micros ()      { return snapshot().latencyMicros(0.50); }
+  public final double getLatencyP99Micros ()      { return snapshot().latencyMicros(0.99); }
+  public final double getLatencyMaxMicros ()      { return _maxLatency/1000.0; }
+
+  //\\//\\//\\//\\ JMX
+
+  private ObjectName _objectName;
+
+  /**
+   * Registers these metrics as an MBean in the platform MBean server under the name
+   * <tt>hlt.language.design.types:type=TypingMetrics,name=</tt><i>name</i>, and returns
+   * this name.
+   */
+  public final ObjectName register (String name) throws JMException
+    {
+      ObjectName objectName
+        = new ObjectName("hlt.language.design.types:type=TypingMetrics,name="+ObjectName.quote(name));
+
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this,objectName);
+      return _objectName = objectName;
+    }
+
+  /**
+   * Unregisters these metrics from the platform MBean server if they were registered.
+   */
+  public final void unregister () throws JMException
+    {
+      if (_objectName == null)
+        return;
+
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(_objectName);
+      _objectName = null;
+    }
+
+  //\\//\\//\\//\\ Snapshots
+
+  /**
+   * A <tt>Snapshot</tt> is an immutable copy of the values of some <tt>TypingMetrics</tt>
+   * at some point in time.
+   */
+  public static final class Snapshot
+    {
+      private final long _goalsProven;
+      private final long _goalsFailed;
+      private final Map<String,Long> _goalsProvenByKind;
+      private final Map<String,Long> _goalsFailedByKind;
+      private final long _backtracks;
+      private final long _goalsKept;
+      private final long _choicePointsPushed;
+      private final long _choicePointsExhausted;
+      private final long _choicePointsSkipped;
+      private final long _cutPointsPushed;
+      private final long _cutPointsUndone;
+      private final int _maxGoalStack;
+      private final int _maxChoicePointStack;
+      private final int _maxCutPointStack;
+      private final int _maxExitStack;
+      private final int _maxTrail;
+      private final int _maxGoalTrail;
+      private final long _typeChecks;
+      private final long _illTypedChecks;
+      private final long _totalLatency;
+      private final long _maxLatency;
+      private final long[] _latencies;
+
+      private Snapshot (TypingMetrics metrics)
+        {
+          _goalsProven = metrics._goalsProven;
+          _goalsFailed = metrics._goalsFailed;
+          _goalsProvenByKind = metrics._byKind(0);
+          _goalsFailedByKind = metrics._byKind(1);
+          _backtracks = metrics._backtracks;
+          _goalsKept = metrics._goalsKept;
+          _choicePointsPushed = metrics._choicePointsPushed;
+          _choicePointsExhausted = metrics._choicePointsExhausted;
+          _choicePointsSkipped = metrics._choicePointsSkipped;
+          _cutPointsPushed = metrics._cutPointsPushed;
+          _cutPointsUndone = metrics._cutPointsUndone;
+          _maxGoalStack = metrics._maxGoalStack;
+          _maxChoicePointStack = metrics._maxChoicePointStack;
+          _maxCutPointStack = metrics._maxCutPointStack;
+          _maxExitStack = metrics._maxExitStack;
+          _maxTrail = metrics._maxTrail;
+          _maxGoalTrail = metrics._maxGoalTrail;
+          _typeChecks = metrics._typeChecks;
+          _illTypedChecks = metrics._illTypedChecks;
+          _totalLatency = metrics._totalLatency;
+          _maxLatency = metrics._maxLatency;
+          _latencies = metrics._latencies.clone();
+        }
+
+      public final long goalsProven ()             { return _goalsProven; }
+      public final long goalsFailed ()             { return _goalsFailed; }
+      public final Map<String,Long> goalsProvenByKind () { return _goalsProvenByKind; }
+      public final Map<String,Long> goalsFailedByKind () { return _goalsFailedByKind; }
+      public final long backtracks ()              { return _backtracks; }
+      public final long goalsKept ()               { return _goalsKept; }
+      public final long choicePointsPushed ()      { return _choicePointsPushed; }
+      public final long choicePointsExhausted ()   { return _choicePointsExhausted; }
+      public final long choicePointsSkipped ()     { return _choicePointsSkipped; }
+      public final long cutPointsPushed ()         { return _cutPointsPushed; }
+      public final long cutPointsUndone ()         { return _cutPointsUndone; }
+      public final int maxGoalStack ()             { return _maxGoalStack; }
+      public final int maxChoicePointStack ()      { return _maxChoicePointStack; }
+      public final int maxCutPointStack ()         { return _maxCutPointStack; }
+      public final int maxExitStack ()             { return _maxExitStack; }
+      public final int maxTrail ()                 { return _maxTrail; }
+      public final int maxGoalTrail ()             { return _maxGoalTrail; }
+      public final long typeChecks ()              { return _typeChecks; }
+      public final long illTypedChecks ()          { return _illTypedChecks; }
+
+      /**
+       * Returns the number of top-level type checks whose latency <tt>l</tt> was such
+       * that 2<sup>i</sup> &lt;= <tt>l</tt> &lt; 2<sup>i+1</sup> nanoseconds.
+       */
+      public final long latencyBucket (int i)
+        {
+          return _latencies[i];
+        }
+
+      public final double latencyMeanMicros ()
+        {
+          return _typeChecks == 0 ? 0.0 : _totalLatency/(1000.0*_typeChecks);
+        }
+
+      /**
+       * Returns an upper bound of the specified quantile (between 0 and 1) of the
+       * latencies of top-level type checks, in microseconds; namely, the upper bound
+       * of the histogram bucket it falls in (or the maximum latency, if lower).
+       */
+      public final double latencyMicros (double quantile)
+        {
+          long count = 0;
+          for (int i=0; i<_latencies.length; i++)
+            count += _latencies[i];
+
+          if (count == 0)
+            return 0.0;
+
+          long rank = Math.max(1,(long)Math.ceil(quantile*count));
+
+          for (int i=0; i<_latencies.length; i++)
+            if ((rank -= _latencies[i]) <= 0)
+              return Math.min(_maxLatency,i == 62 ? Long.MAX_VALUE : (1L << (i+1))-1)/1000.0;
+
+          return _maxLatency/1000.0;
+        }
+
+      public final String toString ()
+        {
+          return "goals proven:            " + _goalsProven + " " + _goalsProvenByKind + "\n" +
+                 "goals failed:            " + _goalsFailed + " " + _goalsFailedByKind + "\n" +
+                 "backtracks:              " + _backtracks + " (" + _goalsKept + " goals kept)\n" +
+                 "choice points:           " + _choicePointsPushed + " pushed, " +
+                                               _choicePointsExhausted + " exhausted, " +
+                                               _choicePointsSkipped + " skipped\n" +
+                 "cut points:              " + _cutPointsPushed + " pushed, " +
+                                               _cutPointsUndone + " undone\n" +
+                 "max stacks (g/cp/ct/ex): " + _maxGoalStack + "/" + _maxChoicePointStack + "/" +
+                                               _maxCutPointStack + "/" + _maxExitStack + "\n" +
+                 "max trails (effect/goal): " + _maxTrail + "/" + _maxGoalTrail + "\n" +
+                 "type checks:             " + _typeChecks + " (" + _illTypedChecks + " ill-typed)\n" +
+                 "latency (us):            mean " + latencyMeanMicros() +
+                                             ", p50 <= " + latencyMicros(0.50) +
+                                             ", p99 <= " + latencyMicros(0.99) +
+                                             ", max " + _maxLatency/1000.0;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import java.util.Map;
+
+/**
+ * This is the management interface of <a href="TypingMetrics.html"><tt>TypingMetrics</tt></a>
+ * objects, through which they are exposed as standard JMX MBeans. The attributes are
+ * those of a <a href="TypingMetrics.Snapshot.html"><tt>TypingMetrics.Snapshot</tt></a>,
+ * read live; latencies are in microseconds.
+ */
+public interface TypingMetricsMBean
+{
+  public long getGoalsProven ();
+  public long getGoalsFailed ();
+
+  /**
+   * Returns a map from goal class simple names to the numbers of goals of that class
+   * proven.
+   */
+  public Map<String,Long> getGoalsProvenByKind ();
+
+  /**
+   * Returns a map from goal class simple names to the numbers of goals of that class
+   * that failed.
+   */
+  public Map<String,Long> getGoalsFailedByKind ();
+
+  public long getBacktracks ();
+
+  /**
+   * Returns the number of proven goals kept rather than replayed upon backtracking.
+   */
+  public long getGoalsKept ();
+
+  public long getChoicePointsPushed ();
+  public long getChoicePointsExhausted ();
+  public long getChoicePointsSkipped ();
+  public long getCutPointsPushed ();
+  public long getCutPointsUndone ();
+
+  public int getMaxGoalStack ();
+  public int getMaxChoicePointStack ();
+  public int getMaxCutPointStack ();
+  public int getMaxExitStack ();
+  public int getMaxTrail ();
+  public int getMaxGoalTrail ();
+
+  public long getTypeChecks ();
+  public long getIllTypedChecks ();
+  public double getLatencyMeanMicros ();
+  public double getLatencyP50Micros ();
+  public double getLatencyP99Micros ();
+  public double getLatencyMaxMicros ();
+
+  /**
+   * Resets all the metrics to zero.
+   */
+  public void reset ();
+}
@@ -0,0 +1,317 @@
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+// PLEASE DO NOT EDIT WITHOUT THE EXPLICIT CONSENT OF THE AUTHOR! \\
+//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\//\\
+
+package hlt.language.design.types;
+
+import hlt.language.tools.Misc;
+import hlt.language.design.kernel.Global;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A <tt>TypingProfiler</tt> attributes the backtracking work of a <a href="TypeChecker.html">
+ * <tt>TypeChecker</tt></a> it is given to (see <tt>TypeChecker.setProfiler</tt>) to the
+ * overloaded symbols, to the occurrences of globals (identified by their extents), and
+ * to the code entries responsible for it. This is done by following each <a href="GlobalTypingGoal.html">
+ * <tt>GlobalTypingGoal</tt></a> as it tries the alternatives of its <a href="ChoicePoint.html">
+ * <tt>ChoicePoint</tt></a> in turn. For each symbol, global occurrence, and code entry,
+ * it counts:
+ *
+ * <ul>
+ * <li> <i>resolutions</i>: the number of times a global's goal was (re)initialized;
+ * <li> <i>choice points</i>: the number of those initializations that left more than
+ *      one viable code entry, and thus pushed a choice point;
+ * <li> <i>retries</i>: the number of times a further alternative was tried upon
+ *      backtracking;
+ * <li> <i>failures</i>: the number of alternatives abandoned upon backtracking;
+ * <li> <i>time</i>: the time elapsed while each alternative was the current one,
+ *      from its being chosen until it was abandoned, or until the typechecker was
+ *      reset. This time is inclusive: it counts that of the goals proven under
+ *      this alternative, including that of other globals' alternatives.
+ * </ul>
+ *
+ * The profile is shown as a hot-spot report (see <tt>report</tt>), in decreasing order
+ * of time, which helps find which overloads to reorder or prune.
+ * <p>
+ * <b>NB:</b> Occurrences of globals are told apart by the source positions of their
+ * extents (see <tt>Misc.locationString</tt>), and shown in the report by these positions
+ * followed by their symbols' names, so that they may be traced back to the source (<i>e.g.</i>,
+ * of a prelude). The occurrences at the same position (<i>e.g.</i>, of an expression
+ * checked again) are thus profiled together.
+ */
+public class TypingProfiler
+{
+  /**
+   * The profiles of symbols, keyed by name.
+   */
+  private final HashMap<String,Spot> _symbols = new HashMap<String,Spot>();
+
+  /**
+   * The profiles of global occurrences, keyed by source position and symbol name.
+   */
+  private final HashMap<String,Spot> _locations = new HashMap<String,Spot>();
+
+  /**
+   * The profiles of code entries, keyed by entry.
+   */
+  private final IdentityHashMap<CodeEntry,Spot> _entries = new IdentityHashMap<CodeEntry,Spot>();
+
+  /**
+   * The alternatives currently chosen by the goals being followed, keyed by goal.
+   */
+  private final IdentityHashMap<GlobalTypingGoal,Alternative> _current
+    = new IdentityHashMap<GlobalTypingGoal,Alternative>();
+
+  /**
+   * Resets this profiler to an empty profile.
+   */
+  public final void reset ()
+    {
+      _symbols.clear();
+      _locations.clear();
+      _entries.clear();
+      _current.clear();
+    }
+
+  //\\//\\//\\//\\ Recording
+
+  /**
+   * Records that the specified goal for the specified global was initialized with
+   * the specified entry as its first choice, pushing a choice point or not as specified.
+   */
+  final void resolved (GlobalTypingGoal goal, Global global, CodeEntry entry, boolean hasChoicePoint)
+    {
+      _close(goal,false);
+
+      Spot[] spots = _spots(global,entry);
+      for (int i=0; i<spots.length; i++)
+        {
+          spots[i]._resolutions++;
+          if (hasChoicePoint) spots[i]._choicePoints++;
+        }
+
+      _open(goal,spots);
+    }
+
+  /**
+   * Records that the specified goal for the specified global abandoned its current
+   * alternative to try the specified entry.
+   */
+  final void retried (GlobalTypingGoal goal, Global global, CodeEntry entry)
+    {
+      _close(goal,true);
+
+      Spot[] spots = _spots(global,entry);
+      for (int i=0; i<spots.length; i++)
+        spots[i]._retries++;
+
+      _open(goal,spots);
+    }
+
+  /**
+   * Records that the specified goal abandoned its current alternative as it was undone.
+   */
+  final void undone (GlobalTypingGoal goal)
+    {
+      _close(goal,true);
+    }
+
+  /**
+   * Charges their time so far to all the current alternatives, and stops following
+   * them. This is called when the typechecker is reset.
+   */
+  final void closeAll ()
+    {
+      if (_current.isEmpty())
+        return;
+
+      long now = System.nanoTime();
+
+      for (Iterator<Alternative> i=_current.values().iterator(); i.hasNext();)
+        _charge(i.next(),now,false);
+
+      _current.clear();
+    }
+
+  private final void _open (GlobalTypingGoal goal, Spot[] spots)
+    {
+      _current.put(goal,new Alternative(spots,System.nanoTime()));
+    }
+
+  private final void _close (GlobalTypingGoal goal, boolean hasFailed)
+    {
+      Alternative alternative = _current.remove(goal);
+
+      if (alternative != null)
+        _charge(alternative,System.nanoTime(),hasFailed);
+    }
+
+  private final void _charge (Alternative alternative, long now, boolean hasFailed)
+    {
+      for (int i=0; i<alternative._spots.length; i++)
+        {
+          alternative._spots[i]._time += now - alternative._start;
+          if (hasFailed) alternative._spots[i]._failures++;
+        }
+    }
+
+  /**
+   * Returns the profiles of the symbol, the occurrence, and the code entry concerned
+   * by choosing the specified entry for the specified global.
+   */
+  private final Spot[] _spots (Global global, CodeEntry entry)
+    {
+      Spot symbol = _symbols.get(entry.symbol().name());
+      if (symbol == null)
+        _symbols.put(entry.symbol().name(),symbol = new Spot(entry.symbol().name()));
+
+      String extent = Misc.locationString(global.extent())+" "+entry.symbol().name();
+      Spot location = _locations.get(extent);
+      if (location == null)
+        _locations.put(extent,location = new Spot(extent));
+
+      Spot code = _entries.get(entry);
+      if (code == null)
+        _entries.put(entry,code = new Spot(entry.symbol().name()+" : "+entry.type()));
+
+      return new Spot[] { symbol, location, code };
+    }
+
+  //\\//\\//\\//\\ Reporting
+
+  /**
+   * Returns the profiles of symbols, in decreasing order of time.
+   */
+  public final Spot[] symbols ()
+    {
+      return _sorted(_symbols);
+    }
+
+  /**
+   * Returns the profiles of global occurrences, in decreasing order of time.
+   */
+  public final Spot[] locations ()
+    {
+      return _sorted(_locations);
+    }
+
+  /**
+   * Returns the profiles of code entries, in decreasing order of time.
+   */
+  public final Spot[] entries ()
+    {
+      return _sorted(_entries);
+    }
+
+  private static final Comparator<Spot> _HOTTEST_FIRST = new Comparator<Spot>()
+    {
+      public int compare (Spot s1, Spot s2)
+        {
+          if (s1._time != s2._time)
+            return s1._time > s2._time ? -1 : 1;
+
+          if (s1._failures != s2._failures)
+            return s1._failures > s2._failures ? -1 : 1;
+
+          return s1._name.compareTo(s2._name);
+        }
+    };
+
+  private static final Spot[] _sorted (Map<?,Spot> profiles)
+    {
+      Spot[] spots = profiles.values().toArray(new Spot[profiles.size()]);
+      Arrays.sort(spots,_HOTTEST_FIRST);
+      return spots;
+    }
+
+  /**
+   * Returns a hot-spot report showing, for symbols, global occurrences, and code entries,
+   * at most the specified number of the most time-consuming ones.
+   */
+  public final String report (int limit)
+    {
+      StringBuilder buf = new StringBuilder();
+
+      _report(buf,"symbol",symbols(),limit);
+      _report(buf,"location",locations(),limit);
+      _report(buf,"code entry",entries(),limit);
+
+      return buf.toString();
+    }
+
+  private static final void _report (StringBuilder buf, String title, Spot[] spots, int limit)
+    {
+      buf.append(String.format("%12s %10s %8s %8s %8s  %s%n",
+                               "time(us)","resolved","chpts","retries","failures",title));
+
+      for (int i=0; i<Math.min(limit,spots.length); i++)
+        buf.append(spots[i]).append("\n");
+
+      buf.append("\n");
+    }
+
+  public final String toString ()
+    {
+      return report(Integer.MAX_VALUE);
+    }
+
+  //\\//\\//\\//\\ Profiles
+
+  /**
+   * A <tt>Spot</tt> holds the counts and time attributed to a symbol, a global occurrence,
+   * or a code entry.
+   */
+  public static final class Spot
+    {
+      private final String _name;
+      private long _resolutions;
+      private long _choicePoints;
+      private long _retries;
+      private long _failures;
+      private long _time;
+
+      private Spot (String name)
+        {
+          _name = name;
+        }
+
+      public final String name ()          { return _name; }
+      public final long resolutions ()     { return _resolutions; }
+      public final long choicePoints ()    { return _choicePoints; }
+      public final long retries ()         { return _retries; }
+      public final long failures ()        { return _failures; }
+
+      /**
+       * Returns the time attributed to this, in nanoseconds.
+       */
+      public final long time ()            { return _time; }
+
+      public final String toString ()
+        {
+          return String.format("%12.1f %10d %8d %8d %8d  %s",
+                               _time/1000.0,_resolutions,_choicePoints,_retries,_failures,_name);
+        }
+    }
+
+  /**
+   * An <tt>Alternative</tt> records the profiles to charge the time of a goal's
+   * current alternative to, and when it was chosen.
+   */
+  private static final class Alternative
+    {
+      private final Spot[] _spots;
+      private final long _start;
+
+      Alternative (Spot[] spots, long start)
+        {
+          _spots = spots;
+          _start = start;
+        }
+    }
+}
@@ -16,9 +16,8 @@ package hlt.language.design.types;
  * <ul>
  * <li> a <tt>goalStack</tt> pointer;
  * <li> a <tt>chptStack</tt> pointer;
- * <li> a <tt>bindTrail</tt> pointer;
- * <li> a <tt>typeTrail</tt> pointer;
- * <li> a <tt>applTrail</tt> pointer;
+ * <li> a <tt>trail</tt> pointer (into the effect trail of bindings and
+ *      currying transformations - see <a href="Trail.html"><tt>Trail</tt></a>);
  * <li> a <tt>goalTrail</tt> pointer;
  * </ul>
  */
@@ -27,23 +26,17 @@ public class TypingState extends TimeStamp
 {
   private int _goalStackPoint;
   private int _chptStackPoint;
-  private int _bindTrailPoint;
-  private int _typeTrailPoint;
-  private int _applTrailPoint;
+  private int _trailPoint;
   private int _goalTrailPoint;
 
   final TypingState save (int goalStackPoint,
                           int chptStackPoint,
-                          int bindTrailPoint,
-                          int typeTrailPoint,
-                          int applTrailPoint,
+                          int trailPoint,
                           int goalTrailPoint)
     {
       _goalStackPoint = goalStackPoint;
       _chptStackPoint = chptStackPoint;
-      _bindTrailPoint = bindTrailPoint;
-      _typeTrailPoint = typeTrailPoint;
-      _applTrailPoint = applTrailPoint;
+      _trailPoint = trailPoint;
       _goalTrailPoint = goalTrailPoint;
       return this;
     }
@@ -58,24 +51,24 @@ public class TypingState extends TimeStamp
       return _chptStackPoint;
     }
 
-  final int bindTrailPoint ()
+  final int trailPoint ()
     {
-      return _bindTrailPoint;
+      return _trailPoint;
     }
 
-  final int typeTrailPoint ()
-    {
-      return _typeTrailPoint;
-    }
-
-  final int applTrailPoint ()
+  final int goalTrailPoint ()
     {
-      return _applTrailPoint;
+      return _goalTrailPoint;
     }
 
-  final int goalTrailPoint ()
+  /**
+   * Moves the trail points of this state, which is needed when effects and goals
+   * recorded above them are moved below them.
+   */
+  final void moveTrailPoints (int trailPoint, int goalTrailPoint)
     {
-      return _goalTrailPoint;
+      _trailPoint = trailPoint;
+      _goalTrailPoint = goalTrailPoint;
     }
 
   public String toString ()
@@ -83,9 +76,7 @@ public class TypingState extends TimeStamp
       return "TypingState " +  timeStamp() + " <" +
           "goalStackPoint = " + _goalStackPoint + ", " +
           "chptStackPoint = " + _chptStackPoint + ", " +
-          "bindTrailPoint = " + _bindTrailPoint + ", " +
-          "typeTrailPoint = " + _typeTrailPoint + ", " +
-          "applTrailPoint = " + _applTrailPoint + ", " +
+          "trailPoint = " + _trailPoint + ", " +
           "goalTrailPoint = " + _goalTrailPoint + ">";
     }
 }
@@ -23,6 +23,14 @@ public class UnifyGoal extends Goal
   private Type _rhs;
   private Locatable _extent;
 
+  /**
+   * The effect trail points before and after the latest proof of this goal, or -1
+   * if this proof was not done directly by the typechecker's main loop (<i>e.g.</i>,
+   * when nested within the proof of another goal).
+   */
+  private int _spanStart = -1;
+  private int _spanEnd = -1;
+
   public UnifyGoal (Type lhs, Type rhs)
     {
       _lhs = lhs;
@@ -51,10 +59,40 @@ public class UnifyGoal extends Goal
       return _rhs.value();
     }
 
+  final Type lhsRef ()
+    {
+      return _lhs;
+    }
+
+  final Type rhsRef ()
+    {
+      return _rhs;
+    }
+
+  final int spanStart ()
+    {
+      return _spanStart;
+    }
+
+  final int spanEnd ()
+    {
+      return _spanEnd;
+    }
+
+  /**
+   * Records the effect trail points before and after the latest proof of this goal.
+   */
+  final void setSpan (int start, int end)
+    {
+      _spanStart = start;
+      _spanEnd = end;
+    }
+
   void prove (TypeChecker typeChecker) throws FailedUnificationException
     {
+      _spanStart = _spanEnd = -1;
       trail(typeChecker);
-      lhs().unify(rhs(),typeChecker);
+      _lhs.findValue(typeChecker).unify(_rhs.findValue(typeChecker),typeChecker);
     }
 
   public String toString ()